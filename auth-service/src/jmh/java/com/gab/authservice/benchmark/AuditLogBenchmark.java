@@ -0,0 +1,239 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.config.JwtAuthFilter;
+import com.gab.authservice.service.AuditEvent;
+import com.gab.authservice.service.AuditLog;
+import com.gab.authservice.service.AuditSink;
+import com.gab.authservice.service.JdbcAuditSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * What auditing costs a request thread: {@code publish} hands an event to {@link AuditLog} (ring buffer, background
+ * writer), {@code insertPerEvent} writes it to {@code audit_events} on the calling thread, one INSERT per event, which
+ * is what auditing without the buffer would do.
+ * <p>
+ * {@code publish} runs against a sink that discards batches and against the real {@link JdbcAuditSink}, with both
+ * overflow policies. The database is in-memory H2 ({@code h2}) or a PostgreSQL server given by
+ * {@code BENCHMARK_POSTGRES_URL}, {@code BENCHMARK_POSTGRES_USER} and {@code BENCHMARK_POSTGRES_PASSWORD}
+ * ({@code postgres}; setup fails without the URL), where the application's migrations are applied and every commit is
+ * flushed to disk. Publishers call it back to back, far faster than requests would, so the buffer runs
+ * full whenever the writer falls behind: with {@code drop} the score mixes accepted and dropped events, with
+ * {@code block} it is capped by what the writer sustains. After each iteration the events accepted, dropped and
+ * written per second are printed, so the two can be told apart.
+ * </p>
+ * <p>
+ * {@code rejectedToken} is a request that pays for an event: {@link JwtAuthFilter} turning away a token whose
+ * signature does not verify, with auditing off ({@code off}) or publishing {@code TOKEN_REJECTED} to the
+ * {@link JdbcAuditSink} with the default {@code drop} policy. The difference between the two is what auditing adds to
+ * a request.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+public class AuditLogBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Buffered {
+
+        @Param({"discard", "h2", "postgres"})
+        public String sink;
+
+        @Param({"drop", "block"})
+        public String overflow;
+
+        private ConfigurableApplicationContext context;
+        private MeterRegistry meterRegistry;
+        private AuditLog auditLog;
+        private long iterationStart;
+        private double[] countsAtStart;
+
+        @Setup
+        public void setUp() {
+            AuditSink auditSink = batch -> {
+            };
+            if (!sink.equals("discard")) {
+                context = databaseContext(sink, "audit-benchmark-buffered");
+                auditSink = jdbcSink(context);
+            }
+            meterRegistry = new SimpleMeterRegistry();
+            // The production defaults
+            auditLog = new AuditLog(auditSink, true, 65536, 500, Duration.ofMillis(200), overflow,
+                    Duration.ofMillis(50), meterRegistry);
+            auditLog.start();
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            iterationStart = System.nanoTime();
+            countsAtStart = counts();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportRates() {
+            double seconds = (System.nanoTime() - iterationStart) / 1e9;
+            double[] counts = counts();
+            System.out.printf("%n  per second: accepted %,.0f, dropped %,.0f, written %,.0f%n",
+                    (counts[0] - countsAtStart[0]) / seconds, (counts[1] - countsAtStart[1]) / seconds,
+                    (counts[2] - countsAtStart[2]) / seconds);
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            auditLog.stop();
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        private double[] counts() {
+            return new double[]{
+                    meterRegistry.get("audit.events.published").tag("result", "accepted").counter().count(),
+                    meterRegistry.get("audit.events.published").tag("result", "dropped").counter().count(),
+                    meterRegistry.get("audit.events.written").tag("result", "success").counter().count()};
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Synchronous {
+
+        @Param({"h2", "postgres"})
+        public String database;
+
+        private ConfigurableApplicationContext context;
+        private JdbcAuditSink auditSink;
+
+        @Setup
+        public void setUp() {
+            context = databaseContext(database, "audit-benchmark-synchronous");
+            auditSink = jdbcSink(context);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filter {
+
+        @Param({"off", "h2", "postgres"})
+        public String audit;
+
+        private ConfigurableApplicationContext context;
+        private AuditLog auditLog;
+        private JwtAuthFilter filter;
+        private String authorization;
+        private final FilterChain chain = (req, res) -> {
+        };
+
+        @Setup
+        public void setUp() {
+            if (audit.equals("off")) {
+                auditLog = BenchmarkFixtures.auditLog();
+            } else {
+                context = databaseContext(audit, "audit-benchmark-filter");
+                auditLog = new AuditLog(jdbcSink(context), true, 65536, 500, Duration.ofMillis(200), "drop",
+                        Duration.ofMillis(50), new SimpleMeterRegistry());
+            }
+            auditLog.start();
+            var jwtService = BenchmarkFixtures.jwtService(false);
+            filter = new JwtAuthFilter(jwtService, auditLog, new SimpleMeterRegistry());
+            String token = jwtService.generateToken(BenchmarkFixtures.user("bench@example.com", "unused"));
+            // Same header and payload, signature of another token
+            String forged = token.substring(0, token.lastIndexOf('.') + 1) + jwtService.generateToken(
+                    BenchmarkFixtures.user("other@example.com", "unused")).substring(token.lastIndexOf('.') + 1);
+            authorization = "Bearer " + forged;
+        }
+
+        @TearDown
+        public void tearDown() throws InterruptedException {
+            auditLog.stop();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public void publish(Buffered state) {
+        state.auditLog.publish(AuditEvent.Type.LOGIN_FAILURE, "bench@example.com", "10.0.0.1", "bad_password");
+    }
+
+    @Benchmark
+    public void insertPerEvent(Synchronous state) {
+        state.auditSink.write(List.of(
+                AuditEvent.of(AuditEvent.Type.LOGIN_FAILURE, "bench@example.com", "10.0.0.1", "bad_password")));
+    }
+
+    @Benchmark
+    public Object rejectedToken(Filter state) throws ServletException, IOException {
+        // A request per call: the filter marks the request it has seen, and the state is shared by the threads
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/demo/hello_user");
+        request.setServletPath("/api/demo/hello_user");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("Authorization", state.authorization);
+        SecurityContextHolder.clearContext();
+        state.filter.doFilter(request, new MockHttpServletResponse(), state.chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static JdbcAuditSink jdbcSink(ConfigurableApplicationContext context) {
+        return new JdbcAuditSink(context.getBean(JdbcTemplate.class),
+                context.getBean(PlatformTransactionManager.class), Duration.ofDays(90), 10_000);
+    }
+
+    // The datasource with the application's migrations applied, as in SignupBenchmark
+    private static ConfigurableApplicationContext databaseContext(String database, String h2Name) {
+        String[] datasource;
+        if (database.equals("postgres")) {
+            String url = System.getenv("BENCHMARK_POSTGRES_URL");
+            if (url == null || url.isEmpty()) {
+                throw new IllegalStateException("BENCHMARK_POSTGRES_URL is not set");
+            }
+            datasource = new String[]{"--spring.datasource.url=" + url,
+                    "--spring.datasource.username=" + env("BENCHMARK_POSTGRES_USER", "postgres"),
+                    "--spring.datasource.password=" + env("BENCHMARK_POSTGRES_PASSWORD", ""),
+                    "--spring.datasource.driver-class-name=org.postgresql.Driver"};
+        } else {
+            datasource = new String[]{
+                    "--spring.datasource.url=jdbc:h2:mem:" + h2Name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.driver-class-name=org.h2.Driver"};
+        }
+        return new SpringApplicationBuilder(SignupBenchmark.JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(Stream.of(datasource), Stream.of(
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.gab.authservice=WARN")).toArray(String[]::new));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,54 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.repository.InMemoryUserRepository;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.AuthService;
+import com.gab.authservice.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end {@link AuthService#login} (lookup, bcrypt match, token signing) against an in-memory repository,
+ * so the number reflects service CPU cost rather than database latency. The refresh token is stubbed; its insert is
+ * measured by {@link RefreshBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class AuthServiceLoginBenchmark {
+
+    private AuthService authService;
+    private LoginRequest request;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        UserRepository userRepository = InMemoryUserRepository.create();
+        userRepository.save(BenchmarkFixtures.user("bench@example.com", passwordEncoder.encode("password")));
+        RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+        when(refreshTokenService.issue(any()))
+                .thenReturn(new RefreshTokenService.IssuedRefreshToken("refresh-token", Instant.MAX));
+        authService = new AuthService(userRepository, passwordEncoder, BenchmarkFixtures.jwtService(false),
+                BenchmarkFixtures.revocationList(new SimpleMeterRegistry()), refreshTokenService,
+                BenchmarkFixtures.userCache(userRepository), BenchmarkFixtures.auditLog(), new SimpleMeterRegistry());
+        request = new LoginRequest("bench@example.com", "password");
+    }
+
+    @Benchmark
+    public AuthTokens login() {
+        return authService.login(request);
+    }
+}
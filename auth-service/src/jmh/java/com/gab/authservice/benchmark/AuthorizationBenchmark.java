@@ -0,0 +1,124 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.config.RequiresRole;
+import com.gab.authservice.config.RoleAuthenticationToken;
+import com.gab.authservice.config.RoleAuthorizationManager;
+import com.gab.authservice.controller.DemoController;
+import com.gab.authservice.entity.Role;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization overhead of one {@code /api/demo/*} call: building the authentication the way {@code JwtAuthFilter}
+ * does, then invoking the controller method through its method-security proxy.
+ * <ul>
+ *   <li>{@code none}: the controller without method security, for reference</li>
+ *   <li>{@code spel}: the previous setup, a new authority list per request and {@code @PreAuthorize("hasRole(...)")}
+ *       expressions evaluated by Spring Security's default expression handler</li>
+ *   <li>{@code mask}: {@link RoleAuthenticationToken} with the role's shared authorities and {@link RequiresRole}
+ *       checked by {@link RoleAuthorizationManager}</li>
+ * </ul>
+ * Callers hold the role the endpoint needs, so every call is granted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    @Param({"none", "spel", "mask"})
+    public String authorization;
+
+    @Param({"hello_user", "hello_admin", "hello_public"})
+    public String endpoint;
+
+    private Role role;
+    private Endpoint call;
+
+    private interface Endpoint {
+        String call();
+    }
+
+    /**
+     * {@link DemoController} as it was annotated before {@link RequiresRole}.
+     */
+    public static class SpelDemoController {
+
+        @PreAuthorize("hasRole('USER')")
+        public String securedHello() {
+            return "You accessed a USER endpoint!";
+        }
+
+        @PreAuthorize("hasRole('ADMIN')")
+        public String securedAdmin() {
+            return "You accessed a ADMIN endpoint!";
+        }
+
+        @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+        public String securedPublic() {
+            return "You accessed a PUBLIC endpoint!";
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        role = endpoint.equals("hello_admin") ? Role.ADMIN : Role.USER;
+        switch (authorization) {
+            case "none" -> call = demo(new DemoController());
+            case "spel" -> {
+                ProxyFactory factory = new ProxyFactory(new SpelDemoController());
+                factory.setProxyTargetClass(true);
+                factory.addAdvisor(AuthorizationManagerBeforeMethodInterceptor.preAuthorize());
+                SpelDemoController proxy = (SpelDemoController) factory.getProxy();
+                call = switch (endpoint) {
+                    case "hello_user" -> proxy::securedHello;
+                    case "hello_admin" -> proxy::securedAdmin;
+                    default -> proxy::securedPublic;
+                };
+            }
+            case "mask" -> {
+                ProxyFactory factory = new ProxyFactory(new DemoController());
+                factory.setProxyTargetClass(true);
+                factory.addAdvisor(new AuthorizationManagerBeforeMethodInterceptor(
+                        new AnnotationMatchingPointcut(null, RequiresRole.class, true), new RoleAuthorizationManager()));
+                call = demo((DemoController) factory.getProxy());
+            }
+            default -> throw new IllegalArgumentException(authorization);
+        }
+    }
+
+    private Endpoint demo(DemoController controller) {
+        return switch (endpoint) {
+            case "hello_user" -> controller::securedHello;
+            case "hello_admin" -> controller::securedAdmin;
+            default -> controller::securedPublic;
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String authorizedCall() {
+        if (authorization.equals("mask")) {
+            SecurityContextHolder.getContext().setAuthentication(new RoleAuthenticationToken("bench@example.com", role));
+        } else {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "bench@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_" + role.name()))));
+        }
+        return call.call();
+    }
+}
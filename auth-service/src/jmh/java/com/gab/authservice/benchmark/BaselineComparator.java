@@ -0,0 +1,106 @@
+package com.gab.authservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) with a stored baseline and exits non-zero on regression.
+ * <p>
+ * A benchmark regresses if its score is worse than the baseline by more than the allowed percentage
+ * (lower throughput, or higher average time), or if its normalized allocation ({@code gc.alloc.rate.norm})
+ * grows by more than the same percentage plus a small absolute allowance.
+ * </p>
+ * Usage: {@code BaselineComparator <baseline.json> <result.json> [max-regression-percent]}
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final double ALLOC_SLACK_BYTES = 64;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json> [max-regression-percent]");
+            System.exit(2);
+        }
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = index(args[0]);
+        Map<String, JsonNode> current = index(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s %12s %12s%n", "benchmark", "baseline", "current", "change", "B/op base", "B/op now");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.2f %9s%n", entry.getKey(), "-", score(after), "new");
+                continue;
+            }
+            double change = percentChange(score(before), score(after));
+            // For throughput higher is better, for time-based modes lower is better
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            boolean scoreRegressed = higherIsBetter ? change < -maxRegression : change > maxRegression;
+
+            double allocBefore = alloc(before);
+            double allocAfter = alloc(after);
+            boolean allocRegressed = !Double.isNaN(allocBefore) && !Double.isNaN(allocAfter)
+                    && allocAfter > allocBefore * (1 + maxRegression / 100) + ALLOC_SLACK_BYTES;
+
+            String flag = scoreRegressed || allocRegressed ? "  REGRESSION" : "";
+            if (!flag.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.2f %14.2f %+8.1f%% %12.0f %12.0f%s%n",
+                    entry.getKey(), score(before), score(after), change, allocBefore, allocAfter, flag);
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, maxRegression);
+            System.exit(1);
+        }
+        System.out.println("No regressions against baseline");
+    }
+
+    private static Map<String, JsonNode> index(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.gab.authservice.benchmark.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double alloc(JsonNode result) {
+        // JMH prefixes secondary metric names with a middle dot; match on the suffix
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOC_NORM)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+}
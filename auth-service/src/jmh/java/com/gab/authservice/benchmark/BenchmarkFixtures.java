@@ -0,0 +1,76 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.config.ReadYourWritesWindow;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.AuditLog;
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.KeyMaterialSource;
+import com.gab.authservice.service.TestKeys;
+import com.gab.authservice.service.TokenRevocationList;
+import com.gab.authservice.service.UserCache;
+import com.gab.authservice.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Wiring shared by the benchmarks: a {@link JwtService} backed by a freshly generated key pair
+ * (RSA-2048 unless another algorithm is asked for) and an empty revocation list, issuing standard tokens unless another
+ * profile is asked for, with no Spring context.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService(boolean verificationCache) {
+        return jwtService("RS256", verificationCache);
+    }
+
+    static JwtService jwtService(String algorithm, boolean verificationCache) {
+        return jwtService(algorithm, verificationCache, new SimpleMeterRegistry());
+    }
+
+    static JwtService jwtService(String algorithm, boolean verificationCache, MeterRegistry meterRegistry) {
+        return jwtService(algorithm, "standard", verificationCache, meterRegistry);
+    }
+
+    static JwtService jwtService(String algorithm, String tokenProfile, boolean verificationCache,
+                                 MeterRegistry meterRegistry) {
+        KeyMaterialSource.KeyMaterial material = TestKeys.material(algorithm);
+        JwtKeyProvider keyProvider = new JwtKeyProvider(() -> material, meterRegistry);
+        return new JwtService(keyProvider,
+                new VerifiedTokenCache(verificationCache, DataSize.ofMegabytes(16), meterRegistry),
+                revocationList(meterRegistry), Duration.ofMinutes(15), tokenProfile, meterRegistry);
+    }
+
+    // Nothing revoked and no database behind it: the revocation check costs what it costs on the common path
+    static TokenRevocationList revocationList(MeterRegistry meterRegistry) {
+        return new TokenRevocationList(mock(RevokedTokenRepository.class), 10_000, meterRegistry);
+    }
+
+    // The production defaults
+    static UserCache userCache(UserRepository userRepository) {
+        return new UserCache(userRepository, new ReadYourWritesWindow(false, Duration.ZERO),
+                true, 10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+
+    // Audit disabled, so these benchmarks measure what they did before it existed; AuditLogBenchmark covers its cost
+    static AuditLog auditLog() {
+        return new AuditLog(batch -> {
+        }, false, 1024, 100, Duration.ofMillis(200), "drop", Duration.ZERO, new SimpleMeterRegistry());
+    }
+
+    static User user(String email, String passwordHash) {
+        return new User(UUID.randomUUID(), email, passwordHash, Role.USER);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.dto.TokenIntrospection;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.TokenIntrospectionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-token cost of {@link TokenIntrospectionService} against verifying the same tokens one call at a time.
+ * <p>
+ * Every invocation handles {@value #BATCH} tokens and the score is divided by that, so all three are in ns per token.
+ * {@code singleCalls} is the lower bound of what a gateway pays per token without the batch endpoint (no HTTP
+ * round trip counted). {@code batch} has {@value #BATCH} distinct tokens, verified in parallel on
+ * {@code availableProcessors} threads; {@code batchWithDuplicates} has ten distinct tokens repeated ten times each,
+ * as when many requests of the same few clients are checked together. With {@code verificationCache=false} every
+ * distinct token is an RS256 signature check; with it on, they are cache hits.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntrospectionBenchmark {
+
+    static final int BATCH = 100;
+
+    @Param({"false", "true"})
+    public boolean verificationCache;
+
+    private JwtService jwtService;
+    private TokenIntrospectionService introspectionService;
+    private List<String> distinct;
+    private List<String> duplicated;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtService = BenchmarkFixtures.jwtService("RS256", verificationCache, meterRegistry);
+        introspectionService = new TokenIntrospectionService(jwtService, 1000, 1000, 100_000,
+                DataSize.ofMegabytes(64), 0, meterRegistry);
+        distinct = new ArrayList<>(BATCH);
+        duplicated = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            distinct.add(jwtService.generateToken(BenchmarkFixtures.user("bench" + i + "@example.com", "unused")));
+        }
+        for (int i = 0; i < BATCH; i++) {
+            duplicated.add(distinct.get(i % 10));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void singleCalls(Blackhole blackhole) {
+        for (String token : distinct) {
+            blackhole.consume(jwtService.verify(token));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<TokenIntrospection> batch() {
+        return introspectionService.introspect(distinct);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<TokenIntrospection> batchWithDuplicates() {
+        return introspectionService.introspect(duplicated);
+    }
+}
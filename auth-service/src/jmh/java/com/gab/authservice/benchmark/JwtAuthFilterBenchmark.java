@@ -0,0 +1,51 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.config.JwtAuthFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole {@link JwtAuthFilter} path for an authenticated {@code /api/**} request: header parsing,
+ * token verification and building the security context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean verificationCache;
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        var jwtService = BenchmarkFixtures.jwtService(verificationCache);
+        filter = new JwtAuthFilter(jwtService, BenchmarkFixtures.auditLog(), new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/demo/hello_user");
+        request.setServletPath("/api/demo/hello_user");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(BenchmarkFixtures.user("bench@example.com", "unused")));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
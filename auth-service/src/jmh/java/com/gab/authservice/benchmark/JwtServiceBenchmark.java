@@ -0,0 +1,63 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.entity.User;
+import com.gab.authservice.service.AccessTokenClaims;
+import com.gab.authservice.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuance and verification. {@code verify} runs with the verified-claims cache disabled so it measures
+ * the signature check itself; {@code verifyCached} measures a repeated (hot) token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private JwtService cachedJwtService;
+    private User user;
+    private String token;
+    private String hotToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(false);
+        cachedJwtService = BenchmarkFixtures.jwtService(true);
+        user = BenchmarkFixtures.user("bench@example.com", "unused");
+        token = jwtService.generateToken(user);
+        hotToken = cachedJwtService.generateToken(user);
+        cachedJwtService.verify(hotToken);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractRole() {
+        return jwtService.extractRole(token);
+    }
+
+    @Benchmark
+    public Optional<AccessTokenClaims> verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Optional<AccessTokenClaims> verifyCached() {
+        return cachedJwtService.verify(hotToken);
+    }
+}
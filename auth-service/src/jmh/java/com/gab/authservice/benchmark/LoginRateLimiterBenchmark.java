@@ -0,0 +1,51 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.service.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LoginRateLimiter#acquire} over a million distinct emails and addresses, i.e. an attacker that never repeats a
+ * key. Limits are set high enough that nothing is rejected, so the score and {@code gc.alloc.rate.norm} are the cost
+ * of the check itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    private LoginRateLimiter rateLimiter;
+    private String[] emails;
+    private String[] addresses;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new LoginRateLimiter(true, Duration.ofMinutes(1), Integer.MAX_VALUE, Integer.MAX_VALUE, 65536,
+                new SimpleMeterRegistry());
+        emails = new String[KEYS];
+        addresses = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            emails[i] = "user" + i + "@example.com";
+            addresses[i] = "10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void acquire(Cursor cursor) {
+        int i = cursor.next++ & (KEYS - 1);
+        rateLimiter.acquire(emails[i], addresses[i]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.config.JwtAuthFilter;
+import com.gab.authservice.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the latency timers cost on the cheapest instrumented paths: a verified-claims cache hit and the whole
+ * {@link JwtAuthFilter} for an authenticated request, each wrapped in a histogram timer.
+ * <p>
+ * {@code none} registers every meter in an empty {@link CompositeMeterRegistry}, which hands out no-op meters, so the
+ * difference to {@code prometheus} is the recording itself (clock reads, histogram bucket lookup, atomic updates).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"none", "prometheus"})
+    public String registry;
+
+    private JwtService jwtService;
+    private JwtAuthFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = registry.equals("prometheus")
+                ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)
+                : new CompositeMeterRegistry();
+        jwtService = BenchmarkFixtures.jwtService("RS256", true, meterRegistry);
+        filter = new JwtAuthFilter(jwtService, BenchmarkFixtures.auditLog(), meterRegistry);
+        token = jwtService.generateToken(BenchmarkFixtures.user("bench@example.com", "unused"));
+        request = new MockHttpServletRequest("GET", "/api/demo/hello_user");
+        request.setServletPath("/api/demo/hello_user");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        // Warm the verified-claims cache so every call below is a hit
+        jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Optional<?> verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,75 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.AuthService;
+import com.gab.authservice.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renewing a session with a refresh token versus logging in again, against an in-memory H2 database.
+ * <p>
+ * Both go through the real JPA stack and sign an RS256 access token; {@code login} additionally runs bcrypt at the
+ * default cost, {@code refresh} rotates the token (lookup, conditional update, insert of the successor) instead.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class RefreshBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+    private LoginRequest request;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SignupBenchmark.JpaOnly.class, RefreshTokenService.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:refresh-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.gab.authservice=WARN");
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userRepository.save(BenchmarkFixtures.user("bench@example.com", passwordEncoder.encode("password")));
+        authService = new AuthService(userRepository, passwordEncoder, BenchmarkFixtures.jwtService(false),
+                BenchmarkFixtures.revocationList(new SimpleMeterRegistry()), context.getBean(RefreshTokenService.class),
+                BenchmarkFixtures.userCache(userRepository), BenchmarkFixtures.auditLog(), new SimpleMeterRegistry());
+        request = new LoginRequest("bench@example.com", "password");
+        refreshToken = authService.login(request).refreshToken();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AuthTokens login() {
+        return authService.login(request);
+    }
+
+    @Benchmark
+    public AuthTokens refresh() {
+        // One session renewed over and over, as a client would: each call presents the token the previous one returned
+        AuthTokens tokens = authService.refresh(refreshToken);
+        refreshToken = tokens.refreshToken();
+        return tokens;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.entity.User;
+import com.gab.authservice.service.AccessTokenClaims;
+import com.gab.authservice.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost per JWS algorithm, to choose the signing algorithm with the best login + request throughput.
+ * The verified-claims cache is off so {@code verify} always checks the signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(algorithm, false);
+        user = BenchmarkFixtures.user("bench@example.com", "unused");
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<AccessTokenClaims> verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Optional<AccessTokenClaims> signAndVerify() {
+        return jwtService.verify(jwtService.generateToken(user));
+    }
+}
@@ -0,0 +1,146 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.AuthService;
+import com.gab.authservice.service.RefreshTokenService;
+import com.gab.authservice.service.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.health.HealthEndpointAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent signups against an in-memory H2 database through the real JPA stack.
+ * <p>
+ * {@code legacySignup} is the previous flow ({@code existsByEmail}, then a {@code merge} of the entity with its
+ * pre-assigned id), {@code signup} is the current single INSERT. Passwords are not hashed, so the difference is the
+ * database work. Statements per signup, read from Hibernate statistics, are printed after each iteration.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(4)
+public class SignupBenchmark {
+
+    // Stores passwords as given, so no hashing cost ends up in the numbers
+    private static final PasswordEncoder PLAINTEXT = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    };
+
+    private final AtomicLong emails = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private AuthService authService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:signup-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.gab.authservice=WARN",
+                        "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authService = new AuthService(userRepository, PLAINTEXT,
+                BenchmarkFixtures.jwtService(false), mock(TokenRevocationList.class), mock(RefreshTokenService.class),
+                BenchmarkFixtures.userCache(userRepository), BenchmarkFixtures.auditLog(), new SimpleMeterRegistry());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        long signups = statistics.getEntityInsertCount();
+        if (signups > 0) {
+            System.out.printf("%n  statements per signup: %.2f%n",
+                    (double) statistics.getPrepareStatementCount() / signups);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void signup() {
+        authService.signup(new SignupRequest(nextEmail(), "password"));
+    }
+
+    @Benchmark
+    public void legacySignup() {
+        String email = nextEmail();
+        if (userRepository.existsByEmail(email)) {
+            throw new IllegalStateException("Email already exists");
+        }
+        User user = new User(UUID.randomUUID(), email, "password", Role.USER);
+        // What SimpleJpaRepository.save did for an entity with an assigned id: merge, i.e. SELECT by id, then INSERT
+        transactionTemplate.executeWithoutResult(status -> entityManager.merge(user));
+    }
+
+    private String nextEmail() {
+        return "user" + emails.incrementAndGet() + "@example.com";
+    }
+
+    /**
+     * Just the datasource, JPA and the repositories: none of the application's web, security or key beans. The health
+     * endpoint is left out too, as its readiness group names the {@code jwtKeys} indicator, which is one of those.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = HealthEndpointAutoConfiguration.class)
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    static class JpaOnly {
+    }
+}
@@ -0,0 +1,137 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.AuthServiceApplication;
+import com.gab.authservice.service.KeyMaterialSource;
+import com.gab.authservice.service.TestKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole service over HTTP on platform threads versus virtual threads, under mixed traffic: a few clients logging in
+ * (bcrypt, database) while many others call an authenticated endpoint with a bearer token.
+ * <p>
+ * The service runs in-process on an in-memory H2 database. In platform mode Tomcat gets {@value #PLATFORM_THREADS}
+ * threads, half the number of concurrent clients, standing in for the default 200 under a larger client population;
+ * in virtual mode every request gets its own virtual thread. Virtual mode needs a Java 21+ JVM
+ * ({@code JAVA_HOME} pointing at it when running the benchmark). Pinned virtual threads seen during the run are printed
+ * at the end.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final int PLATFORM_THREADS = 32;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest login;
+    private HttpRequest authenticated;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(AuthServiceApplication.class, GeneratedKeys.class)
+                .profiles("local")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--spring.datasource.url=jdbc:h2:mem:thread-mode-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.show-sql=false",
+                        "--login-rate-limit.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.gab.authservice=WARN",
+                        "--logging.level.com.gab.authservice.config.VirtualThreadPinningMonitor=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        String credentials = "{\"email\":\"bench@example.com\",\"password\":\"password\"}";
+        send(HttpRequest.newBuilder(URI.create(base + "/auth/signup"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build());
+        login = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build();
+        // 15-minute access token, longer than the run
+        String accessToken = send(login);
+        authenticated = HttpRequest.newBuilder(URI.create(base + "/api/demo/hello_user"))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        for (Timer pinned : meterRegistry.find("jvm.threads.virtual.pinned").timers()) {
+            System.out.printf("%n  pinned at %s: %d times, %.1f ms total%n", pinned.getId().getTag("site"),
+                    pinned.count(), pinned.totalTime(TimeUnit.MILLISECONDS));
+        }
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public String login() throws IOException, InterruptedException {
+        return send(login);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(60)
+    public String authenticated() throws IOException, InterruptedException {
+        return send(authenticated);
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    /**
+     * A throwaway RS256 key pair instead of the PEM files the {@code local} profile reads from the classpath.
+     */
+    @TestConfiguration
+    static class GeneratedKeys {
+
+        @Bean
+        @Primary
+        KeyMaterialSource generatedKeyMaterial() {
+            KeyMaterialSource.KeyMaterial material = TestKeys.material("RS256");
+            return () -> material;
+        }
+    }
+}
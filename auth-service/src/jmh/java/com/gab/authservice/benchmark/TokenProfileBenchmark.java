@@ -0,0 +1,56 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.entity.User;
+import com.gab.authservice.service.AccessTokenClaims;
+import com.gab.authservice.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost per token profile ({@code jwt.token-profile}) and signing algorithm. The verified-claims cache
+ * is off so {@code verify} always decodes the token and checks the signature; the difference between profiles at the
+ * same algorithm is the difference in parsing. The size of the {@code Authorization} header each profile produces is
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenProfileBenchmark {
+
+    @Param({"standard", "compact", "cwt"})
+    public String profile;
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(algorithm, profile, false, new SimpleMeterRegistry());
+        // A typical address: the standard profile carries it, the compact ones a UUID of fixed length instead
+        user = BenchmarkFixtures.user("firstname.lastname@example.com", "unused");
+        token = jwtService.generateToken(user);
+        System.out.printf("%n  %s %s: Authorization header %d bytes%n", profile, algorithm,
+                ("Bearer " + token).getBytes(StandardCharsets.US_ASCII).length);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<AccessTokenClaims> verify() {
+        return jwtService.verify(token);
+    }
+}
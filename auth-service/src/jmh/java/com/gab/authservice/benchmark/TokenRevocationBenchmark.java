@@ -0,0 +1,76 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.entity.RevokedToken;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import com.gab.authservice.service.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TokenRevocationList#isRevoked}, the check every authenticated request makes, with {@code revoked} tokens on
+ * the denylist. {@code notRevoked} is the common path (answered by the Bloom filter in almost every case) and should
+ * not allocate; {@code revoked} also goes through the exact set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class TokenRevocationBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param({"10000", "100000"})
+    public int revokedCount;
+
+    private TokenRevocationList revocationList;
+    private String[] revoked;
+    private String[] notRevoked;
+
+    @Setup
+    public void setUp() {
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        List<RevokedToken> rows = new ArrayList<>(revokedCount);
+        for (int i = 0; i < revokedCount; i++) {
+            rows.add(new RevokedToken(UUID.randomUUID().toString(), expiresAt, Instant.now()));
+        }
+        // One poll loads them all, as after a restart
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.findRevokedSince(any(), any())).thenReturn(rows);
+        revocationList = new TokenRevocationList(repository, revokedCount, new SimpleMeterRegistry());
+        revocationList.refresh();
+
+        revoked = new String[PROBES];
+        notRevoked = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            revoked[i] = rows.get(i % revokedCount).getJti();
+            notRevoked[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public boolean notRevoked(Cursor cursor) {
+        return revocationList.isRevoked(notRevoked[cursor.next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean revoked(Cursor cursor) {
+        return revocationList.isRevoked(revoked[cursor.next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,74 @@
+package com.gab.authservice.benchmark;
+
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.UserCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The user lookup at the start of every login, straight from the repository versus through {@link UserCache}, against
+ * an in-memory H2 database over a set of {@code users} accounts. H2 in the same process has no network round trip, so
+ * against PostgreSQL the gap is wider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class UserCacheBenchmark {
+
+    @Param({"1000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserCache userCache;
+    private String[] emails;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SignupBenchmark.JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:user-cache-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.gab.authservice=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        userCache = BenchmarkFixtures.userCache(userRepository);
+        emails = new String[users];
+        for (int i = 0; i < users; i++) {
+            emails[i] = "user" + i + "@example.com";
+            userRepository.save(BenchmarkFixtures.user(emails[i], "{bcrypt}hash"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public Optional<User> repository(Cursor cursor) {
+        return userRepository.findByEmail(emails[cursor.next++ % users]);
+    }
+
+    @Benchmark
+    public Optional<User> cached(Cursor cursor) {
+        return userCache.findByEmail(emails[cursor.next++ % users]);
+    }
+}
@@ -0,0 +1,208 @@
+package com.gab.authservice.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The login lookup on a PostgreSQL users table of {@code rows} users, in the layout before and after
+ * {@code V2__users_normalized_email}:
+ * <ul>
+ *   <li>{@code before}: the V1 table, the whole row selected by {@code email} through its unique index, as
+ *       {@code findByEmail} did</li>
+ *   <li>{@code after}: V1 plus V2, id, password hash and role selected by {@code email_normalized} through its unique
+ *       index, as {@code findCredentialsByEmailNormalized} does</li>
+ * </ul>
+ * Each benchmark call looks up a random one of the users, with the SQL Hibernate generates for the repository method.
+ * <p>
+ * Needs a PostgreSQL server, given by {@code BENCHMARK_POSTGRES_URL} (e.g.
+ * {@code jdbc:postgresql://localhost:5432/postgres}; without it setup fails), {@code BENCHMARK_POSTGRES_USER} (default
+ * {@code postgres}) and {@code BENCHMARK_POSTGRES_PASSWORD} (empty). Each layout is built once in a schema of its own
+ * with the application's migrations (V1, the rows, then V2 for {@code after}) and reused by later runs with the same
+ * {@code rows}; 10M rows take a few minutes and about 3 GB per layout. Both tables are re-indexed after loading, so
+ * neither index is bloated by the load, and vacuumed. Setup prints the table and index sizes, how long V2 took, and
+ * the plan of one lookup with its buffer counts.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UsersTableBenchmark {
+
+    private static final String BEFORE_SQL =
+            "select u1_0.id,u1_0.email,u1_0.password,u1_0.role from users u1_0 where u1_0.email=?";
+    private static final String AFTER_SQL =
+            "select u1_0.id,u1_0.password,u1_0.role from users u1_0 where u1_0.email_normalized=?";
+    // Emails of the form user<n>@example.com; roughly one in a thousand users is an admin. The password column holds
+    // a string of the length of a {bcrypt}-prefixed hash
+    private static final String LOAD_SQL = """
+            INSERT INTO users (id, email, password, role)
+            SELECT gen_random_uuid(), 'user' || n || '@example.com',
+                   '{bcrypt}$2a$10$' || md5(n::text) || left(md5((n * 31)::text), 21),
+                   CASE WHEN n % 1000 = 0 THEN 'ADMIN' ELSE 'USER' END
+            FROM generate_series(?, ?) AS n""";
+    private static final int LOAD_BATCH = 1_000_000;
+    private static final int KEYS = 1 << 20;
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"before", "after"})
+    public String layout;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+    private String[] emails;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = env("BENCHMARK_POSTGRES_URL", null);
+        if (url == null) {
+            throw new IllegalStateException("BENCHMARK_POSTGRES_URL is not set");
+        }
+        String user = env("BENCHMARK_POSTGRES_USER", "postgres");
+        String password = env("BENCHMARK_POSTGRES_PASSWORD", "");
+        String schema = "users_" + layout + "_" + rows;
+        boolean after = layout.equals("after");
+
+        connection = DriverManager.getConnection(url, user, password);
+        if (!isLoaded(schema, after)) {
+            load(url, user, password, schema, after);
+        }
+        connection.setSchema(schema);
+        printSizes(schema);
+
+        SplittableRandom random = new SplittableRandom(42);
+        emails = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            emails[i] = "user" + random.nextInt(1, rows + 1) + "@example.com";
+        }
+        lookup = connection.prepareStatement(after ? AFTER_SQL : BEFORE_SQL);
+        printPlan(after);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public String loginLookup() throws SQLException {
+        lookup.setString(1, emails[next++ & (KEYS - 1)]);
+        try (ResultSet result = lookup.executeQuery()) {
+            if (!result.next()) {
+                throw new IllegalStateException("User not found");
+            }
+            return result.getString("password");
+        }
+    }
+
+    private boolean isLoaded(String schema, boolean after) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select max(version) from " + schema + ".flyway_schema_history where success")) {
+            ResultSet result = statement.executeQuery();
+            result.next();
+            if (!(after ? "2" : "1").equals(result.getString(1))) {
+                return false;
+            }
+        } catch (SQLException e) {
+            // No such schema yet
+            return false;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select count(*) from " + schema + ".users")) {
+            result.next();
+            return result.getLong(1) == rows;
+        }
+    }
+
+    private void load(String url, String user, String password, String schema, boolean after) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + schema + " cascade");
+        }
+        migrate(url, user, password, schema, "1");
+        connection.setSchema(schema);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(LOAD_SQL)) {
+            for (int from = 1; from <= rows; from += LOAD_BATCH) {
+                insert.setInt(1, from);
+                insert.setInt(2, Math.min(rows, from + LOAD_BATCH - 1));
+                insert.executeUpdate();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("reindex table users");
+        }
+        System.out.printf("%nLoaded %d users into %s in %d s%n", rows, schema, seconds(start));
+        if (after) {
+            start = System.nanoTime();
+            migrate(url, user, password, schema, "2");
+            System.out.printf("V2__users_normalized_email on %d users: %d s%n", rows, seconds(start));
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("vacuum (analyze) users");
+        }
+    }
+
+    private static void migrate(String url, String user, String password, String schema, String target) {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(schema)
+                .locations("classpath:db/migration/postgresql")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private void printSizes(String schema) throws SQLException {
+        String sql = """
+                select c.relname, pg_relation_size(c.oid)
+                from pg_class c
+                where c.oid = 'users'::regclass
+                   or c.oid in (select indexrelid from pg_index where indrelid = 'users'::regclass)
+                order by c.relkind desc, c.relname""";
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            System.out.printf("%nSizes of users and its indexes in %s:%n", schema);
+            while (result.next()) {
+                System.out.printf("  %-28s %,8d MB%n", result.getString(1), result.getLong(2) / (1024 * 1024));
+            }
+        }
+    }
+
+    private void printPlan(boolean after) throws SQLException {
+        String key = emails[KEYS - 1];
+        String sql = "explain (analyze, buffers, costs off) "
+                + (after ? AFTER_SQL : BEFORE_SQL).replace("?", "'" + key + "'");
+        try (Statement statement = connection.createStatement()) {
+            // The first run reads from disk; the second shows the cached cost of one lookup
+            statement.execute(sql);
+            ResultSet result = statement.executeQuery(sql);
+            System.out.println("Plan of one lookup:");
+            while (result.next()) {
+                System.out.println("  " + result.getString(1));
+            }
+        }
+    }
+
+    private static long seconds(long start) {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
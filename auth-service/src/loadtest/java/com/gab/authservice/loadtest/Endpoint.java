@@ -0,0 +1,37 @@
+package com.gab.authservice.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The request types the load test can mix. The name is what {@code --mix} and the reports use.
+ */
+enum Endpoint {
+
+    /** {@code POST /auth/signup} with a fresh email every time (one bcrypt encode). */
+    SIGNUP("signup"),
+    /** {@code POST /auth/login} as one of the seeded users (lookup, bcrypt matches, refresh token insert, signing). */
+    LOGIN("login"),
+    /** {@code GET /api/demo/hello_user} with one of the seeded users' access tokens. */
+    DEMO("demo"),
+    /** {@code GET /auth/public-key}, unauthenticated. */
+    PUBLIC_KEY("public-key");
+
+    private final String id;
+
+    Endpoint(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    static Endpoint of(String id) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.id.equals(id.trim().toLowerCase(Locale.ROOT))) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in --mix: " + id + " (expected signup, login, demo or public-key)");
+    }
+}
@@ -0,0 +1,195 @@
+package com.gab.authservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load: each client thread sends one request, waits for the response and immediately sends the next,
+ * picking the endpoint at random by its {@code --mix} weight.
+ * <p>
+ * Latencies of successful (200) responses go into one HdrHistogram {@link Recorder} per endpoint, with microsecond
+ * resolution and three significant digits. The warmup interval is read out of the recorders and thrown away, so only
+ * the measured interval is reported. Anything else (other status codes, I/O errors) is counted as an error. Because
+ * the loop is closed, a slow server also slows the clients down: latencies under saturation are those of the requests
+ * that were sent, not of a fixed arrival rate.
+ * </p>
+ */
+final class LoadGenerator {
+
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong signups = new AtomicLong();
+    private final List<Account> accounts = new ArrayList<>();
+
+    private record Account(HttpRequest login, HttpRequest demo) {
+    }
+
+    LoadGenerator(String baseUrl, Map<Endpoint, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.endpoints = mix.keySet().toArray(Endpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Signs up and logs in {@code count} accounts, whose credentials and access tokens {@code login} and {@code demo}
+     * then use.
+     */
+    void seed(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            String email = "loadtest-" + runId + "-user-" + i + "@example.com";
+            expectOk(client.send(signup(email), HttpResponse.BodyHandlers.ofString()), "seeding signup");
+            HttpRequest login = login(email);
+            String accessToken = expectOk(client.send(login, HttpResponse.BodyHandlers.ofString()), "seeding login");
+            HttpRequest demo = HttpRequest.newBuilder(URI.create(baseUrl + "/api/demo/hello_user"))
+                    .header("Authorization", "Bearer " + accessToken)
+                    .GET()
+                    .build();
+            accounts.add(new Account(login, demo));
+        }
+    }
+
+    /**
+     * Runs {@code concurrency} clients for {@code warmup} plus {@code duration} and returns what was measured in the
+     * second interval.
+     */
+    LoadTestReport.Run run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        Map<Endpoint, Recorder> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            latencies.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new LongAdder());
+        }
+
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Endpoint endpoint = pick();
+                    long start = System.nanoTime();
+                    if (send(endpoint)) {
+                        latencies.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    } else {
+                        errors.get(endpoint).increment();
+                    }
+                }
+            }, "loadtest-client-" + i);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(warmup.toMillis());
+        for (Endpoint endpoint : endpoints) {
+            latencies.get(endpoint).getIntervalHistogram();
+            errors.get(endpoint).reset();
+        }
+        long measuredFrom = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        Map<Endpoint, Histogram> measured = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, Long> failed = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : endpoints) {
+            measured.put(endpoint, latencies.get(endpoint).getIntervalHistogram());
+            failed.put(endpoint, errors.get(endpoint).sum());
+        }
+        double seconds = (System.nanoTime() - measuredFrom) / 1e9;
+
+        for (Thread thread : clients) {
+            thread.interrupt();
+        }
+        for (Thread thread : clients) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        List<LoadTestReport.EndpointResult> results = new ArrayList<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Endpoint endpoint : endpoints) {
+            results.add(LoadTestReport.EndpointResult.of(endpoint.id(), measured.get(endpoint), failed.get(endpoint), seconds));
+            total.add(measured.get(endpoint));
+            totalErrors += failed.get(endpoint);
+        }
+        results.add(LoadTestReport.EndpointResult.of("total", total, totalErrors, seconds));
+        return new LoadTestReport.Run(concurrency, results, null);
+    }
+
+    private Endpoint pick() {
+        int r = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private boolean send(Endpoint endpoint) {
+        HttpRequest request = switch (endpoint) {
+            case SIGNUP -> signup("loadtest-" + runId + "-signup-" + signups.incrementAndGet() + "@example.com");
+            case LOGIN -> randomAccount().login();
+            case DEMO -> randomAccount().demo();
+            case PUBLIC_KEY -> HttpRequest.newBuilder(URI.create(baseUrl + "/auth/public-key")).GET().build();
+        };
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private HttpRequest signup(String email) {
+        return json("/auth/signup", email);
+    }
+
+    private HttpRequest login(String email) {
+        return json("/auth/login", email);
+    }
+
+    private HttpRequest json(String path, String email) {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String expectOk(HttpResponse<String> response, String step) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(step + ": " + response.request().uri() + " returned " + response.statusCode()
+                    + " " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,136 @@
+package com.gab.authservice.loadtest;
+
+import com.gab.authservice.AuthServiceApplication;
+import com.gab.authservice.service.KeyMaterialSource;
+import com.gab.authservice.service.TestKeys;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test: drives signup, login, authenticated {@code /api/demo} and {@code /auth/public-key} traffic over
+ * HTTP in a configurable mix, at one or more concurrency levels, and writes p50/p95/p99/max latency and throughput per
+ * endpoint to a JSON report (see {@link LoadTestOptions} for the options).
+ * <p>
+ * Without {@code --base-url} the service is booted in-process on a free port, with the {@code local} profile, an
+ * in-memory H2 database and a generated RS256 key pair instead of the PEM files or Secrets Manager, so it needs neither
+ * Docker nor PostgreSQL nor AWS. Login rate limiting is off and access tokens outlive the run; both can be changed with
+ * Spring properties on the command line. Run it through {@code ./loadtest.sh}.
+ * </p>
+ * With {@code --server-jar} a packaged service (auth-service's or the reactive module's jar) is started as a child
+ * process instead ({@link ServerProcess}), against the database given in the Spring options, and each run also reports
+ * the peak HTTP connections, database connections and threads that process held.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String startedAt = Instant.now().toString();
+        ConfigurableApplicationContext context = null;
+        ServerProcess server = null;
+        String baseUrl = options.baseUrl();
+        if (options.serverJar() != null) {
+            server = ServerProcess.start(options.serverJar(), options.springArgs(), options.databasePort());
+            baseUrl = server.baseUrl();
+        } else if (baseUrl == null) {
+            context = boot(options.springArgs());
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(baseUrl, options.mix());
+            generator.seed(options.users());
+            List<LoadTestReport.Run> runs = new ArrayList<>();
+            for (int concurrency : options.concurrency()) {
+                ServerProcess.Sampling sampling = server == null ? null : server.sample();
+                LoadTestReport.Run run = generator.run(concurrency, options.warmup(), options.duration());
+                if (sampling != null) {
+                    run = run.withServer(sampling.stop());
+                }
+                LoadTestReport.print(run);
+                runs.add(run);
+            }
+
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            options.mix().forEach((endpoint, weight) -> mix.put(endpoint.id(), weight));
+            new LoadTestReport(startedAt, Runtime.version().toString(), Runtime.getRuntime().availableProcessors(),
+                    target(options), mix, options.warmup().toSeconds(),
+                    options.duration().toSeconds(), runs).write(options.report());
+            System.out.printf("%nReport written to %s%n", options.report());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static String target(LoadTestOptions options) {
+        if (options.serverJar() != null) {
+            return options.serverJar().getFileName().toString();
+        }
+        return options.baseUrl() == null ? "embedded" : options.baseUrl();
+    }
+
+    private static ConfigurableApplicationContext boot(List<String> springArgs) {
+        // Devtools would otherwise restart this main method in its own class loader, with the Spring arguments below
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("login-rate-limit.enabled", "false");
+        properties.put("jwt.access-token-ttl", "PT12H");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.gab.authservice", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        // Spring joins repeated command-line options into a list, so overrides replace the defaults instead
+        for (String arg : springArgs) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        List<String> args = new ArrayList<>();
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return new SpringApplicationBuilder(AuthServiceApplication.class, GeneratedKeys.class)
+                .profiles("local")
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * A throwaway RS256 key pair instead of the PEM files the {@code local} profile reads from the classpath.
+     */
+    @TestConfiguration
+    static class GeneratedKeys {
+
+        @Bean
+        @Primary
+        KeyMaterialSource generatedKeyMaterial() {
+            KeyMaterialSource.KeyMaterial material = TestKeys.material("RS256");
+            return () -> material;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.gab.authservice.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTest}, all in {@code --name=value} form. Options the load test does not know are
+ * passed on to the service under test as Spring properties (e.g. {@code --password-hashing.bcrypt.strength=8}).
+ *
+ * @param mix          relative weight of each endpoint; endpoints left out are not called
+ * @param concurrency  closed-loop client counts, one measured run each
+ * @param warmup       load applied before each run and not measured
+ * @param duration     measured time per run
+ * @param users        accounts created up front for {@code login} and {@code demo}
+ * @param baseUrl      a service that is already running, or null to boot one in-process
+ * @param serverJar    a service jar to start as a child process instead of booting in-process, or null
+ * @param databasePort the port of the database the child process uses, to tell its connections apart
+ * @param report       where the JSON report is written
+ * @param springArgs   the options passed on to the embedded service or the child process
+ */
+record LoadTestOptions(Map<Endpoint, Integer> mix,
+                       List<Integer> concurrency,
+                       Duration warmup,
+                       Duration duration,
+                       int users,
+                       String baseUrl,
+                       Path serverJar,
+                       int databasePort,
+                       Path report,
+                       List<String> springArgs) {
+
+    static final String USAGE = """
+            Usage: LoadTest [--mix=demo=80,public-key=10,login=8,signup=2] [--concurrency=8,16,32]
+                            [--warmup=PT10S] [--duration=PT30S] [--users=50] [--base-url=http://host:port]
+                            [--server-jar=path/to/service.jar] [--database-port=5432]
+                            [--report=target/loadtest-report.json] [--<spring.property>=<value> ...]""";
+
+    static LoadTestOptions parse(String... args) {
+        Map<Endpoint, Integer> mix = parseMix("demo=80,public-key=10,login=8,signup=2");
+        List<Integer> concurrency = List.of(8, 16, 32);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        int users = 50;
+        String baseUrl = null;
+        Path serverJar = null;
+        int databasePort = 5432;
+        Path report = Path.of("target", "loadtest-report.json");
+        List<String> springArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(2, eq)) {
+                case "mix" -> mix = parseMix(value);
+                case "concurrency" -> concurrency = parseInts(value);
+                case "warmup" -> warmup = Duration.parse(value);
+                case "duration" -> duration = Duration.parse(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "base-url" -> baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "server-jar" -> serverJar = Path.of(value);
+                case "database-port" -> databasePort = Integer.parseInt(value);
+                case "report" -> report = Path.of(value);
+                default -> springArgs.add(arg);
+            }
+        }
+        if (users < 1 && (mix.containsKey(Endpoint.LOGIN) || mix.containsKey(Endpoint.DEMO))) {
+            throw new IllegalArgumentException("login and demo need --users of at least 1");
+        }
+        if (baseUrl != null && serverJar != null) {
+            throw new IllegalArgumentException("--base-url and --server-jar cannot be combined");
+        }
+        return new LoadTestOptions(Collections.unmodifiableMap(mix), concurrency, warmup, duration, users, baseUrl,
+                serverJar, databasePort, report, List.copyOf(springArgs));
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String value) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split("=", 2);
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight in --mix, got: " + part);
+            }
+            int w = Integer.parseInt(weight[1].trim());
+            if (w > 0) {
+                mix.put(Endpoint.of(weight[0]), w);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no endpoint with a positive weight");
+        }
+        return mix;
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            int n = Integer.parseInt(part.trim());
+            if (n < 1) {
+                throw new IllegalArgumentException("Concurrency must be at least 1, got: " + n);
+            }
+            values.add(n);
+        }
+        return List.copyOf(values);
+    }
+}
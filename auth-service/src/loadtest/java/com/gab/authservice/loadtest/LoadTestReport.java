@@ -0,0 +1,81 @@
+package com.gab.authservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JSON report of a {@link LoadTest} run: the setup it ran with, then per concurrency level one line per endpoint
+ * plus a {@code total}. Latencies are in milliseconds, throughput in successful requests per second. Runs against a
+ * {@code --server-jar} child process also record the peak connections and threads it held ({@link ServerResources}).
+ * {@link ReportComparator} diffs two of them.
+ */
+record LoadTestReport(String startedAt,
+                      String jdk,
+                      int cpus,
+                      String target,
+                      Map<String, Integer> mix,
+                      long warmupSeconds,
+                      long durationSeconds,
+                      List<Run> runs) {
+
+    record Run(int concurrency, List<EndpointResult> endpoints, ServerResources server) {
+
+        Run withServer(ServerResources server) {
+            return new Run(concurrency, endpoints, server);
+        }
+    }
+
+    /**
+     * Peaks sampled from the service process during a run, warmup included: established HTTP connections to its
+     * port, established connections to the database and live threads. Null unless the load test started the service.
+     */
+    record ServerResources(int httpConnections, int databaseConnections, int threads) {
+    }
+
+    record EndpointResult(String endpoint,
+                          long requests,
+                          long errors,
+                          double throughput,
+                          double p50Ms,
+                          double p95Ms,
+                          double p99Ms,
+                          double maxMs) {
+
+        static EndpointResult of(String endpoint, Histogram micros, long errors, double seconds) {
+            return new EndpointResult(endpoint, micros.getTotalCount(), errors, micros.getTotalCount() / seconds,
+                    millis(micros.getValueAtPercentile(50)), millis(micros.getValueAtPercentile(95)),
+                    millis(micros.getValueAtPercentile(99)), millis(micros.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+    }
+
+    static void print(Run run) {
+        System.out.printf("%nconcurrency %d%n", run.concurrency());
+        System.out.printf("%-12s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (EndpointResult result : run.endpoints()) {
+            System.out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n", result.endpoint(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Ms(), result.p95Ms(), result.p99Ms(), result.maxMs());
+        }
+        if (run.server() != null) {
+            System.out.printf("server peak: %d HTTP connections, %d database connections, %d threads%n",
+                    run.server().httpConnections(), run.server().databaseConnections(), run.server().threads());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.gab.authservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a {@link LoadTest} report with a stored baseline and exits non-zero on regression.
+ * <p>
+ * An endpoint at a given concurrency regresses if its throughput drops, or its p95 or p99 latency grows, by more than
+ * the allowed percentage, or if it had errors where the baseline had none. Endpoints or concurrency levels missing
+ * from the baseline are listed as new. Baseline entries without a successful request, e.g. every login shed at a
+ * concurrency the service could not keep up with, give nothing to compare against; they are listed as not
+ * comparable, so that a baseline recorded like that is re-recorded rather than read as no regression. End-to-end
+ * numbers are noisier than micro-benchmarks, hence the looser default.
+ * </p>
+ * Usage: {@code ReportComparator <baseline.json> <report.json> [max-regression-percent]}
+ */
+public final class ReportComparator {
+
+    private ReportComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReportComparator <baseline.json> <report.json> [max-regression-percent]");
+            System.exit(2);
+        }
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 20.0;
+        Map<String, JsonNode> baseline = index(args[0]);
+        Map<String, JsonNode> current = index(args[1]);
+
+        int regressions = 0;
+        int notComparable = 0;
+        System.out.printf("%-20s %12s %12s %9s %10s %10s %9s %8s%n",
+                "endpoint", "req/s base", "req/s now", "change", "p99 base", "p99 now", "change", "errors");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-20s %12s %12.1f %9s%n", entry.getKey(), "-", after.path("throughput").asDouble(), "new");
+                continue;
+            }
+            if (!comparable(before)) {
+                notComparable++;
+                System.out.printf("%-20s %12s %12.1f %9s %31s %8d  NOT COMPARABLE (baseline: %d errors)%n",
+                        entry.getKey(), "-", after.path("throughput").asDouble(), "n/a", "",
+                        after.path("errors").asLong(), before.path("errors").asLong());
+                continue;
+            }
+            double throughputChange = percentChange(before.path("throughput").asDouble(), after.path("throughput").asDouble());
+            double p95Change = percentChange(before.path("p95Ms").asDouble(), after.path("p95Ms").asDouble());
+            double p99Change = percentChange(before.path("p99Ms").asDouble(), after.path("p99Ms").asDouble());
+            boolean newErrors = after.path("errors").asLong() > 0 && before.path("errors").asLong() == 0;
+
+            boolean regressed = throughputChange < -maxRegression || p95Change > maxRegression
+                    || p99Change > maxRegression || newErrors;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-20s %12.1f %12.1f %+8.1f%% %10.2f %10.2f %+8.1f%% %8d%s%n", entry.getKey(),
+                    before.path("throughput").asDouble(), after.path("throughput").asDouble(), throughputChange,
+                    before.path("p99Ms").asDouble(), after.path("p99Ms").asDouble(), p99Change,
+                    after.path("errors").asLong(), regressed ? "  REGRESSION" : "");
+        }
+
+        if (notComparable > 0) {
+            System.out.printf("%d endpoint(s) not comparable: the baseline has no successful requests for them;"
+                    + " re-record it at a concurrency the service completes%n", notComparable);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d endpoint(s) regressed by more than %.1f%%%n", regressions, maxRegression);
+            System.exit(1);
+        }
+        System.out.println("No regressions against baseline");
+    }
+
+    // Keyed by concurrency and endpoint, e.g. "c=32 login"
+    private static Map<String, JsonNode> index(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(new File(path)).path("runs")) {
+            for (JsonNode endpoint : run.path("endpoints")) {
+                results.put("c=" + run.path("concurrency").asInt() + " " + endpoint.path("endpoint").asText(), endpoint);
+            }
+        }
+        return results;
+    }
+
+    // Throughput and latencies are only recorded for successful requests, so without any there is nothing to compare
+    private static boolean comparable(JsonNode baseline) {
+        return baseline.path("requests").asLong() > 0 && baseline.path("throughput").asDouble() > 0;
+    }
+
+    private static double percentChange(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+}
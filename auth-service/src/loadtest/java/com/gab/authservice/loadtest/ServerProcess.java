@@ -0,0 +1,231 @@
+package com.gab.authservice.loadtest;
+
+import com.gab.authservice.service.TestKeys;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service jar the load test starts as a child process ({@code --server-jar}), e.g. auth-service's or the reactive
+ * module's, so both runtimes can be loaded the same way and compared.
+ * <p>
+ * The jar runs with the {@code local} profile on a free port, with a generated RS256 key pair handed over as
+ * {@code file:} PEM paths, login rate limiting off and access tokens that outlive the run; the database and anything
+ * else come from the Spring options on the command line. Its log goes to {@code target/loadtest-server.log}.
+ * </p>
+ * While a run is under way, {@link #sample} reads the process's sockets and thread count from {@code /proc} every
+ * 100 ms (Linux only): HTTP connections are established sockets on the service port, database connections those to
+ * {@code --database-port}.
+ */
+final class ServerProcess implements AutoCloseable {
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final long SAMPLE_INTERVAL_MS = 100;
+    private static final String ESTABLISHED = "01";
+
+    private final Process process;
+    private final int port;
+    private final int databasePort;
+    private final Path log;
+
+    private ServerProcess(Process process, int port, int databasePort, Path log) {
+        this.process = process;
+        this.port = port;
+        this.databasePort = databasePort;
+        this.log = log;
+    }
+
+    /**
+     * Starts the jar and waits until {@code /actuator/health/readiness} answers 200.
+     */
+    static ServerProcess start(Path jar, List<String> springArgs, int databasePort) throws Exception {
+        Path keys = Files.createTempDirectory("loadtest-keys");
+        KeyPair keyPair = TestKeys.keyPair("RS256");
+        Path privateKey = Files.writeString(keys.resolve("private.pem"), TestKeys.privatePem(keyPair));
+        Path publicKey = Files.writeString(keys.resolve("public.pem"), TestKeys.publicPem(keyPair));
+        int port = freePort();
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "local");
+        properties.put("server.port", String.valueOf(port));
+        properties.put("jwt.private-key-path", "file:" + privateKey);
+        properties.put("jwt.public-key-path", "file:" + publicKey);
+        properties.put("login-rate-limit.enabled", "false");
+        properties.put("jwt.access-token-ttl", "PT12H");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.gab.authservice", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        // Same override rule as the embedded service: a repeated option would become a list
+        for (String arg : springArgs) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"), "-jar", jar.toString()));
+        properties.forEach((name, value) -> command.add("--" + name + "=" + value));
+
+        Path log = Path.of("target", "loadtest-server.log");
+        Files.createDirectories(log.getParent());
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        ServerProcess server = new ServerProcess(process, port, databasePort, log);
+        try {
+            server.awaitReady();
+        } catch (Exception e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    /**
+     * Starts sampling the process in the background; {@link Sampling#stop} ends it and returns the peaks.
+     */
+    Sampling sample() {
+        Sampling sampling = new Sampling();
+        sampling.thread.start();
+        return sampling;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    final class Sampling {
+
+        private final Thread thread = new Thread(this::run, "loadtest-server-sampler");
+        private int httpConnections;
+        private int databaseConnections;
+        private int threads;
+
+        private Sampling() {
+            thread.setDaemon(true);
+        }
+
+        LoadTestReport.ServerResources stop() throws InterruptedException {
+            thread.interrupt();
+            thread.join();
+            return new LoadTestReport.ServerResources(httpConnections, databaseConnections, threads);
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    sampleOnce();
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (IOException e) {
+                    // The process exited, or a socket closed between listing and reading it; try again next time
+                }
+            }
+        }
+
+        private void sampleOnce() throws IOException {
+            Path proc = Path.of("/proc", String.valueOf(process.pid()));
+            Set<String> sockets = new HashSet<>();
+            try (DirectoryStream<Path> fds = Files.newDirectoryStream(proc.resolve("fd"))) {
+                for (Path fd : fds) {
+                    try {
+                        String target = Files.readSymbolicLink(fd).toString();
+                        if (target.startsWith("socket:[")) {
+                            sockets.add(target.substring(8, target.length() - 1));
+                        }
+                    } catch (IOException e) {
+                        // closed in the meantime
+                    }
+                }
+            }
+            int http = 0;
+            int database = 0;
+            for (String table : List.of("tcp", "tcp6")) {
+                Path file = proc.resolve("net").resolve(table);
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                List<String> lines = Files.readAllLines(file);
+                // sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ...
+                for (String line : lines.subList(1, lines.size())) {
+                    String[] columns = line.trim().split("\\s+");
+                    if (!columns[3].equals(ESTABLISHED) || !sockets.contains(columns[9])) {
+                        continue;
+                    }
+                    if (portOf(columns[1]) == port) {
+                        http++;
+                    } else if (portOf(columns[2]) == databasePort) {
+                        database++;
+                    }
+                }
+            }
+            int threadCount = 0;
+            for (String line : Files.readAllLines(proc.resolve("status"))) {
+                if (line.startsWith("Threads:")) {
+                    threadCount = Integer.parseInt(line.substring(8).trim());
+                }
+            }
+            httpConnections = Math.max(httpConnections, http);
+            databaseConnections = Math.max(databaseConnections, database);
+            threads = Math.max(threads, threadCount);
+        }
+    }
+
+    private void awaitReady() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2)).GET().build();
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Service not ready after " + READY_TIMEOUT + ", see " + log);
+    }
+
+    // "0100007F:1F90" -> 8080
+    private static int portOf(String address) {
+        return Integer.parseInt(address.substring(address.indexOf(':') + 1), 16);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.gab.authservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gab.authservice.AuthServiceApplication;
+import com.gab.authservice.service.TestKeys;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures how the packaging modes of the {@code fast-start} profile start: for each mode the service is launched as a
+ * new process, time to ready is taken from process start until {@code /actuator/health/readiness} answers 200, then
+ * the first signup, login, authenticated {@code /api/demo/hello_user} and JWKS request are timed one after another.
+ * Medians over {@code --runs} launches are printed and written to a JSON report.
+ * <p>
+ * Modes: {@code jar} (the executable jar, through Spring Boot's launcher), {@code extracted} (the unpacked jar),
+ * {@code cds} (unpacked, with an AppCDS archive), {@code aot} (unpacked, {@code -Dspring.aot.enabled=true}),
+ * {@code aot-cds} (both) and {@code native} (the GraalVM binary, when {@code --native-binary} exists). The CDS archives
+ * are recorded here, by a training run with the same JVM and classpath as the measured runs, because an archive only
+ * maps with the exact JVM and classpath that wrote it.
+ * </p>
+ * <p>
+ * Like {@link LoadTest}, the service runs with the {@code local} profile, an in-memory H2 database and a generated key
+ * pair, so the jars must be built with {@code -Daot.profiles=local}; unknown {@code --name=value} options go to the
+ * service. The native image does not contain H2: point it at PostgreSQL with {@code --spring.datasource.*} options.
+ * Run it through {@code ./startup.sh}.
+ * </p>
+ */
+public final class StartupMeasurement {
+
+    static final String USAGE = """
+            Options:
+              --modes=jar,extracted,cds,aot,aot-cds,native  modes to measure, in this order (default: all; native only if built)
+              --runs=5                                      launches per mode
+              --jar=target/authservice-1.0.0.jar            executable jar built with -Pfast-start
+              --extracted=target/fast-start                 its extracted layout
+              --native-binary=target/authservice            native image built with -Pnative
+              --report=target/startup-report.json           JSON report
+              --name=value                                  any other option is passed to the service""";
+
+    private static final List<String> MODES = List.of("jar", "extracted", "cds", "aot", "aot-cds", "native");
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+    private static final String PASSWORD = "startup-password";
+
+    record Options(List<String> modes, int runs, Path jar, Path extracted, Path nativeBinary, Path report,
+                   List<String> serviceArgs) {
+
+        static Options parse(String[] args) {
+            List<String> modes = null;
+            int runs = 5;
+            Path jar = Path.of("target/authservice-1.0.0.jar");
+            Path extracted = Path.of("target/fast-start");
+            Path nativeBinary = Path.of("target/authservice");
+            Path report = Path.of("target/startup-report.json");
+            List<String> serviceArgs = new ArrayList<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+                String value = arg.substring(eq + 1);
+                switch (arg.substring(2, eq)) {
+                    case "modes" -> {
+                        modes = Arrays.asList(value.split(","));
+                        for (String mode : modes) {
+                            if (!MODES.contains(mode)) {
+                                throw new IllegalArgumentException("Unknown mode: " + mode);
+                            }
+                        }
+                    }
+                    case "runs" -> runs = Integer.parseInt(value);
+                    case "jar" -> jar = Path.of(value);
+                    case "extracted" -> extracted = Path.of(value);
+                    case "native-binary" -> nativeBinary = Path.of(value);
+                    case "report" -> report = Path.of(value);
+                    default -> serviceArgs.add(arg);
+                }
+            }
+            if (runs < 1) {
+                throw new IllegalArgumentException("--runs must be at least 1");
+            }
+            if (modes == null) {
+                modes = new ArrayList<>(MODES);
+                if (!Files.isExecutable(nativeBinary)) {
+                    modes.remove("native");
+                }
+            }
+            return new Options(modes, runs, jar, extracted, nativeBinary, report, serviceArgs);
+        }
+    }
+
+    /**
+     * Milliseconds; {@code startedMs} is what Spring Boot logs as "Started ... in", the rest is measured from outside.
+     */
+    record Launch(double readyMs, double startedMs, double signupMs, double loginMs, double demoMs, double jwksMs) {
+    }
+
+    record ModeResult(String mode, List<Launch> launches, Launch median) {
+    }
+
+    record StartupReport(String startedAt, String jdk, int cpus, List<ModeResult> modes) {
+    }
+
+    private final Options options;
+    private final Path workDir;
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private StartupMeasurement(Options options, Path workDir) {
+        this.options = options;
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String startedAt = Instant.now().toString();
+        Path workDir = Files.createTempDirectory("startup-measurement");
+        StartupMeasurement measurement = new StartupMeasurement(options, workDir);
+        measurement.writeKeys();
+        List<ModeResult> results = new ArrayList<>();
+        for (String mode : options.modes()) {
+            System.out.printf("Measuring %s (%d runs)...%n", mode, options.runs());
+            results.add(measurement.measure(mode));
+        }
+
+        print(results);
+        StartupReport report = new StartupReport(startedAt, Runtime.version().toString(),
+                Runtime.getRuntime().availableProcessors(), results);
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(options.report().toFile(), report);
+        System.out.printf("%nReport written to %s (service logs in %s)%n", options.report(), workDir);
+    }
+
+    // The local profile reads keys/private.pem and keys/public.pem from the classpath. They go in a jar because CDS
+    // refuses non-empty directories on the classpath.
+    private void writeKeys() throws IOException {
+        KeyPair keyPair = TestKeys.keyPair("RS256");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(keysJar()))) {
+            jar.putNextEntry(new JarEntry("keys/private.pem"));
+            jar.write(TestKeys.privatePem(keyPair).getBytes(StandardCharsets.US_ASCII));
+            jar.putNextEntry(new JarEntry("keys/public.pem"));
+            jar.write(TestKeys.publicPem(keyPair).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private ModeResult measure(String mode) throws Exception {
+        if (mode.endsWith("cds")) {
+            train(mode);
+        }
+        List<Launch> launches = new ArrayList<>();
+        for (int run = 1; run <= options.runs(); run++) {
+            launches.add(launch(mode, run));
+        }
+        return new ModeResult(mode, launches, median(launches));
+    }
+
+    private void train(String mode) throws Exception {
+        List<String> jvmArgs = List.of("-Xlog:cds=error", "-XX:ArchiveClassesAtExit=" + archive(mode),
+                "-Dspring.context.exit=onRefresh");
+        Process process = start(mode, jvmArgs, freePort(), workDir.resolve(mode + "-training.log"));
+        if (!process.waitFor(READY_TIMEOUT.toSeconds(), TimeUnit.SECONDS) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IllegalStateException("CDS training run for " + mode + " failed, see "
+                    + workDir.resolve(mode + "-training.log"));
+        }
+    }
+
+    private Launch launch(String mode, int run) throws Exception {
+        List<String> jvmArgs = mode.endsWith("cds") ? List.of("-XX:SharedArchiveFile=" + archive(mode)) : List.of();
+        int port = freePort();
+        String baseUrl = "http://localhost:" + port;
+        Path log = workDir.resolve(mode + "-" + run + ".log");
+        long start = System.nanoTime();
+        Process process = start(mode, jvmArgs, port, log);
+        try {
+            double readyMs = awaitReady(baseUrl, process, start, log);
+            String email = "startup-" + run + "@example.com";
+            String credentials = "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+            double signupMs = time(post(baseUrl + "/auth/signup", credentials));
+            long loginStart = System.nanoTime();
+            String accessToken = expectOk(send(post(baseUrl + "/auth/login", credentials)), "login");
+            double loginMs = millisSince(loginStart);
+            double demoMs = time(HttpRequest.newBuilder(URI.create(baseUrl + "/api/demo/hello_user"))
+                    .header("Authorization", "Bearer " + accessToken).GET().build());
+            double jwksMs = time(HttpRequest.newBuilder(URI.create(baseUrl + "/.well-known/jwks.json")).GET().build());
+            return new Launch(readyMs, startedMs(log), signupMs, loginMs, demoMs, jwksMs);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private Process start(String mode, List<String> jvmArgs, int port, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().getPath()).toString();
+        if (mode.equals("native")) {
+            command.add(options.nativeBinary().toString());
+        } else {
+            command.add(java);
+            command.addAll(jvmArgs);
+            if (mode.startsWith("aot")) {
+                command.add("-Dspring.aot.enabled=true");
+            }
+            if (mode.equals("jar")) {
+                // PropertiesLauncher adds the keys and the H2 driver, which are not in the jar, to its class path
+                command.add("-Dloader.path=" + keysJar() + "," + h2);
+                command.addAll(List.of("-cp", options.jar().toString(),
+                        "org.springframework.boot.loader.launch.PropertiesLauncher"));
+            } else {
+                Path application = options.extracted().resolve(options.jar().getFileName());
+                command.addAll(List.of("-cp", String.join(File.pathSeparator, application.toString(),
+                        keysJar().toString(), h2), AuthServiceApplication.class.getName()));
+            }
+        }
+        command.addAll(serviceArgs(port));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private List<String> serviceArgs(int port) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.profiles.active", "local");
+        properties.put("server.port", String.valueOf(port));
+        properties.put("spring.datasource.url", "jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.com.gab.authservice", "INFO");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        // Same override rule as LoadTest: a repeated option would become a list
+        for (String arg : options.serviceArgs()) {
+            int eq = arg.indexOf('=');
+            properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        List<String> args = new ArrayList<>();
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return args;
+    }
+
+    private double awaitReady(String baseUrl, Process process, long start, Path log) throws Exception {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2)).GET().build();
+        long deadline = start + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return millisSince(start);
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Service not ready after " + READY_TIMEOUT + ", see " + log);
+    }
+
+    private static double startedMs(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) * 1000 : Double.NaN;
+    }
+
+    private double time(HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        expectOk(send(request), request.uri().getPath());
+        return millisSince(start);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String expectOk(HttpResponse<String> response, String what) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(what + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private Path keysJar() {
+        return workDir.resolve("keys.jar");
+    }
+
+    private Path archive(String mode) {
+        return workDir.resolve(mode + ".jsa");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    private static Launch median(List<Launch> launches) {
+        return new Launch(median(launches, Launch::readyMs), median(launches, Launch::startedMs),
+                median(launches, Launch::signupMs), median(launches, Launch::loginMs),
+                median(launches, Launch::demoMs), median(launches, Launch::jwksMs));
+    }
+
+    private static double median(List<Launch> launches, ToDoubleFunction<Launch> metric) {
+        double[] values = launches.stream().mapToDouble(metric).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    private static void print(List<ModeResult> results) {
+        System.out.printf("%nmedians, ms%n");
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n",
+                "mode", "ready", "started", "signup", "login", "demo", "jwks");
+        for (ModeResult result : results) {
+            Launch m = result.median();
+            System.out.printf("%-10s %10.0f %10.0f %10.1f %10.1f %10.1f %10.1f%n",
+                    result.mode(), m.readyMs(), m.startedMs(), m.signupMs(), m.loginMs(), m.demoMs(), m.jwksMs());
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.gab.authservice;
 
+import com.gab.authservice.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import io.github.cdimascio.dotenv.Dotenv;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class AuthServiceApplication {
 	
 	public static void main(String[] args) {
-		// Load .env file for local development BEFORE Spring Boot starts
+		loadEnvironment(args);
+		SpringApplication.run(AuthServiceApplication.class, args);
+	}
+
+	/**
+	 * Loads the .env file for local development BEFORE Spring Boot starts.
+	 * Shared with the other entry points (e.g. {@link UserImportApplication}).
+	 */
+	static void loadEnvironment(String[] args) {
 		// This ensures environment variables are available during Spring initialization
 		boolean isProd = isProductionMode(args);
 		
@@ -23,8 +36,6 @@ public class AuthServiceApplication {
 		} else {
 			System.out.println("Production mode: Using AWS Secrets Manager");
 		}
-		
-		SpringApplication.run(AuthServiceApplication.class, args);
 	}
 	
 	private static boolean isProductionMode(String[] args) {
@@ -0,0 +1,48 @@
+package com.gab.authservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gab.authservice.dto.UserImportReport;
+import com.gab.authservice.service.UserImportService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Command-line bulk import: starts the application without the web server, imports one file and exits.
+ * <p>
+ * Usage: {@code UserImportApplication <users.ndjson|users.csv> [--spring.profiles.active=...]}. The format is taken
+ * from the file extension. The report is printed as JSON; the exit code is 0 if every row was imported or was a
+ * conflict, 1 if any row was invalid or failed.
+ * </p>
+ */
+public class UserImportApplication {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args[0].startsWith("--")) {
+            System.err.println("Usage: UserImportApplication <users.ndjson|users.csv> [--spring.property=value ...]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        String[] springArgs = Arrays.copyOfRange(args, 1, args.length);
+        UserImportService.Format format = file.toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        AuthServiceApplication.loadEnvironment(springArgs);
+        UserImportReport report;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs);
+             InputStream input = Files.newInputStream(file)) {
+            report = context.getBean(UserImportService.class).importUsers(input, format);
+        }
+        System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        System.exit(report.invalid() + report.failed() > 0 ? 1 : 0);
+    }
+}
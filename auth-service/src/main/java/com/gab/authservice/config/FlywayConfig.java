@@ -0,0 +1,31 @@
+package com.gab.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Applies the migrations in {@code db/migration/{vendor}} at startup, before JPA validates its mapping against them.
+ * <p>
+ * The exception is a training run ({@code -Dspring.context.exit=onRefresh}, the fast-start build's AppCDS training),
+ * which refreshes the context against an unreachable database and exits. It is checked here at run time rather than
+ * with {@code spring.flyway.enabled=false}, which an AOT-processed context has already evaluated at build time.
+ * </p>
+ */
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (environment.containsProperty("spring.context.exit")) {
+                log.info("Training run, skipping database migrations");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.AccessTokenClaims;
+import com.gab.authservice.service.AuditEvent;
+import com.gab.authservice.service.AuditLog;
+import com.gab.authservice.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class JwtAuthFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+    private final AuditLog auditLog;
+    // The filter's own work, excluding the rest of the chain, by outcome
+    private final Timer skipped;
+    private final Timer anonymous;
+    private final Timer authenticated;
+    private final Timer rejected;
+
+    public JwtAuthFilter(JwtService jwtService, AuditLog auditLog, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.auditLog = auditLog;
+        this.skipped = timer(meterRegistry, "skipped");
+        this.anonymous = timer(meterRegistry, "anonymous");
+        this.authenticated = timer(meterRegistry, "authenticated");
+        this.rejected = timer(meterRegistry, "rejected");
+    }
+
+    /**
+     * Filters incoming HTTP requests to handle JWT-based authentication.
+     * <p>
+     * This method intercepts each request and checks for the presence of a JWT token
+     * in the "Authorization" header. If a token is found, it verifies the token once (signature, expiry, and revocation
+     * against the in-memory denylist), takes the subject (the user's email, or the user id in the compact token
+     * profiles) and role from the verified claims, and sets a {@link RoleAuthenticationToken} in the Spring Security
+     * context. JWTs and CWTs are both accepted, whatever profile this service issues.
+     * Tokens with a role this service does not know are treated as invalid.
+     * If the token is missing or invalid, the request proceeds without authentication. Rejected tokens are recorded
+     * in the {@link AuditLog} ({@code TOKEN_REJECTED}, reason {@code invalid} or {@code unknown_role}).
+     * </p>
+     * The time spent here, up to handing the request on, is published as
+     * {@code auth.filter{outcome=skipped|anonymous|authenticated|rejected}}.
+     *
+     * @param request      the incoming HTTP request
+     * @param response     the HTTP response
+     * @param filterChain  the filter chain to pass the request and response to the next filter
+     * @throws ServletException if an error occurs during filtering
+     * @throws IOException      if an I/O error occurs during filtering
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        Timer outcome = authenticate(request);
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Timer authenticate(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/auth/signup") || path.equals("/auth/login")) {
+            return skipped;
+        }
+
+        final String authHeader = request.getHeader("Authorization");
+
+        // if no token, or something wrong with it, continue to next filter
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return anonymous;
+        }
+
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return skipped;
+        }
+
+        String token = authHeader.substring(7); // strip "Bearer "
+
+        // Single signature check; subject and role come from the same verified claims
+        Optional<AccessTokenClaims> verified = jwtService.verify(token).filter(claims -> claims.subject() != null);
+        if (verified.isEmpty()) {
+            auditLog.publish(AuditEvent.Type.TOKEN_REJECTED, null, request.getRemoteAddr(), "invalid");
+            return rejected;
+        }
+        AccessTokenClaims claims = verified.get();
+        Role role = Role.fromName(claims.role());
+        if (role == null) {
+            // Signed by us but for a role this service does not know. Audited by the token's subject as is: the user id
+            // of a compact or CWT token, not its email, which would take a database lookup on the request thread
+            auditLog.publish(AuditEvent.Type.TOKEN_REJECTED, claims.subject(), request.getRemoteAddr(), "unknown_role");
+            return rejected;
+        }
+
+        // The role's shared, precompiled authorities; nothing is built per request
+        RoleAuthenticationToken authToken = new RoleAuthenticationToken(claims.subject(), role);
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return authenticated;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.filter")
+                .tag("outcome", outcome)
+                .description("Time spent authenticating a request from its bearer token")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+    }
+}
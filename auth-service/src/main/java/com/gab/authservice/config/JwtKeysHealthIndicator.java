@@ -0,0 +1,36 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code jwtKeys} health: {@code OUT_OF_SERVICE} until the signing and verification keys have been loaded, so the
+ * readiness probe keeps traffic away from an instance that could neither issue nor check a token. While no keys are
+ * loaded every check retries the load, so the probe interval paces the retries instead of the 15 minute background
+ * refresh. Once loaded the check is a reference read.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtKeysHealthIndicator implements HealthIndicator {
+
+    private final JwtKeyProvider keyProvider;
+
+    @Override
+    public Health health() {
+        JwtKeys keys;
+        try {
+            keys = keyProvider.current();
+        } catch (RuntimeException e) {
+            return Health.outOfService().withDetail("error", "JWT keys not loaded: " + e.getMessage()).build();
+        }
+        return Health.up()
+                .withDetail("kid", keys.keyId())
+                .withDetail("algorithm", keys.algorithm().getId())
+                .withDetail("loadedAt", keys.loadedAt().toString())
+                .build();
+    }
+}
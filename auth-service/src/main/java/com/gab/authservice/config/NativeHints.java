@@ -0,0 +1,68 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.dto.TokenIntrospection;
+import com.gab.authservice.dto.UserImportReport;
+import com.gab.authservice.dto.UserImportRow;
+import com.gab.authservice.repository.UserCredentials;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the GraalVM native image ({@code -Pnative}) that Spring AOT cannot infer.
+ * <p>
+ * jjwt-api loads its implementation by class name ({@code Jwts.parser()}, {@code Jwts.SIG}, {@code Jwks.setParser()},
+ * ...) and finds its JSON serializer through {@link java.util.ServiceLoader}. The DTOs below are read or written with
+ * an {@code ObjectMapper} of their own rather than through a controller signature, so AOT does not see them. JPA
+ * entities and repositories are handled by Spring AOT, except {@link UserCredentials}, which Hibernate constructs for
+ * a query's {@code select new}. Spring Boot's Flyway hints do not reach the per-vendor migration folders. Hibernate,
+ * Jackson, Caffeine, the PostgreSQL driver and the AWS SDK come with hints from the GraalVM reachability metadata
+ * repository.
+ * </p>
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    static final List<String> JJWT_IMPLEMENTATION = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_IMPLEMENTATION) {
+            // Classes.newInstance / invokeStatic / getFieldValue: public constructors, declared methods and fields
+            hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Serializer");
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Deserializer");
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.CompressionCodec");
+
+        hints.reflection().registerType(UserCredentials.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("db/migration/*/*.sql");
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                UserImportRow.class, UserImportReport.class, TokenIntrospection.class);
+    }
+}
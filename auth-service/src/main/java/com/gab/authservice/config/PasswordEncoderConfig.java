@@ -0,0 +1,75 @@
+package com.gab.authservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static com.gab.authservice.config.PasswordEncoders.ARGON2;
+import static com.gab.authservice.config.PasswordEncoders.BCRYPT;
+
+/**
+ * Password hashing setup.
+ * <p>
+ * Hashes are stored in {@link DelegatingPasswordEncoder} format ({@link PasswordEncoders}); new hashes use
+ * {@code password-hashing.algorithm}. {@link PasswordEncoder#upgradeEncoding} reports hashes made with another algorithm
+ * or a lower cost, which {@code AuthService.login} re-hashes after a successful match.
+ * </p>
+ * With {@code password-hashing.calibration.enabled=true} the bcrypt strength or argon2 iteration count is measured at
+ * startup: the highest cost whose hash fits {@code password-hashing.calibration.target-latency} on this host is used,
+ * never going below the configured value. PBKDF2 is not calibrated because its hashes do not record the iteration
+ * count, so changing it would break existing hashes.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Value("${password-hashing.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${password-hashing.pbkdf2.iterations:310000}")
+    private int pbkdf2Iterations;
+
+    @Value("${password-hashing.calibration.enabled:false}")
+    private boolean calibrate;
+
+    @Value("${password-hashing.calibration.target-latency:PT0.25S}")
+    private Duration targetLatency;
+
+    /**
+     * Delegating bcrypt/argon2/pbkdf2 encoder, run on the bounded {@link PasswordHashingExecutor} instead of the
+     * request thread.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor, MeterRegistry meterRegistry) {
+        int strength = bcryptStrength;
+        int iterations = argon2Iterations;
+        if (calibrate && BCRYPT.equals(algorithm)) {
+            strength = PasswordHashCalibrator.calibrate(BCRYPT, BCryptPasswordEncoder::new,
+                    bcryptStrength, 31, cost -> cost + 1, targetLatency);
+        } else if (calibrate && ARGON2.equals(algorithm)) {
+            iterations = PasswordHashCalibrator.calibrate(ARGON2, PasswordEncoders::argon2,
+                    argon2Iterations, 64, cost -> cost + 1, targetLatency);
+        }
+        int cost = BCRYPT.equals(algorithm) ? strength : ARGON2.equals(algorithm) ? iterations : pbkdf2Iterations;
+        Gauge.builder("password.hashing.cost", () -> cost)
+                .tag("algorithm", algorithm)
+                .description("Work factor used for new password hashes")
+                .register(meterRegistry);
+
+        DelegatingPasswordEncoder delegating =
+                PasswordEncoders.delegating(algorithm, strength, iterations, pbkdf2Iterations);
+        return new OffloadedPasswordEncoder(delegating, passwordHashingExecutor, meterRegistry);
+    }
+}
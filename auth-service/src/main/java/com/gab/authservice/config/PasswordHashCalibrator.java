@@ -0,0 +1,58 @@
+package com.gab.authservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Finds the highest work factor whose hashing time on this host fits a latency budget.
+ * <p>
+ * Costs are tried from {@code minCost} upwards ({@code nextCost} gives the next candidate) and each is timed as the
+ * median of a few {@code encode} calls after one warm-up. Since every step makes hashing slower, the search stops at
+ * the first cost over budget. {@code minCost} is a security floor and is returned even if it is over budget.
+ * </p>
+ */
+@Slf4j
+final class PasswordHashCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private PasswordHashCalibrator() {
+    }
+
+    static int calibrate(String id, IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                         IntUnaryOperator nextCost, Duration budget) {
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost = nextCost.applyAsInt(cost)) {
+            long nanos = medianEncodeNanos(encoderForCost.apply(cost));
+            log.info("Password hashing calibration: {} cost {} takes {} ms", id, cost, nanos / 1_000_000);
+            if (nanos > budget.toNanos()) {
+                if (cost == minCost) {
+                    log.warn("Password hashing calibration: {} minimum cost {} exceeds the {} ms budget",
+                            id, minCost, budget.toMillis());
+                }
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("Password hashing calibration: using {} cost {} for a {} ms budget", id, chosen, budget.toMillis());
+        return chosen;
+    }
+
+    private static long medianEncodeNanos(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
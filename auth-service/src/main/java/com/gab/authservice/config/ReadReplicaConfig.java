@@ -0,0 +1,87 @@
+package com.gab.authservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas ({@code datasource.replicas.enabled=true}): the primary pool is built from {@code spring.datasource.*}
+ * as usual, one more pool per {@code datasource.replicas.urls} entry, and the application's {@link DataSource} routes
+ * between them (see {@link ReadWriteRoutingDataSource}).
+ * <p>
+ * Replica pools are named {@code replica-1}, {@code replica-2}, ... and the primary {@code primary}, which is how their
+ * {@code hikaricp.connections.*} metrics are tagged. Replicas use the primary's credentials and driver unless
+ * {@code datasource.replicas.username}/{@code password} are set. They do not have to be reachable at startup, and
+ * their connection timeout is short ({@code datasource.replicas.connection-timeout}), because a read waiting on a dead
+ * replica is better sent to the primary.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${datasource.replicas.urls}") List<String> urls,
+            @Value("${datasource.replicas.username:}") String username,
+            @Value("${datasource.replicas.password:}") String password,
+            @Value("${datasource.replicas.max-pool-size:10}") int maxPoolSize,
+            @Value("${datasource.replicas.connection-timeout:PT1S}") Duration connectionTimeout,
+            @Value("${datasource.replicas.validation-timeout-seconds:1}") int validationTimeoutSeconds,
+            MeterRegistry meterRegistry) {
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("datasource.replicas.enabled is set but datasource.replicas.urls is empty");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            // Start even if the replica is down; the health check brings it into rotation later
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, validationTimeoutSeconds, meterRegistry);
+    }
+
+    /**
+     * The data source JPA, JDBC and the transaction manager use. The lazy proxy takes the physical connection at the
+     * first statement, when the transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
@@ -0,0 +1,234 @@
+package com.gab.authservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Sends reads to a pool of replicas and everything else to the primary.
+ * <p>
+ * A connection goes to a replica when it is taken inside a read-only transaction, or inside {@link #onReplica}. It goes
+ * to the primary inside {@link #onPrimary}, in read-write transactions and outside transactions. Replicas are used
+ * round-robin. Wrap this in a {@link LazyConnectionDataSourceProxy}: transaction managers open the connection before
+ * the read-only flag is visible, and the proxy delays the choice until the first statement.
+ * </p>
+ * <p>
+ * A replica whose connection fails is taken out of rotation at once, and that read goes to the primary. A replica
+ * whose pool only timed out, with every connection busy, stays in rotation; that read goes to the next replica or the
+ * primary. {@link #checkReplicas()} validates every replica every
+ * {@code datasource.replicas.health-check-interval} and puts the healthy ones back. Without a healthy replica all
+ * reads go to the primary. Routing decisions are counted in {@code datasource.routing{target,reason}} and healthy
+ * replicas in {@code datasource.replicas.healthy}. Latency and saturation of each pool come from Hikari as
+ * {@code hikaricp.connections.*{pool}}.
+ * </p>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    // Serializes rotation changes; a lock rather than synchronized so virtual threads do not pin on the request path
+    private final ReentrantLock rotationLock = new ReentrantLock();
+    private volatile Replica[] healthy;
+    private final Counter replicaReads;
+    private final Counter primaryWrites;
+    private final Counter primaryForced;
+    private final Counter primaryFailover;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean up = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * @param replicas replica pools by name; they are closed with this data source if they are {@link AutoCloseable}
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      int validationTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = List.copyOf(list);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.healthy = list.toArray(Replica[]::new);
+        this.replicaReads = routingCounter(meterRegistry, "replica", "read");
+        this.primaryWrites = routingCounter(meterRegistry, "primary", "read_write");
+        this.primaryForced = routingCounter(meterRegistry, "primary", "forced");
+        this.primaryFailover = routingCounter(meterRegistry, "primary", "failover");
+        Gauge.builder("datasource.replicas.healthy", this, routing -> routing.healthy.length)
+                .description("Replicas currently in the read rotation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code work} with its connections taken from a replica, even outside a read-only transaction. Only for
+     * work that reads and tolerates replication lag; an enclosing transaction's connection is reused as it is.
+     */
+    public static <T> T onReplica(Supplier<T> work) {
+        return with(Route.REPLICA, work);
+    }
+
+    /**
+     * Runs {@code work} with its connections taken from the primary, even inside a read-only transaction, for reads that
+     * must see this instance's latest writes.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        return with(Route.PRIMARY, work);
+    }
+
+    private static <T> T with(Route route, Supplier<T> work) {
+        Route previous = ROUTE.get();
+        ROUTE.set(route);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ROUTE.remove();
+            } else {
+                ROUTE.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Route route = ROUTE.get();
+        if (route == Route.PRIMARY) {
+            primaryForced.increment();
+            return primary.getConnection();
+        }
+        if (route != Route.REPLICA && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return primary.getConnection();
+        }
+        Replica[] candidates = healthy;
+        // Each replica at most once, starting at the next one in rotation
+        for (int i = 0; i < candidates.length; i++) {
+            Replica replica = candidates[Math.floorMod(next.getAndIncrement(), candidates.length)];
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    markDown(replica, e);
+                }
+            }
+        }
+        primaryFailover.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Goes to the primary, whatever the route: credentials are configured per pool, so a caller passing its own is not
+     * asking for a replica. Hikari pools reject per-call credentials with
+     * {@link java.sql.SQLFeatureNotSupportedException}.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryForced.increment();
+        return primary.getConnection(username, password);
+    }
+
+    // Hikari reports a saturated pool as a SQLTransientConnectionException without a cause; when the pool could not
+    // connect either, the last connection failure is the cause
+    private static boolean isConnectionFailure(SQLException e) {
+        return !(e instanceof SQLTransientConnectionException) || e.getCause() != null;
+    }
+
+    /**
+     * Validates every replica and updates the rotation. Runs on the scheduler; safe to call at any time. A replica whose
+     * pool is saturated keeps its state, as on the request path: it is busy, not unreachable.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    markDown(replica, e);
+                } else {
+                    log.debug("Replica {} pool saturated, health check skipped: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markUp(Replica replica) {
+        if (setUp(replica, true)) {
+            log.info("Replica {} is healthy again and back in the read rotation", replica.name);
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (setUp(replica, false)) {
+            log.warn("Replica {} taken out of the read rotation: {}", replica.name,
+                    cause == null ? "connection not valid" : cause.getMessage());
+        }
+    }
+
+    // Returns whether the state changed
+    private boolean setUp(Replica replica, boolean up) {
+        rotationLock.lock();
+        try {
+            if (replica.up == up) {
+                return false;
+            }
+            replica.up = up;
+            healthy = replicas.stream().filter(r -> r.up).toArray(Replica[]::new);
+            return true;
+        } finally {
+            rotationLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .description("Connections handed out by the read/write routing data source")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.gab.authservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads that must see this instance's own recent writes off the replicas.
+ * <p>
+ * A write to a key (a user's normalized email) is recorded with {@link #recordWrite}. For the next
+ * {@code datasource.replicas.read-your-writes-window} (5 seconds by default), {@link #read} runs reads of that key on the
+ * primary; all other reads of keys go to a replica. So a login right after signup or a role change does not miss the
+ * new row because the replica has not caught up yet. The window should exceed the usual replication lag. It only
+ * covers writes made by this instance. Without read replicas ({@code datasource.replicas.enabled=false}) nothing is
+ * recorded and reads run as they are.
+ * </p>
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private static final long MAX_KEYS = 100_000;
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesWindow(@Value("${datasource.replicas.enabled:false}") boolean enabled,
+                                @Value("${datasource.replicas.read-your-writes-window:PT5S}") Duration window) {
+        // At most MAX_KEYS writes per window are remembered; beyond that the oldest ones may read from a replica early
+        this.recentWrites = enabled
+                ? Caffeine.newBuilder().maximumSize(MAX_KEYS).expireAfterWrite(window).build()
+                : null;
+    }
+
+    /**
+     * Records a committed write to {@code key}, so reads of it go to the primary for the window.
+     */
+    public void recordWrite(String key) {
+        if (recentWrites != null) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs a read of {@code key}: on the primary if the key was written within the window, else on a replica.
+     */
+    public <T> T read(String key, Supplier<T> read) {
+        if (recentWrites == null) {
+            return read.get();
+        }
+        return recentWrites.getIfPresent(key) != null
+                ? ReadWriteRoutingDataSource.onPrimary(read)
+                : ReadWriteRoutingDataSource.onReplica(read);
+    }
+}
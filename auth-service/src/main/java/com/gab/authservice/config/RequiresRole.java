@@ -0,0 +1,22 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.entity.Role;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a method, or every method of a class, to callers whose role grants {@link #value()} through the
+ * {@link Role} hierarchy. Checked by {@link RoleAuthorizationManager} with a mask test; use it instead of
+ * {@code @PreAuthorize("hasRole(...)")} on request paths.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresRole {
+
+    Role value();
+}
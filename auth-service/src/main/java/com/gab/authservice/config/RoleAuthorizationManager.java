@@ -0,0 +1,81 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.entity.Role;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides {@link RequiresRole} methods with a bitmask test: granted if the caller's role mask contains the required
+ * role's bit.
+ * <p>
+ * The required role is resolved once per method and target class and cached: an inherited method takes the
+ * {@code @RequiresRole} of the class it is called on, which differs between subclasses. For a
+ * {@link RoleAuthenticationToken} the mask is read from its {@link Role}; any other authentication (tests, a future
+ * login flow) gets the mask of its {@code ROLE_} authorities. The two possible decisions are shared instances, so a
+ * check allocates only its cache key.
+ * </p>
+ */
+public class RoleAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<MethodClassKey, Role> requiredRoles = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    /**
+     * Still abstract in {@link AuthorizationManager}, which Spring Security no longer calls itself; the same decision
+     * as {@link #authorize}.
+     */
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication, invocation);
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        Class<?> targetClass = target == null ? method.getDeclaringClass() : AopUtils.getTargetClass(target);
+        Role required = requiredRoles.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> requiredRole(method, targetClass));
+        return (mask(authentication.get()) & required.bit()) != 0 ? GRANTED : DENIED;
+    }
+
+    private static long mask(Authentication authentication) {
+        if (authentication instanceof RoleAuthenticationToken token) {
+            return token.getRole().mask();
+        }
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return 0;
+        }
+        return Role.mask(authentication.getAuthorities());
+    }
+
+    private static Role requiredRole(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresRole annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequiresRole.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresRole.class);
+        }
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresRole on " + specific);
+        }
+        return annotation.value();
+    }
+}
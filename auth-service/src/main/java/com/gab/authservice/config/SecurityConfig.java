@@ -0,0 +1,73 @@
+package com.gab.authservice.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+@EnableMethodSecurity
+@Configuration
+public class SecurityConfig {
+
+    private static final String PROMETHEUS_PATH = "/actuator/prometheus";
+
+    /**
+     * {@code /actuator/prometheus} is open only on the management listener ({@code management.server.port}), which is
+     * meant to be reachable by the scraper alone. Served anywhere else, e.g. when no management port is set, it needs
+     * an admin token like any other internal data. Token introspection answers for any token it is given, so it is
+     * matched before the public {@code /auth/**} and needs a {@code SERVICE} token.
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter,
+                                                   @Value("${management.server.port:-1}") int managementPort)
+            throws Exception {
+        RequestMatcher prometheusOnManagementPort = request -> managementPort > 0
+                && request.getLocalPort() == managementPort && PROMETHEUS_PATH.equals(request.getRequestURI());
+        return http
+            .csrf(csrf -> csrf.disable())
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/auth/introspect", "/auth/introspect/**").hasRole("SERVICE")
+                .requestMatchers(
+                    "/auth/**",
+                    "/.well-known/jwks.json",
+                    "/v3/api-docs/**",
+                    "/swagger-ui.html",
+                    "/swagger-ui/**",
+                    "/actuator/health",
+                    "/actuator/health/liveness",
+                    "/actuator/health/readiness",
+                    "/actuator/info"
+                ).permitAll()
+                .requestMatchers(prometheusOnManagementPort).permitAll()
+                .requestMatchers(PROMETHEUS_PATH).hasRole("ADMIN")
+                .anyRequest().authenticated()
+            )
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .build();
+    }
+
+    /**
+     * Applies {@link RequiresRole} to annotated methods and classes, before the method runs, like {@code @PreAuthorize}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresRoleAuthorization() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(RequiresRole.class, true))
+                .union(new AnnotationMatchingPointcut(null, RequiresRole.class, true));
+        AuthorizationManagerBeforeMethodInterceptor interceptor =
+                new AuthorizationManagerBeforeMethodInterceptor(pointcut, new RoleAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
@@ -0,0 +1,74 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each request path's one-off work once at startup: the key load, signing and verifying a token, one password
+ * hash and one user lookup. That covers class loading, the password-hashing pool threads and the first JDBC statement.
+ * <p>
+ * Application runners finish before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}, so this work
+ * happens before the readiness probe first reports UP, and the first requests after a restart do not pay for it.
+ * A step that fails is logged and skipped; the request that needs it pays for it instead, as without the warm-up.
+ * Disabled with {@code startup.warmup.enabled=false}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    // Never stored; its token is verified once and dropped
+    private static final User WARMUP_USER = new User(new UUID(0, 0), "warmup@localhost", "", Role.USER);
+
+    private final boolean enabled;
+    private final JwtKeyProvider keyProvider;
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+
+    public StartupWarmup(@Value("${startup.warmup.enabled:true}") boolean enabled,
+                         JwtKeyProvider keyProvider,
+                         JwtService jwtService,
+                         PasswordEncoder passwordEncoder,
+                         UserRepository userRepository) {
+        this.enabled = enabled;
+        this.keyProvider = keyProvider;
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        step("key load", keyProvider::current);
+        step("token sign and verify", () -> jwtService.verify(jwtService.generateToken(WARMUP_USER)));
+        step("password hash", () -> passwordEncoder.encode(UUID.randomUUID().toString()));
+        step("user lookup",
+                () -> userRepository.findCredentialsByEmailNormalized(WARMUP_USER.getEmailNormalized()));
+        log.info("Startup warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void step(String name, Runnable work) {
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            log.warn("Startup warm-up step '{}' failed", name, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.gab.authservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, which is what limits virtual-thread
+ * throughput: typically blocking inside a {@code synchronized} block or a native frame (a JDBC driver or connection
+ * pool still using monitors, a lazily initialised client behind {@code synchronized}).
+ * <p>
+ * Active only when the service runs on virtual threads ({@code spring.threads.virtual.enabled=true} on Java 21+).
+ * Listens in-process to the JFR {@code jdk.VirtualThreadPinned} event, raised when a pinned virtual thread stays
+ * blocked longer than {@code virtual-threads.pinning.threshold}. Each occurrence is recorded in the
+ * {@code jvm.threads.virtual.pinned} timer, tagged with the call site (the innermost frame from this service, or the
+ * innermost frame if there is none); the first occurrence per call site is logged with its stack trace.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.gab.authservice.";
+    private static final int LOGGED_FRAMES = 20;
+
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning.threshold:PT0.02S}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for more than {}", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = site(frames);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .tag("site", site)
+                .description("Virtual threads blocked while pinned to their carrier thread")
+                .register(meterRegistry)
+                .record(event.getDuration());
+        if (loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}:{}", event.getDuration().toMillis(), site,
+                    stackTrace(event.getStackTrace()));
+        }
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        RecordedFrame site = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(frames.isEmpty() ? null : frames.get(0));
+        return site == null ? "unknown" : name(site);
+    }
+
+    private static String stackTrace(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " (no stack trace)";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\n\tat " + name(frame) + ":" + frame.getLineNumber())
+                .collect(Collectors.joining());
+    }
+
+    private static String name(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
@@ -0,0 +1,95 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.exception.InvalidRefreshTokenException;
+import com.gab.authservice.service.AuthService;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.LoginRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import com.gab.authservice.dto.LoginRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class AuthController {
+
+    static final String REFRESH_COOKIE = "refresh_token";
+
+    private final AuthService authService;
+    private final JwtService jwtService;
+    private final LoginRateLimiter loginRateLimiter;
+
+    @PostMapping("/signup")
+    public ResponseEntity<String> signup(@RequestBody @Valid SignupRequest request, HttpServletRequest httpRequest) {
+        authService.signup(request, httpRequest.getRemoteAddr());
+        return ResponseEntity.ok("User registered successfully");
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<String> postMethodName(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Rejected attempts stop here, before the user lookup and the password check
+        loginRateLimiter.acquire(request.getEmail(), httpRequest.getRemoteAddr());
+        AuthTokens tokens = authService.login(request, httpRequest.getRemoteAddr());
+        return withRefreshCookie(tokens);
+    }
+
+    /**
+     * Exchanges the refresh token cookie for a new access token (body) and a new refresh token (cookie).
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new InvalidRefreshTokenException("Missing refresh token");
+        }
+        return withRefreshCookie(authService.refresh(refreshToken));
+    }
+
+    /**
+     * Revokes the refresh token cookie's session and, if one is sent, the bearer access token, then clears the cookie.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+                                       @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(refreshToken == null || refreshToken.isEmpty() ? null : refreshToken, accessToken);
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie("", Duration.ZERO).toString())
+                .build();
+    }
+
+    @GetMapping("/public-key")
+    public ResponseEntity<String> getPublicKey() {
+        return ResponseEntity.ok(jwtService.getPublicKeyPEM());
+    }
+
+    // The body stays the access token, as before refresh tokens existed; the refresh token only travels in an
+    // HttpOnly cookie scoped to /auth, out of reach of scripts and never sent to other endpoints
+    private static ResponseEntity<String> withRefreshCookie(AuthTokens tokens) {
+        Duration maxAge = Duration.between(Instant.now(), tokens.refreshTokenExpiresAt());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, refreshCookie(tokens.refreshToken(), maxAge).toString())
+                .body(tokens.accessToken());
+    }
+
+    private static ResponseCookie refreshCookie(String value, Duration maxAge) {
+        return ResponseCookie.from(REFRESH_COOKIE, value)
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("Strict")
+                .path("/auth")
+                .maxAge(maxAge)
+                .build();
+    }
+}
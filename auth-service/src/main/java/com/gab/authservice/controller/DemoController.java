@@ -1,6 +1,7 @@
 package com.gab.authservice.controller;
 
-import org.springframework.security.access.prepost.PreAuthorize;
+import com.gab.authservice.config.RequiresRole;
+import com.gab.authservice.entity.Role;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -8,19 +9,19 @@ import org.springframework.web.bind.annotation.RestController;
 public class DemoController {
 
     @GetMapping("/api/demo/hello_user")
-    @PreAuthorize("hasRole('USER')")
+    @RequiresRole(Role.USER)
     public String securedHello() {
         return "You accessed a USER endpoint!";
     }
 
     @GetMapping("/api/demo/hello_admin")
-    @PreAuthorize("hasRole('ADMIN')")
+    @RequiresRole(Role.ADMIN)
     public String securedAdmin() {
         return "You accessed a ADMIN endpoint!";
     }
 
     @GetMapping("/api/demo/hello_public")
-    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @RequiresRole(Role.USER)
     public String securedPublic() {
         return "You accessed a PUBLIC endpoint!";
     }
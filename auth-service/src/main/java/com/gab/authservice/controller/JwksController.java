@@ -0,0 +1,47 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.service.JwksDocument;
+import com.gab.authservice.service.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the verification keys as a standard JWK Set so other services can verify tokens locally
+ * and select the key by the token's {@code kid}.
+ */
+@RestController
+public class JwksController {
+
+    private final JwtService jwtService;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtService jwtService, @Value("${jwt.jwks.max-age:PT5M}") Duration maxAge) {
+        this.jwtService = jwtService;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<byte[]> getJwks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        JwksDocument jwks = jwtService.getJwks();
+        if (jwks.isMatchedBy(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(jwks.etag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(jwks.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jwks.body());
+    }
+}
@@ -0,0 +1,58 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.dto.IntrospectionRequest;
+import com.gab.authservice.dto.IntrospectionResponse;
+import com.gab.authservice.exception.IntrospectionPayloadTooLargeException;
+import com.gab.authservice.service.TokenIntrospectionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/auth/introspect")
+@RequiredArgsConstructor
+public class TokenIntrospectionController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final TokenIntrospectionService introspectionService;
+
+    /**
+     * Verifies a batch of access tokens and returns one result per token, in request order.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestBody @Valid IntrospectionRequest request) {
+        return ResponseEntity.ok(new IntrospectionResponse(introspectionService.introspect(request.getTokens())));
+    }
+
+    /**
+     * Streams tokens (one per line) in and results (NDJSON, one per line, same order) out, chunk by chunk. A body over
+     * the stream limits gets {@code 413} if no result has been sent yet; otherwise the response is broken off, so the
+     * results sent cannot be taken for a complete answer.
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public void introspectStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        try {
+            introspectionService.introspect(request.getInputStream(), request.getContentLengthLong(),
+                    response.getOutputStream());
+        } catch (IntrospectionPayloadTooLargeException e) {
+            if (response.isCommitted()) {
+                // Without e as its cause, which the exception handlers would match and append their 413 body for, so
+                // the container closes the connection instead of ending the body
+                throw new IOException("Introspection stream cut off after results were sent: " + e.getMessage());
+            }
+            response.reset();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.config.RequiresRole;
+import com.gab.authservice.dto.RoleChangeRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.UserAdminService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+public class UserAdminController {
+
+    private final UserAdminService userAdminService;
+
+    @PutMapping("/{id}/role")
+    @RequiresRole(Role.ADMIN)
+    public ResponseEntity<Void> changeRole(@PathVariable UUID id, @RequestBody @Valid RoleChangeRequest request) {
+        return userAdminService.changeRole(id, request.getRole())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
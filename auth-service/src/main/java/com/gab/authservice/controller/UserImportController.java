@@ -0,0 +1,34 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.config.RequiresRole;
+import com.gab.authservice.dto.UserImportReport;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    /**
+     * Streams the request body (NDJSON or CSV, chosen by {@code Content-Type}) into the user table.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/json", "text/csv"})
+    @RequiresRole(Role.ADMIN)
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        InputStream body) {
+        return ResponseEntity.ok(userImportService.importUsers(body, UserImportService.Format.of(contentType)));
+    }
+}
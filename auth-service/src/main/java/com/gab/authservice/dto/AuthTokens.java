@@ -0,0 +1,10 @@
+package com.gab.authservice.dto;
+
+import java.time.Instant;
+
+/**
+ * The tokens handed out by login and refresh: a short-lived signed access token and an opaque, single-use refresh
+ * token.
+ */
+public record AuthTokens(String accessToken, String refreshToken, Instant refreshTokenExpiresAt) {
+}
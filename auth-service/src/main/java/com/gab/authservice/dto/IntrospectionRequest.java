@@ -0,0 +1,16 @@
+package com.gab.authservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionRequest {
+
+    @NotNull
+    private List<String> tokens;
+}
@@ -0,0 +1,9 @@
+package com.gab.authservice.dto;
+
+import java.util.List;
+
+/**
+ * One {@link TokenIntrospection} per token of the request, in the same order.
+ */
+public record IntrospectionResponse(List<TokenIntrospection> results) {
+}
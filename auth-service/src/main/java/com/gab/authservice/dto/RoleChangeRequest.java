@@ -0,0 +1,15 @@
+package com.gab.authservice.dto;
+
+import com.gab.authservice.entity.Role;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleChangeRequest {
+
+    @NotNull
+    private Role role;
+}
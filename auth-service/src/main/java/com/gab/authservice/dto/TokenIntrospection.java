@@ -0,0 +1,18 @@
+package com.gab.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gab.authservice.service.AccessTokenClaims;
+
+/**
+ * The introspection result for one access token, named after RFC 7662: whether it is {@code active} and, if so, its
+ * subject, role and expiry in epoch seconds. Inactive tokens carry nothing else, whatever the reason.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(boolean active, String sub, String role, Long exp) {
+
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+
+    public static TokenIntrospection of(AccessTokenClaims claims) {
+        return new TokenIntrospection(true, claims.subject(), claims.role(), claims.expiresAt().getEpochSecond());
+    }
+}
@@ -0,0 +1,25 @@
+package com.gab.authservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import: totals plus one entry per row that was not imported, up to
+ * {@code user-import.max-reported-issues}; {@code issuesTruncated} is set when more rows than that were skipped, and
+ * only the totals account for the rest.
+ * Line numbers are 1-based lines of the input file (for CSV, line 1 is the header).
+ */
+public record UserImportReport(long rows, long imported, long conflicts, long invalid, long failed,
+                               List<RowIssue> issues, boolean issuesTruncated) {
+
+    public enum Status {
+        /** The email is already registered, or appears earlier in the same file */
+        CONFLICT,
+        /** The row could not be parsed or is missing required fields */
+        INVALID,
+        /** Hashing or inserting the row failed */
+        FAILED
+    }
+
+    public record RowIssue(long line, String email, Status status, String reason) {
+    }
+}
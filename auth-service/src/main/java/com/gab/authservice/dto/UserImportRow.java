@@ -0,0 +1,26 @@
+package com.gab.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * One user in a bulk import file. Exactly one of {@code password} (plaintext, hashed during the import) or
+ * {@code passwordHash} (already hashed, stored as is) is expected; {@code role} defaults to {@code USER}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRow {
+
+    private String email;
+
+    private String password;
+
+    @JsonAlias("password_hash")
+    private String passwordHash;
+
+    private String role;
+}
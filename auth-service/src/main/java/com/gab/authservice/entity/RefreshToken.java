@@ -0,0 +1,73 @@
+package com.gab.authservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A refresh token, stored only as the SHA-256 digest of its value.
+ * <p>
+ * Every login starts a new family; each refresh marks the presented token as used and issues its successor in the same
+ * family. A used token that is presented again means the token was copied, so the whole family is revoked.
+ * Rows are kept until {@code expiresAt} (used ones too, for reuse detection) and then deleted in batches.
+ * </p>
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RefreshToken implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    // base64url SHA-256 of the token value; unique, so lookups by it are an index seek
+    @Column(name = "token_hash", unique = true, nullable = false, length = 43)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    // Same as User: assigned ids, so save() must be told that a new token is new to skip the merge SELECT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Builder
+    public RefreshToken(UUID id, String tokenHash, UUID familyId, User user, Instant expiresAt) {
+        this.id = id;
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.gab.authservice.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link Role} as its {@link Role#code()}: two bytes per row instead of the name, and independent of the
+ * constant's name and position.
+ */
+@Converter
+public class RoleConverter implements AttributeConverter<Role, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Role role) {
+        return role == null ? null : role.code();
+    }
+
+    @Override
+    public Role convertToEntityAttribute(Short code) {
+        return code == null ? null : Role.fromCode(code);
+    }
+}
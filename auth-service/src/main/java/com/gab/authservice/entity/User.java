@@ -0,0 +1,72 @@
+package com.gab.authservice.entity;
+
+import com.gab.authservice.service.TokenSubject;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "users", indexes = {
+        // The login lookup; see db/migration
+        @Index(name = "ux_users_email_normalized", columnList = "email_normalized", unique = true)
+})
+
+// Lombok annotations. no need to write constructor, getters, setters. 
+@Getter
+@Setter
+@NoArgsConstructor
+
+public class User implements Persistable<UUID>, TokenSubject {
+
+    @Id
+    private UUID id;
+
+    // As entered at signup, for display; lookups and uniqueness use emailNormalized
+    @Column(nullable = false)
+    private String email;
+
+    // TokenSubject.normalizeEmail(email), kept in step by the constructor and setEmail
+    @Column(name = "email_normalized", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private String emailNormalized;
+
+    @Column(nullable = false)
+    private String password;
+
+    @Convert(converter = RoleConverter.class)
+    @Column(nullable = false)
+    private Role role;
+
+    // The id is assigned by the application, so Spring Data cannot tell new users from existing ones by a null id.
+    // Without this flag save() would merge, which SELECTs by id before the INSERT.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Builder
+    public User(UUID id, String email, String password, Role role) {
+        this.id = id;
+        setEmail(email);
+        this.password = password;
+        this.role = role;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalized = TokenSubject.normalizeEmail(email);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
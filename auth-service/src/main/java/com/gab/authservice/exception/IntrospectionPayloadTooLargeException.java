@@ -0,0 +1,12 @@
+package com.gab.authservice.exception;
+
+/**
+ * Thrown when a streamed introspection body has more tokens or bytes than {@code introspection.max-stream-tokens} or
+ * {@code introspection.max-stream-bytes}. Mapped to {@code 413 Content Too Large}.
+ */
+public class IntrospectionPayloadTooLargeException extends RuntimeException {
+
+    public IntrospectionPayloadTooLargeException(String message) {
+        super(message);
+    }
+}
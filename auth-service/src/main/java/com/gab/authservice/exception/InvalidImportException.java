@@ -0,0 +1,12 @@
+package com.gab.authservice.exception;
+
+/**
+ * Thrown when a bulk import cannot be processed at all (unsupported content type, missing CSV header).
+ * Problems with individual rows are reported per row instead. Mapped to {@code 400 Bad Request}.
+ */
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
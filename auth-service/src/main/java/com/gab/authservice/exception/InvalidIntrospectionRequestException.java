@@ -0,0 +1,12 @@
+package com.gab.authservice.exception;
+
+/**
+ * Thrown when a batch introspection request cannot be processed (too many tokens for one batch).
+ * Tokens that fail verification are reported as inactive instead. Mapped to {@code 400 Bad Request}.
+ */
+public class InvalidIntrospectionRequestException extends RuntimeException {
+
+    public InvalidIntrospectionRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gab.authservice.exception;
+
+/**
+ * Thrown when a refresh token is missing, unknown, expired or was already used. Mapped to {@code 401 Unauthorized}.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
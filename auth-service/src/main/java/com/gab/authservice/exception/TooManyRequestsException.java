@@ -0,0 +1,20 @@
+package com.gab.authservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a caller exceeds a rate limit (e.g. login attempts per email or per client address).
+ * Mapped to {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,34 @@
+package com.gab.authservice.repository;
+
+import com.gab.authservice.entity.RefreshToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    // Token and user in one query: the refresh path needs the user's email and role for the new access token
+    @Query("select t from RefreshToken t join fetch t.user where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(String tokenHash);
+
+    // Compare-and-set: returns 0 if the token was already used, including by a concurrent refresh
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :usedAt where t.id = :id and t.usedAt is null")
+    int markUsed(UUID id, Instant usedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteByFamilyId(UUID familyId);
+
+    @Query("select t.id from RefreshToken t where t.expiresAt < :now")
+    List<UUID> findExpiredIds(Instant now, Limit limit);
+}
@@ -0,0 +1,22 @@
+package com.gab.authservice.repository;
+
+import com.gab.authservice.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Incremental poll: only rows recorded since the last one seen, and only those still worth remembering
+    @Query("select t from RevokedToken t where t.revokedAt >= :since and t.expiresAt > :now order by t.revokedAt")
+    List<RevokedToken> findRevokedSince(Instant since, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
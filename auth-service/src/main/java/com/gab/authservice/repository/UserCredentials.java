@@ -0,0 +1,12 @@
+package com.gab.authservice.repository;
+
+import com.gab.authservice.entity.Role;
+
+import java.util.UUID;
+
+/**
+ * What a login reads of a user: the columns included in {@code ux_users_email_normalized}, so the lookup never touches
+ * the table.
+ */
+public record UserCredentials(UUID id, String password, Role role) {
+}
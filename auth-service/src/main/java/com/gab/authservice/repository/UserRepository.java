@@ -0,0 +1,48 @@
+package com.gab.authservice.repository;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.service.TokenSubject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface UserRepository extends JpaRepository<User, UUID> {
+
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    /**
+     * The login lookup through {@code ux_users_email_normalized}: only the columns a login needs, not the whole row.
+     */
+    @Query("select new com.gab.authservice.repository.UserCredentials(u.id, u.password, u.role) "
+            + "from User u where u.emailNormalized = :emailNormalized")
+    Optional<UserCredentials> findCredentialsByEmailNormalized(String emailNormalized);
+
+    /**
+     * The user with this email in any case or surrounding whitespace.
+     */
+    default Optional<User> findByEmail(String email) {
+        return findByEmailNormalized(TokenSubject.normalizeEmail(email));
+    }
+
+    default boolean existsByEmail(String email) {
+        return existsByEmailNormalized(TokenSubject.normalizeEmail(email));
+    }
+
+    // Targeted updates: no load-then-merge, and the caller knows which cached user to invalidate afterwards
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(UUID id, String password);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.role = :role where u.id = :id")
+    int updateRole(UUID id, Role role);
+}
@@ -0,0 +1,44 @@
+package com.gab.authservice.service;
+
+import java.time.Instant;
+
+/**
+ * One entry of the audit trail. Every event has the same shape whatever its type, so the writer can batch them into
+ * one table or file: {@code subject} is who the event is about, {@code clientAddress} where the request came from, and
+ * {@code reason} one of a fixed set of values per type. Any of the three may be null. The subject of a login or signup
+ * is the normalized email; that of a rejected token is the token's own subject, which is the normalized email for the
+ * standard {@code TokenProfile} and the user id for the compact and CWT ones.
+ * <p>
+ * Subject and address come from the request and are cut to the size of their {@code audit_events} columns, so an
+ * oversized value cannot make the writer's batch fail.
+ * </p>
+ */
+public record AuditEvent(Instant occurredAt, Type type, String subject, String clientAddress, String reason) {
+
+    static final int MAX_SUBJECT_LENGTH = 255;
+    static final int MAX_ADDRESS_LENGTH = 64;
+
+    public enum Type {
+        LOGIN_SUCCESS,
+        /** Reasons: {@code unknown_user}, {@code bad_password}, {@code overloaded} (the hashing pool was full). */
+        LOGIN_FAILURE,
+        SIGNUP,
+        /** Reason: {@code email_taken}. */
+        SIGNUP_REJECTED,
+        /** A bearer token that {@code JwtAuthFilter} did not accept. Reasons: {@code invalid}, {@code unknown_role}. */
+        TOKEN_REJECTED
+    }
+
+    public AuditEvent {
+        subject = truncate(subject, MAX_SUBJECT_LENGTH);
+        clientAddress = truncate(clientAddress, MAX_ADDRESS_LENGTH);
+    }
+
+    public static AuditEvent of(Type type, String subject, String clientAddress, String reason) {
+        return new AuditEvent(Instant.now(), type, subject, clientAddress, reason);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
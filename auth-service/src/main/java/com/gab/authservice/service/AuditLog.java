@@ -0,0 +1,185 @@
+package com.gab.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of logins, signups and rejected access tokens, kept off the request path.
+ * <p>
+ * Request threads {@link #publish} fixed-shape {@link AuditEvent}s into a bounded, lock-free
+ * {@link AuditRingBuffer} of {@code audit.buffer-capacity} events and return at once. A single writer thread drains the
+ * buffer in batches of up to {@code audit.batch-size} events and hands each batch to the {@link AuditSink}. After a
+ * batch that did not fill up it waits {@code audit.flush-interval}, so a quiet service writes one small batch per
+ * interval and a busy one writes full batches back to back; an event reaches the sink within about one interval plus
+ * one write.
+ * </p>
+ * <p>
+ * When the buffer is full (the sink is slower than the traffic, or failing), {@code audit.overflow} decides:
+ * {@code drop} (the default) discards the event, and {@code block} makes the request thread wait up to
+ * {@code audit.block-timeout} for room, then discards it. Either way a request never fails because of auditing.
+ * A batch the sink rejects is logged and discarded, not retried. On shutdown the writer drains what is left.
+ * </p>
+ * Metrics: {@code audit.events.published{result=accepted|dropped}},
+ * {@code audit.events.written{result=success|failure}}, {@code audit.write} (time per batch) and
+ * {@code audit.buffer.depth}.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    public enum Overflow {
+        DROP, BLOCK
+    }
+
+    private final AuditSink sink;
+    private final boolean enabled;
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Overflow overflow;
+    private final long blockTimeoutNanos;
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer writeTimer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(AuditSink sink,
+                    @Value("${audit.enabled:true}") boolean enabled,
+                    @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+                    @Value("${audit.batch-size:500}") int batchSize,
+                    @Value("${audit.flush-interval:PT0.2S}") Duration flushInterval,
+                    @Value("${audit.overflow:drop}") String overflow,
+                    @Value("${audit.block-timeout:PT0.05S}") Duration blockTimeout,
+                    MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.enabled = enabled;
+        this.buffer = new AuditRingBuffer(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflow = Overflow.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.accepted = eventCounter(meterRegistry, "audit.events.published", "accepted",
+                "Audit events taken into the buffer or dropped because it was full");
+        this.dropped = eventCounter(meterRegistry, "audit.events.published", "dropped",
+                "Audit events taken into the buffer or dropped because it was full");
+        this.written = eventCounter(meterRegistry, "audit.events.written", "success",
+                "Audit events handed to the sink, by outcome");
+        this.failed = eventCounter(meterRegistry, "audit.events.written", "failure",
+                "Audit events handed to the sink, by outcome");
+        this.writeTimer = Timer.builder("audit.write")
+                .description("Time to write one batch of audit events to the sink")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+        this.writer = new Thread(this::drainLoop, "audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Queues the event for the writer. Never throws and, unless {@code audit.overflow=block}, never waits.
+     */
+    public void publish(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (buffer.offer(event) || (overflow == Overflow.BLOCK && offerWithin(event, blockTimeoutNanos))) {
+            accepted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public void publish(AuditEvent.Type type, String subject, String clientAddress, String reason) {
+        if (enabled) {
+            publish(AuditEvent.of(type, subject, clientAddress, reason));
+        }
+    }
+
+    /**
+     * Stops the writer after it has written everything published so far.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // Read before draining, so events published before stop() are still written
+            boolean stopping = !running;
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                write(batch);
+                batch.clear();
+            }
+            if (drained < batchSize) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            sink.write(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Could not write {} audit events, discarding them", batch.size(), e);
+        } finally {
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Backs off briefly between attempts; room appears when the writer takes its next batch
+    private boolean offerWithin(AuditEvent event, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(event)) {
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String name, String result, String description) {
+        return Counter.builder(name)
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
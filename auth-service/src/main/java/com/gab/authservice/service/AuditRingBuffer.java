@@ -0,0 +1,99 @@
+package com.gab.authservice.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded queue of audit events with many producers (request threads) and a single consumer (the audit writer).
+ * <p>
+ * A ring of slots, each with a sequence number that says whose turn it is: a producer claims the next position with
+ * one compare-and-set on the tail, fills the slot and publishes it by advancing the slot's sequence; the consumer takes
+ * published slots in order and hands them back by advancing the sequence a lap further. Producers never wait for each
+ * other or for the consumer, and {@link #offer} fails at once when the ring is full, leaving what to do then to the
+ * caller. Nothing is allocated per event beyond the event itself.
+ * </p>
+ * Only one thread may call {@link #drainTo}.
+ */
+final class AuditRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> slots;
+    // Slot i holds position p when its sequence is p + 1 (published), and is free for position p when it is p
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only; volatile so size() can be read from elsewhere
+    private volatile long head;
+
+    /**
+     * @param capacity slots, rounded up to a power of two
+     */
+    AuditRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the event, or returns false without waiting if the ring is full.
+     */
+    boolean offer(AuditEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the event from a lap ago: the consumer is a whole ring behind
+                return false;
+            } else {
+                // Another producer took this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} published events, oldest first, into {@code batch} and returns how many.
+     */
+    int drainTo(List<AuditEvent> batch, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // Empty, or claimed by a producer that has not published it yet
+                break;
+            }
+            batch.add(slots.get(index));
+            slots.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Events waiting for the consumer, approximately (for the depth gauge).
+     */
+    int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,16 @@
+package com.gab.authservice.service;
+
+import java.util.List;
+
+/**
+ * Where {@link AuditLog}'s writer puts the audit trail: the {@code audit_events} table ({@link JdbcAuditSink},
+ * {@code audit.sink=jdbc}) or an append-only, rotating file ({@link FileAuditSink}, {@code audit.sink=file}).
+ * <p>
+ * Only ever called from the writer thread, one batch at a time, so implementations need no locking. A batch that
+ * throws is counted as lost and not retried.
+ * </p>
+ */
+public interface AuditSink {
+
+    void write(List<AuditEvent> batch);
+}
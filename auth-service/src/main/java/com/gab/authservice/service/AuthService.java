@@ -0,0 +1,197 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserRepository;
+import com.gab.authservice.exception.EmailAlreadyExistsException;
+import com.gab.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Signup, login and session renewal.
+ * <p>
+ * Login outcomes are counted in {@code auth.login{result}} with {@code result} one of {@code success},
+ * {@code unknown_user}, {@code bad_password} or {@code overloaded} (the hashing pool was full). Attempts rejected by the
+ * rate limiter never get here and are counted in {@code login.rate.limit}.
+ * </p>
+ * Every login and signup outcome is also recorded in the {@link AuditLog}, with the normalized email as subject.
+ */
+@Slf4j
+@Service
+public class AuthService {
+
+    // SQLState of a unique constraint violation, the same on PostgreSQL and H2
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenService refreshTokenService;
+    private final UserCache userCache;
+    private final AuditLog auditLog;
+    private final Counter loginSuccess;
+    private final Counter loginUnknownUser;
+    private final Counter loginBadPassword;
+    private final Counter loginOverloaded;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService,
+                       TokenRevocationList tokenRevocationList, RefreshTokenService refreshTokenService,
+                       UserCache userCache, AuditLog auditLog, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.refreshTokenService = refreshTokenService;
+        this.userCache = userCache;
+        this.auditLog = auditLog;
+        this.loginSuccess = loginCounter(meterRegistry, "success");
+        this.loginUnknownUser = loginCounter(meterRegistry, "unknown_user");
+        this.loginBadPassword = loginCounter(meterRegistry, "bad_password");
+        this.loginOverloaded = loginCounter(meterRegistry, "overloaded");
+    }
+
+    /**
+     * Creates the user with a single INSERT. There is no existence check up front: the unique index on
+     * {@code users.email_normalized} decides, which also closes the race between two concurrent signups for the same
+     * address, in whatever case either was typed.
+     *
+     * @param clientAddress where the request came from, for the audit trail; null if unknown
+     */
+    public void signup(SignupRequest request, String clientAddress) {
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email(request.getEmail())
+                .password(passwordEncoder.encode(request.getPassword()))
+                .role(Role.USER)
+                .build();
+
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                auditLog.publish(AuditEvent.Type.SIGNUP_REJECTED, user.getEmailNormalized(), clientAddress,
+                        "email_taken");
+                throw new EmailAlreadyExistsException();
+            }
+            throw e;
+        }
+        userCache.invalidate(user.getEmail());
+        auditLog.publish(AuditEvent.Type.SIGNUP, user.getEmailNormalized(), clientAddress, null);
+    }
+
+    public void signup(SignupRequest request) {
+        signup(request, null);
+    }
+
+    /**
+     * Checks the password and starts a session: a short-lived access token plus a refresh token that renews it
+     * without the password.
+     *
+     * @param clientAddress where the request came from, for the audit trail; null if unknown
+     */
+    public AuthTokens login(LoginRequest request, String clientAddress) {
+        User user = userCache.findByEmail(request.getEmail()).orElse(null);
+        if (user == null) {
+            loginUnknownUser.increment();
+            auditLog.publish(AuditEvent.Type.LOGIN_FAILURE, TokenSubject.normalizeEmail(request.getEmail()),
+                    clientAddress, "unknown_user");
+            throw new RuntimeException("User not found");
+        }
+
+        if (!matches(request.getPassword(), user, clientAddress)) {
+            loginBadPassword.increment();
+            auditLog.publish(AuditEvent.Type.LOGIN_FAILURE, user.getEmailNormalized(), clientAddress, "bad_password");
+            throw new RuntimeException("Invalid password");
+        }
+        loginSuccess.increment();
+        auditLog.publish(AuditEvent.Type.LOGIN_SUCCESS, user.getEmailNormalized(), clientAddress, null);
+
+        rehashIfOutdated(user, request.getPassword());
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.issue(user);
+        return new AuthTokens(jwtService.generateToken(user), refreshToken.token(), refreshToken.expiresAt());
+    }
+
+    public AuthTokens login(LoginRequest request) {
+        return login(request, null);
+    }
+
+    /**
+     * Renews a session: rotates the refresh token and signs a new access token. No password hash is involved.
+     */
+    public AuthTokens refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        return new AuthTokens(jwtService.generateToken(rotation.user()), rotation.refreshToken().token(),
+                rotation.refreshToken().expiresAt());
+    }
+
+    /**
+     * Ends the session the refresh token belongs to and revokes the presented access token until it expires. Either
+     * may be null; an access token that is invalid, already revoked or has no {@code jti} is ignored. Other access
+     * tokens already issued for the session stay valid until they expire.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (accessToken != null) {
+            jwtService.verify(accessToken)
+                    .filter(claims -> claims.tokenId() != null && claims.expiresAt() != null)
+                    .ifPresent(claims -> tokenRevocationList.revoke(claims.tokenId(), claims.expiresAt()));
+        }
+    }
+
+    private boolean matches(String rawPassword, User user, String clientAddress) {
+        try {
+            return passwordEncoder.matches(rawPassword, user.getPassword());
+        } catch (ServiceOverloadedException e) {
+            loginOverloaded.increment();
+            auditLog.publish(AuditEvent.Type.LOGIN_FAILURE, user.getEmailNormalized(), clientAddress, "overloaded");
+            throw e;
+        }
+    }
+
+    /**
+     * Re-hashes the password with the current algorithm and cost if the stored hash was made with older parameters.
+     * The raw password is only available at login, so this is the one place an upgrade can happen. A failed upgrade
+     * (e.g. the hashing pool is saturated) does not fail the login; it is retried on the next one.
+     */
+    private void rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.updatePassword(user.getId(), user.getPassword());
+            userCache.invalidate(user.getEmail());
+        } catch (ServiceOverloadedException e) {
+            log.debug("Skipping password re-hash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private static Counter loginCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.login")
+                .tag("result", result)
+                .description("Login attempts past the rate limiter, by outcome")
+                .register(meterRegistry);
+    }
+
+    // Ids are random UUIDs, so in practice the only unique constraint an insert can hit is the one on email.
+    // Hibernate's PostgreSQL dialect leaves the kind OTHER, hence also the standard unique_violation SQLState
+    private static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && (violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                || UNIQUE_VIOLATION.equals(violation.getSQLState()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.gab.authservice.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends audit batches to a file, one JSON object per line, e.g.
+ * {@code {"occurredAt":"2026-01-01T12:00:00Z","type":"LOGIN_FAILURE","subject":"a@example.com",
+ * "clientAddress":"10.0.0.1","reason":"bad_password"}}, with null fields left out.
+ * <p>
+ * Each batch is one write. When the next batch would take the file past {@code audit.file.max-size}, the file is
+ * rotated first: {@code audit.ndjson} becomes {@code audit.ndjson.1}, {@code .1} becomes {@code .2} and so on, and
+ * the oldest beyond {@code audit.file.max-files} is deleted. Writes are not forced to disk, so the last batches can be
+ * lost if the machine (not just the JVM) goes down.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "file")
+public class FileAuditSink implements AuditSink {
+
+    private final Path path;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final StringBuilder lines = new StringBuilder();
+    private FileChannel channel;
+    private long size;
+
+    public FileAuditSink(@Value("${audit.file.path:logs/audit.ndjson}") Path path,
+                         @Value("${audit.file.max-size:100MB}") DataSize maxSize,
+                         @Value("${audit.file.max-files:10}") int maxFiles) {
+        this.path = path;
+        this.maxBytes = maxSize.toBytes();
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) {
+        lines.setLength(0);
+        for (AuditEvent event : batch) {
+            appendLine(event);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            if (channel == null) {
+                open();
+            }
+            if (size > 0 && size + bytes.remaining() > maxBytes) {
+                rotate();
+            }
+            while (bytes.hasRemaining()) {
+                size += channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write audit events to " + path, e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void appendLine(AuditEvent event) {
+        lines.append("{\"occurredAt\":\"").append(event.occurredAt())
+                .append("\",\"type\":\"").append(event.type().name()).append('"');
+        appendField("subject", event.subject());
+        appendField("clientAddress", event.clientAddress());
+        appendField("reason", event.reason());
+        lines.append("}\n");
+    }
+
+    private void appendField(String name, String value) {
+        if (value != null) {
+            lines.append(",\"").append(name).append("\":\"");
+            JsonStringEncoder.getInstance().quoteAsString(value, lines);
+            lines.append('"');
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+        open();
+    }
+
+    private Path rotated(int generation) {
+        return path.resolveSibling(path.getFileName() + "." + generation);
+    }
+}
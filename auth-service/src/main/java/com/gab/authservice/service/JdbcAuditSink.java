@@ -0,0 +1,77 @@
+package com.gab.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Appends audit batches to the {@code audit_events} table with one JDBC batch insert each. Every batch runs in a
+ * transaction of its own, so the database commits once per batch rather than once per row, and never in a transaction
+ * of the request that produced the events. Rows older than {@code audit.jdbc.retention} are deleted by a scheduled job,
+ * {@code audit.jdbc.cleanup-batch-size} rows per statement.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.sink", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_events (occurred_at, type, subject, client_address, reason) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM audit_events WHERE id IN "
+            + "(SELECT id FROM audit_events WHERE occurred_at < ? ORDER BY occurred_at LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int cleanupBatchSize;
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         @Value("${audit.jdbc.retention:P90D}") Duration retention,
+                         @Value("${audit.jdbc.cleanup-batch-size:10000}") int cleanupBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+                    statement.setObject(1, event.occurredAt().atOffset(ZoneOffset.UTC));
+                    statement.setString(2, event.type().name());
+                    statement.setString(3, event.subject());
+                    statement.setString(4, event.clientAddress());
+                    statement.setString(5, event.reason());
+                }));
+    }
+
+    /**
+     * Deletes events older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${audit.jdbc.cleanup-interval:PT1H}",
+            initialDelayString = "${audit.jdbc.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        OffsetDateTime cutoff = Instant.now().minus(retention).atOffset(ZoneOffset.UTC);
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update(DELETE_SQL, cutoff, cleanupBatchSize);
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+        if (deleted > 0) {
+            log.debug("Deleted {} audit events older than {}", deleted, retention);
+        }
+    }
+}
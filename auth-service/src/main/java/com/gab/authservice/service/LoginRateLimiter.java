@@ -0,0 +1,99 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits login attempts per email and per client address before any database lookup or password check.
+ * <p>
+ * Attempts are counted over a sliding {@code login-rate-limit.window} in two fixed-size {@link SlidingWindowSketch}es,
+ * so memory stays constant however many distinct emails or addresses an attacker cycles through. Counts are
+ * approximate: hash collisions can only over-count, making a key hit its limit slightly early, never late.
+ * Every attempt counts, successful or not, since the outcome is not known yet. The address is checked first, and an
+ * attempt rejected for its address does not count against the email, so one address can add at most
+ * {@code per-address} attempts per window to the email sketch. Emails are counted in the form login looks them up in
+ * ({@link TokenSubject#normalizeEmail}), so every spelling that reaches an account shares that account's count.
+ * </p>
+ * Metrics: {@code login.rate.limit{result=allowed|rejected, key=none|email|address}} and
+ * {@code login.rate.limit.memory} (bytes held by the sketches).
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final int perEmail;
+    private final int perAddress;
+    private final SlidingWindowSketch emails;
+    private final SlidingWindowSketch addresses;
+    private final Counter allowed;
+    private final Counter rejectedByEmail;
+    private final Counter rejectedByAddress;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login-rate-limit.window:PT1M}") Duration window,
+                            @Value("${login-rate-limit.per-email:10}") int perEmail,
+                            @Value("${login-rate-limit.per-address:100}") int perAddress,
+                            @Value("${login-rate-limit.sketch-width:65536}") int sketchWidth,
+                            MeterRegistry meterRegistry) {
+        this(enabled, window, perEmail, perAddress, sketchWidth, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, Duration window, int perEmail, int perAddress, int sketchWidth,
+                     MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.perEmail = perEmail;
+        this.perAddress = perAddress;
+        this.emails = new SlidingWindowSketch(sketchWidth, window.toNanos(), nanoClock);
+        this.addresses = new SlidingWindowSketch(sketchWidth, window.toNanos(), nanoClock);
+        this.allowed = counter(meterRegistry, "allowed", "none");
+        this.rejectedByEmail = counter(meterRegistry, "rejected", "email");
+        this.rejectedByAddress = counter(meterRegistry, "rejected", "address");
+        Gauge.builder("login.rate.limit.memory", () -> emails.sizeInBytes() + addresses.sizeInBytes())
+                .baseUnit("bytes")
+                .description("Memory held by the login rate limiter's counting sketches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a login attempt.
+     *
+     * @throws TooManyRequestsException if the email or the client address is over its limit
+     */
+    public void acquire(String email, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        if (clientAddress != null && addresses.incrementAndEstimate(clientAddress) > perAddress) {
+            rejectedByAddress.increment();
+            throw new TooManyRequestsException("Too many login attempts from this address", retryAfter(addresses));
+        }
+        // Only attempts the address limit let through reach the email sketch: otherwise one address spraying random
+        // emails would fill every counter and lock out all accounts
+        if (email != null && emails.incrementAndEstimate(TokenSubject.normalizeEmail(email)) > perEmail) {
+            rejectedByEmail.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account", retryAfter(emails));
+        }
+        allowed.increment();
+    }
+
+    private static Duration retryAfter(SlidingWindowSketch sketch) {
+        return Duration.ofNanos(sketch.nanosUntilNextWindow());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String key) {
+        return Counter.builder("login.rate.limit")
+                .tag("result", result)
+                .tag("key", key)
+                .description("Login attempts checked by the rate limiter")
+                .register(meterRegistry);
+    }
+}
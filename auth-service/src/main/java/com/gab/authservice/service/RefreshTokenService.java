@@ -0,0 +1,178 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.RefreshToken;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.InvalidRefreshTokenException;
+import com.gab.authservice.repository.RefreshTokenRepository;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * A token is 256 random bits, so it is stored as a plain SHA-256 digest: there is nothing to brute-force that a slow
+ * password hash would protect. Renewing a session therefore costs one indexed lookup (token and user together),
+ * a conditional update marking the token used, the insert of its successor and one access-token signature, instead of
+ * a password hash.
+ * </p>
+ * Presenting a token that was already used revokes its whole family (every token descending from the same login):
+ * either the client or an attacker holds a stale copy, and there is no telling which. This includes two concurrent
+ * refreshes with the same token.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final int cleanupBatchSize;
+    private final Counter rotated;
+    private final Counter reused;
+    private final Counter rejected;
+    private final Counter cleanedUp;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${refresh-token.ttl:P30D}") Duration ttl,
+                               @Value("${refresh-token.cleanup.batch-size:1000}") int cleanupBatchSize,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.rotated = rotationCounter(meterRegistry, "rotated");
+        this.reused = rotationCounter(meterRegistry, "reused");
+        this.rejected = rotationCounter(meterRegistry, "rejected");
+        this.cleanedUp = Counter.builder("refresh.token.cleanup.deleted")
+                .description("Expired refresh tokens deleted by the cleanup job")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a new token family for {@code user}, e.g. after a password login. {@code user} may be detached, such as
+     * the copy a {@link UserCache} hit returns: only its id is used, so issuing is the token's INSERT alone.
+     */
+    @Transactional
+    public IssuedRefreshToken issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges {@code token} for its successor in the same family.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired or already used (the family is then revoked)
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(digest(token))
+                .orElseThrow(() -> reject("Unknown refresh token"));
+        Instant now = Instant.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw reject("Refresh token expired");
+        }
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            reused.increment();
+            log.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                    current.getUser().getId(), revoked, current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        rotated.increment();
+        return new Rotation(current.getUser(), issue(current.getUser(), current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the family {@code token} belongs to (logout). Unknown tokens are ignored.
+     */
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHashWithUser(digest(token))
+                .ifPresent(current -> refreshTokenRepository.deleteByFamilyId(current.getFamilyId()));
+    }
+
+    /**
+     * Deletes expired tokens {@code refresh-token.cleanup.batch-size} rows at a time, each batch in its own short
+     * transaction, so a large backlog never holds locks on the whole table.
+     */
+    @Scheduled(fixedDelayString = "${refresh-token.cleanup.interval:PT1H}",
+            initialDelayString = "${refresh-token.cleanup.interval:PT1H}")
+    public void deleteExpired() {
+        Instant now = Instant.now();
+        long deleted = 0;
+        List<UUID> expired;
+        do {
+            expired = refreshTokenRepository.findExpiredIds(now, Limit.of(cleanupBatchSize));
+            if (!expired.isEmpty()) {
+                refreshTokenRepository.deleteAllByIdInBatch(expired);
+                deleted += expired.size();
+            }
+        } while (expired.size() == cleanupBatchSize);
+        cleanedUp.increment(deleted);
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private IssuedRefreshToken issue(User user, UUID familyId) {
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        String token = BASE64URL.encodeToString(random);
+        Instant expiresAt = Instant.now().plus(ttl);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(UUID.randomUUID())
+                .tokenHash(digest(token))
+                .familyId(familyId)
+                // A reference, not the instance: Hibernate would SELECT a detached user to tell whether it is transient
+                .user(userRepository.getReferenceById(user.getId()))
+                .expiresAt(expiresAt)
+                .build());
+        return new IssuedRefreshToken(token, expiresAt);
+    }
+
+    private InvalidRefreshTokenException reject(String message) {
+        rejected.increment();
+        return new InvalidRefreshTokenException(message);
+    }
+
+    private static String digest(String token) {
+        try {
+            return BASE64URL.encodeToString(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Counter rotationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("refresh.token.rotations")
+                .tag("result", result)
+                .description("Refresh token exchanges")
+                .register(meterRegistry);
+    }
+
+    public record IssuedRefreshToken(String token, Instant expiresAt) {
+    }
+
+    public record Rotation(User user, IssuedRefreshToken refreshToken) {
+    }
+}
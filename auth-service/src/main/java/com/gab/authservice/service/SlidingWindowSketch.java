@@ -0,0 +1,143 @@
+package com.gab.authservice.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counter over a sliding time window, in fixed memory.
+ * <p>
+ * Each window is a count-min sketch: four rows of {@code width} counters, a key increments one counter per row
+ * and its count is the smallest of them. Collisions can only over-count, never under-count; with conservative updates
+ * the over-count stays small until the number of events per window approaches the number of counters. Two windows are kept,
+ * current and previous, and the estimate weights the previous window by how much of it still overlaps the sliding
+ * window. Memory is {@code 2 * 4 * width} ints regardless of how many distinct keys are seen, so an attacker
+ * cycling through random emails or addresses cannot grow it.
+ * </p>
+ * Updates are lock-free (atomic increments) and allocation-free. Keys are hashed exactly as given, with a per-process
+ * random seed so colliding keys cannot be precomputed offline; callers normalize them first.
+ */
+final class SlidingWindowSketch {
+
+    private static final int DEPTH = 4;
+
+    private final int mask;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final long seed = new SecureRandom().nextLong();
+    private final AtomicIntegerArray[] windows = {null, null};
+    private final AtomicLongArray windowEpochs = new AtomicLongArray(new long[]{Long.MIN_VALUE, Long.MIN_VALUE});
+    private final AtomicLong currentEpoch = new AtomicLong(-1);
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    SlidingWindowSketch(int width, long windowNanos, LongSupplier nanoClock) {
+        int size = width <= 2 ? 2 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = size - 1;
+        this.windowNanos = windowNanos;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.windows[0] = new AtomicIntegerArray(DEPTH * size);
+        this.windows[1] = new AtomicIntegerArray(DEPTH * size);
+    }
+
+    /**
+     * Records one event for {@code key} and returns the estimated number of events for it in the last window,
+     * including this one.
+     */
+    double incrementAndEstimate(CharSequence key) {
+        long epoch = advance();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        AtomicIntegerArray current = windows[(int) (epoch & 1)];
+        AtomicIntegerArray previous = windowEpochs.get((int) ((epoch - 1) & 1)) == epoch - 1
+                ? windows[(int) ((epoch - 1) & 1)]
+                : null;
+        int rowSize = mask + 1;
+        int currentCount = Integer.MAX_VALUE;
+        int previousCount = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * rowSize + ((h1 + row * h2) & mask);
+            currentCount = Math.min(currentCount, current.get(index));
+            if (previous != null) {
+                previousCount = Math.min(previousCount, previous.get(index));
+            }
+        }
+        // Conservative update: only raise counters that are below the key's new count. Counters shared with heavier keys
+        // are left alone, which keeps collision noise far lower than incrementing every row
+        currentCount++;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * rowSize + ((h1 + row * h2) & mask);
+            int value;
+            while ((value = current.get(index)) < currentCount && !current.compareAndSet(index, value, currentCount)) {
+                // lost a race with another update of this counter, re-read
+            }
+        }
+        if (previous == null) {
+            return currentCount;
+        }
+        double elapsed = (double) ((nanoClock.getAsLong() - origin) % windowNanos) / windowNanos;
+        return currentCount + previousCount * (1 - elapsed);
+    }
+
+    /**
+     * Nanoseconds until the current window ends.
+     */
+    long nanosUntilNextWindow() {
+        return windowNanos - (nanoClock.getAsLong() - origin) % windowNanos;
+    }
+
+    /**
+     * Bytes held by the counters.
+     */
+    long sizeInBytes() {
+        return 2L * DEPTH * (mask + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Moves to the window containing "now", clearing the slot that gets reused. Only the thread that wins the epoch CAS
+     * clears; increments racing with the clear may be lost, which only makes the limiter more lenient for an instant.
+     */
+    private long advance() {
+        long epoch = (nanoClock.getAsLong() - origin) / windowNanos;
+        long seen = currentEpoch.get();
+        if (epoch > seen && currentEpoch.compareAndSet(seen, epoch)) {
+            int slot = (int) (epoch & 1);
+            clear(windows[slot]);
+            windowEpochs.set(slot, epoch);
+            if (epoch - seen > 1) {
+                // The previous window had no traffic at all
+                clear(windows[slot ^ 1]);
+                windowEpochs.set(slot ^ 1, epoch - 1);
+            }
+        }
+        return Math.max(epoch, currentEpoch.get());
+    }
+
+    private static void clear(AtomicIntegerArray counters) {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.lazySet(i, 0);
+        }
+    }
+
+    private long hash(CharSequence key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        // MurmurHash3 finalizer
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
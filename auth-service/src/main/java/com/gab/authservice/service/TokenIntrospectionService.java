@@ -0,0 +1,249 @@
+package com.gab.authservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gab.authservice.dto.TokenIntrospection;
+import com.gab.authservice.exception.IntrospectionPayloadTooLargeException;
+import com.gab.authservice.exception.InvalidIntrospectionRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch introspection of access tokens for API gateways, so a gateway can check many tokens in one round trip
+ * instead of one call each.
+ * <p>
+ * Identical tokens in a batch are verified once. The distinct tokens are split into one chunk per
+ * {@code introspection.threads} (at least {@value #MIN_TOKENS_PER_TASK} tokens each) and verified in parallel through
+ * {@link JwtService#verify}, so the verified-claims cache, revocation checks and metrics behave as for single tokens.
+ * The calling thread verifies the first chunk itself; if the pool's queue is full it verifies the others too, so a
+ * busy pool slows batches down but never rejects them. Small batches never leave the calling thread.
+ * </p>
+ * A stream is bounded by {@code introspection.max-stream-tokens} lines and {@code introspection.max-stream-bytes},
+ * so one request cannot keep the verifiers busy indefinitely.
+ */
+@Service
+public class TokenIntrospectionService {
+
+    // Below this, handing a chunk to another thread costs about as much as verifying it (cached tokens take ~2 us)
+    static final int MIN_TOKENS_PER_TASK = 32;
+
+    private final JwtService jwtService;
+    private final int maxBatchSize;
+    private final int streamChunkSize;
+    private final int maxStreamTokens;
+    private final long maxStreamBytes;
+    private final int threads;
+    private final ThreadPoolExecutor verifiers;
+    private final ObjectWriter ndjsonWriter = new ObjectMapper().writerFor(TokenIntrospection.class);
+    private final DistributionSummary batchSize;
+    private final Counter duplicates;
+
+    public TokenIntrospectionService(JwtService jwtService,
+                                     @Value("${introspection.max-batch-size:1000}") int maxBatchSize,
+                                     @Value("${introspection.stream-chunk-size:1000}") int streamChunkSize,
+                                     @Value("${introspection.max-stream-tokens:100000}") int maxStreamTokens,
+                                     @Value("${introspection.max-stream-bytes:64MB}") DataSize maxStreamBytes,
+                                     @Value("${introspection.threads:0}") int threads,
+                                     MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.maxBatchSize = maxBatchSize;
+        this.streamChunkSize = streamChunkSize;
+        this.maxStreamTokens = maxStreamTokens;
+        this.maxStreamBytes = maxStreamBytes.toBytes();
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.verifiers = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.threads * 4), namedDaemonThreads(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.batchSize = DistributionSummary.builder("token.introspection.batch.size")
+                .description("Tokens per introspection batch or stream chunk, duplicates included")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("token.introspection.duplicates")
+                .description("Tokens answered from an identical token earlier in the same batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Introspects up to {@code introspection.max-batch-size} tokens and returns one result per token, in order.
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new InvalidIntrospectionRequestException("At most " + maxBatchSize
+                    + " tokens per batch, got " + tokens.size() + "; use POST /auth/introspect/stream for more");
+        }
+        return verifyBatch(tokens);
+    }
+
+    /**
+     * Introspects a stream of tokens, one per line. Results are written as NDJSON, one line per input line and in the
+     * same order, and flushed after every {@code introspection.stream-chunk-size} lines, so memory use is bounded by
+     * the chunk and a gateway can consume results while it is still sending tokens.
+     *
+     * @param contentLength the declared length of {@code input}, or -1 if unknown
+     * @throws IntrospectionPayloadTooLargeException before anything is read if {@code contentLength} is above
+     *                                               {@code introspection.max-stream-bytes}, and while reading once the
+     *                                               input passes that or {@code introspection.max-stream-tokens}
+     */
+    public void introspect(InputStream input, long contentLength, OutputStream output) throws IOException {
+        if (contentLength > maxStreamBytes) {
+            throw tooManyBytes();
+        }
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new BoundedInputStream(input), StandardCharsets.UTF_8));
+        List<String> chunk = new ArrayList<>(streamChunkSize);
+        int tokens = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (++tokens > maxStreamTokens) {
+                throw new IntrospectionPayloadTooLargeException("At most " + maxStreamTokens
+                        + " tokens per introspection stream");
+            }
+            chunk.add(line.strip());
+            if (chunk.size() == streamChunkSize) {
+                write(verifyBatch(chunk), output);
+                chunk.clear();
+            }
+        }
+        write(verifyBatch(chunk), output);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        verifiers.shutdown();
+    }
+
+    private List<TokenIntrospection> verifyBatch(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        batchSize.record(tokens.size());
+
+        // Position of each token in the distinct list, which keeps first-seen order
+        Map<String, Integer> index = new HashMap<>(tokens.size() * 2);
+        List<String> distinct = new ArrayList<>(tokens.size());
+        int[] positions = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i) == null ? "" : tokens.get(i);
+            Integer position = index.putIfAbsent(token, distinct.size());
+            if (position == null) {
+                position = distinct.size();
+                distinct.add(token);
+            }
+            positions[i] = position;
+        }
+        duplicates.increment(tokens.size() - distinct.size());
+
+        TokenIntrospection[] verified = new TokenIntrospection[distinct.size()];
+        int tasks = Math.min(threads, distinct.size() / MIN_TOKENS_PER_TASK);
+        if (tasks <= 1) {
+            verifyRange(distinct, verified, 0, distinct.size());
+        } else {
+            int perTask = (distinct.size() + tasks - 1) / tasks;
+            CompletableFuture<?>[] others = new CompletableFuture<?>[tasks - 1];
+            for (int t = 1; t < tasks; t++) {
+                int from = t * perTask;
+                int to = Math.min(distinct.size(), from + perTask);
+                others[t - 1] = CompletableFuture.runAsync(() -> verifyRange(distinct, verified, from, to), verifiers);
+            }
+            verifyRange(distinct, verified, 0, Math.min(distinct.size(), perTask));
+            // Every task writes its own slots of the array; join() makes them visible here
+            CompletableFuture.allOf(others).join();
+        }
+
+        TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = verified[positions[i]];
+        }
+        return Arrays.asList(results);
+    }
+
+    private void verifyRange(List<String> tokens, TokenIntrospection[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String token = tokens.get(i);
+            results[i] = token.isEmpty()
+                    ? TokenIntrospection.INACTIVE
+                    : jwtService.verify(token).map(TokenIntrospection::of).orElse(TokenIntrospection.INACTIVE);
+        }
+    }
+
+    private void write(List<TokenIntrospection> results, OutputStream output) throws IOException {
+        for (TokenIntrospection result : results) {
+            output.write(ndjsonWriter.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private IntrospectionPayloadTooLargeException tooManyBytes() {
+        return new IntrospectionPayloadTooLargeException("At most " + maxStreamBytes
+                + " bytes per introspection stream");
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "token-introspection-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Fails the read that takes the body past introspection.max-stream-bytes
+    private final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining = maxStreamBytes;
+
+        BoundedInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw tooManyBytes();
+            }
+        }
+    }
+}
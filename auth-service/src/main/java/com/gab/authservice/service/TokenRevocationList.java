@@ -0,0 +1,154 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.RevokedToken;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Denylist of access tokens revoked before their expiry, by {@code jti}: the {@link TokenRevocations} view
+ * {@link JwtService} checks, and the only place tokens are revoked.
+ * <p>
+ * Revocations are written to the {@code revoked_tokens} table and every instance holds them in memory as a
+ * {@link RevokedTokenSet}, so the per-request check never touches the database. The in-memory view is updated
+ * incrementally: every {@code jwt.revocation.refresh-interval} only the rows recorded since the last one seen are read,
+ * and entries whose token has expired are dropped. A revocation made on this instance applies at once, one made on
+ * another instance within a refresh interval. Until the first successful poll (e.g. if the database is down at startup)
+ * nothing is considered revoked; failed polls keep the last view and increment
+ * {@code jwt.revocation.refresh{result=failure}}.
+ * </p>
+ * The view's approximate size is exported as {@code jwt.revocation.memory} (bytes) and {@code jwt.revocation.entries}.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList implements TokenRevocations {
+
+    // Rows are polled by revoked_at, so one committed a little after a later-stamped row (or stamped by an instance whose
+    // clock lags) could fall behind the last one seen; every poll re-reads this much history to pick such rows up
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile RevokedTokenSet revoked;
+
+    // Only read and written by refresh(), which the scheduler never runs concurrently with itself
+    private Instant lastSeen = Instant.EPOCH;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries,
+                               MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.revoked = RevokedTokenSet.empty(new SecureRandom().nextLong(), expectedEntries);
+        this.refreshSuccess = Counter.builder("jwt.revocation.refresh")
+                .tag("result", "success")
+                .description("Polls of the revoked token table")
+                .register(meterRegistry);
+        this.refreshFailure = Counter.builder("jwt.revocation.refresh")
+                .tag("result", "failure")
+                .description("Polls of the revoked token table")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.memory", this, list -> list.revoked.sizeInBytes())
+                .baseUnit("bytes")
+                .description("Approximate memory held by the in-memory revoked token view")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", this, list -> list.revoked.size())
+                .description("Revoked, not yet expired access tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        return revoked.contains(jti);
+    }
+
+    /**
+     * Revokes the token with this {@code jti} until {@code expiresAt}, when it would stop being accepted anyway: records
+     * the revocation in {@code revoked_tokens} and applies it to this instance's view at once. Revoking a token twice
+     * is harmless.
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .jti(jti)
+                    .expiresAt(expiresAt)
+                    .revokedAt(Instant.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token {} was already revoked", jti);
+        }
+        apply(Map.of(jti, expiresAt), Instant.now());
+    }
+
+    /**
+     * Reads the revocations recorded since the last poll into the in-memory view and drops expired entries.
+     * Keeps the previous view on failure.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT10S}",
+            initialDelayString = "${jwt.revocation.refresh-interval:PT10S}")
+    public void refresh() {
+        try {
+            Instant now = Instant.now();
+            List<RevokedToken> rows = revokedTokenRepository.findRevokedSince(lastSeen.minus(POLL_OVERLAP), now);
+            Map<String, Instant> added = new HashMap<>();
+            Instant newest = lastSeen;
+            for (RevokedToken row : rows) {
+                added.put(row.getJti(), row.getExpiresAt());
+                if (row.getRevokedAt().isAfter(newest)) {
+                    newest = row.getRevokedAt();
+                }
+            }
+            apply(added, now);
+            lastSeen = newest;
+            refreshSuccess.increment();
+        } catch (RuntimeException e) {
+            refreshFailure.increment();
+            log.warn("Revoked token refresh failed, keeping the previous view", e);
+        }
+    }
+
+    /**
+     * Deletes rows for tokens that have expired since they were revoked.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval:PT1H}",
+            initialDelayString = "${jwt.revocation.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired token revocations", deleted);
+        }
+    }
+
+    // Serialises the copy-on-write updates of revoke() and refresh(); readers never take the lock
+    private void apply(Map<String, Instant> added, Instant now) {
+        updateLock.lock();
+        try {
+            revoked = revoked.with(added, now, expectedEntries);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class UserAdminService {
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    /**
+     * Changes a user's role and drops the user from the cache, so the next login issues tokens with the new role.
+     * Access tokens already issued keep the old role until they expire or are revoked. Returns false if there is no
+     * such user.
+     */
+    public boolean changeRole(UUID userId, Role role) {
+        return userRepository.findById(userId)
+                .map(user -> {
+                    userRepository.updateRole(userId, role);
+                    userCache.invalidate(user.getEmail());
+                    return true;
+                })
+                .orElse(false);
+    }
+}
@@ -0,0 +1,111 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.config.ReadYourWritesWindow;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded read-through cache of users' login credentials in front of
+ * {@link UserRepository#findCredentialsByEmailNormalized}, keyed by the normalized email
+ * ({@link TokenSubject#normalizeEmail}).
+ * <p>
+ * Entries are immutable snapshots and every lookup returns a fresh {@link User}, so callers may modify what they get
+ * without affecting other requests. At most {@code user-cache.max-size} users are held, each for at most
+ * {@code user-cache.ttl} after it was loaded: that bounds how long a password hash stays in memory, and how long
+ * another instance can serve a role or password changed elsewhere. On this instance, writes that change what is cached
+ * (signup, password re-hash, role change) call {@link #invalidate} once committed; an invalidation racing with a load of
+ * the same key waits for the load and then removes its result, so a stale value cannot be put back. Unknown emails are
+ * not cached, so inserting a user never leaves a stale entry behind.
+ * </p>
+ * A miss reads only id, password hash and role, by the normalized email, so the users returned carry the normalized
+ * email rather than the one entered at signup. With read replicas, database lookups go to a replica unless the user
+ * was written by this instance within the {@link ReadYourWritesWindow}. Hit ratio is published as
+ * {@code cache.gets{cache=users}} and load latency as {@code user.cache.load}.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final ReadYourWritesWindow readYourWrites;
+    private final Cache<String, CachedUser> cache;
+    private final Timer loadTimer;
+
+    public UserCache(UserRepository userRepository,
+                     ReadYourWritesWindow readYourWrites,
+                     @Value("${user-cache.enabled:true}") boolean enabled,
+                     @Value("${user-cache.max-size:10000}") long maxSize,
+                     @Value("${user-cache.ttl:PT5M}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readYourWrites = readYourWrites;
+        this.loadTimer = Timer.builder("user.cache.load")
+                .description("Database lookups of users missing from the user cache")
+                .register(meterRegistry);
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Returns the user with this email in any case, from the cache if it holds it or else from the database.
+     */
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String key = TokenSubject.normalizeEmail(email);
+        CachedUser cached = cache == null ? readYourWrites.read(key, () -> find(key)) : cache.get(key, this::load);
+        return Optional.ofNullable(cached).map(CachedUser::toUser);
+    }
+
+    /**
+     * Drops the cached user with this email and keeps its next reads on the primary for the read-your-writes window.
+     * Call after committing any change to the user's row.
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = TokenSubject.normalizeEmail(email);
+        readYourWrites.recordWrite(key);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    private CachedUser load(String key) {
+        return loadTimer.record(() -> readYourWrites.read(key, () -> find(key)));
+    }
+
+    private CachedUser find(String key) {
+        return userRepository.findCredentialsByEmailNormalized(key)
+                .map(credentials -> new CachedUser(credentials.id(), key, credentials.password(), credentials.role()))
+                .orElse(null);
+    }
+
+    private record CachedUser(UUID id, String email, String passwordHash, Role role) {
+
+        User toUser() {
+            return new User(id, email, passwordHash, role);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.gab.authservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.gab.authservice.dto.UserImportRow;
+import com.gab.authservice.exception.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import file one line at a time, so memory use does not depend on the file size.
+ * <p>
+ * NDJSON: one JSON object per line. CSV: a header line naming the columns ({@code email}, {@code password},
+ * {@code password_hash}, {@code role}, in any order), then one user per line; fields may be double-quoted, with
+ * {@code ""} for a literal quote. Blank lines are skipped. A line that cannot be parsed is returned with an error
+ * instead of aborting the whole file.
+ * </p>
+ */
+final class UserImportReader implements Closeable {
+
+    private static final ObjectReader JSON = new ObjectMapper().readerFor(UserImportRow.class);
+
+    private final BufferedReader reader;
+    private final UserImportService.Format format;
+    private long line;
+    private Map<String, Integer> csvColumns;
+
+    UserImportReader(InputStream input, UserImportService.Format format) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+    }
+
+    /**
+     * Returns the next non-blank record, or {@code null} at the end of the input.
+     */
+    Record next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == UserImportService.Format.NDJSON) {
+                return parseJson(text);
+            }
+            if (csvColumns == null) {
+                csvColumns = header(text);
+                continue;
+            }
+            return parseCsv(text);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Record parseJson(String text) {
+        try {
+            return new Record(line, JSON.readValue(text), null);
+        } catch (JsonProcessingException e) {
+            return new Record(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Record parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return new Record(line, null, "Malformed CSV: unterminated quote");
+        }
+        return new Record(line, new UserImportRow(
+                field(fields, "email"),
+                field(fields, "password"),
+                field(fields, "password_hash"),
+                field(fields, "role")), null);
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static Map<String, Integer> header(String text) {
+        List<String> names = splitCsv(text);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; names != null && i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new InvalidImportException("CSV header must name an email column");
+        }
+        return columns;
+    }
+
+    /**
+     * Splits one CSV line, or returns {@code null} if a quoted field is not closed.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * A parsed line: either {@code row} or {@code error} is set.
+     */
+    record Record(long line, UserImportRow row, String error) {
+    }
+}
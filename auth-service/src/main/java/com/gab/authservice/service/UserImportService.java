@@ -0,0 +1,317 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.config.PasswordEncoders;
+import com.gab.authservice.dto.UserImportReport;
+import com.gab.authservice.dto.UserImportRow;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.InvalidImportException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user import for migrations from other systems.
+ * <p>
+ * The input is streamed and processed in batches of {@code user-import.batch-size} rows, so memory use is bounded by
+ * the batch, not the file. Per batch: emails that are already registered are found with one {@code SELECT ... IN},
+ * plaintext passwords of the remaining rows are hashed in parallel (through the regular {@link PasswordEncoder}, i.e.
+ * the bounded hashing pool), and the rows are written with one JDBC batch insert in a transaction.
+ * If the batch still hits the unique constraint (a concurrent signup) it is rolled back and retried row by row, so
+ * every row ends up either imported or reported. The report lists the first {@code user-import.max-reported-issues}
+ * rows that were not imported; beyond that they are only counted, so a file full of bad rows does not grow the report
+ * without bound.
+ * </p>
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (id, email, email_normalized, password, role) VALUES (?, ?, ?, ?, ?)";
+    private static final String EXISTING_SQL =
+            "SELECT email_normalized FROM users WHERE email_normalized IN (:emails)";
+    private static final String BCRYPT_HASH = "\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}";
+    private static final String ARGON2_HASH =
+            "\\$argon2id\\$v=\\d+\\$m=\\d+,t=\\d+,p=\\d+\\$[A-Za-z0-9+/]+={0,2}\\$[A-Za-z0-9+/]+={0,2}";
+    // Hashes the delegating encoder can match, payload included: {id}-prefixed ones and legacy unprefixed bcrypt.
+    // PBKDF2 hashes carry no parameters, so only their length, that of this service's salt and key, can be checked
+    private static final Pattern SUPPORTED_HASH = Pattern.compile("\\{bcrypt}" + BCRYPT_HASH
+            + "|\\{argon2}" + ARGON2_HASH
+            + "|\\{pbkdf2}[0-9a-fA-F]{" + PasswordEncoders.PBKDF2_HEX_LENGTH + "}"
+            + "|" + BCRYPT_HASH);
+
+    public enum Format {
+        NDJSON, CSV;
+
+        /**
+         * {@code application/x-ndjson} (or {@code application/json}) and {@code text/csv}.
+         */
+        public static Format of(MediaType contentType) {
+            if (contentType != null && "csv".equalsIgnoreCase(contentType.getSubtype())) {
+                return CSV;
+            }
+            if (contentType == null || contentType.getSubtype().toLowerCase(Locale.ROOT).contains("json")) {
+                return NDJSON;
+            }
+            throw new InvalidImportException("Unsupported import content type: " + contentType);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final int batchSize;
+    private final int maxReportedIssues;
+    private final ExecutorService hashingCallers;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             PasswordEncoder passwordEncoder,
+                             @Value("${user-import.batch-size:500}") int batchSize,
+                             @Value("${user-import.hashing-threads:0}") int hashingThreads,
+                             @Value("${user-import.max-reported-issues:1000}") int maxReportedIssues) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.batchSize = batchSize;
+        this.maxReportedIssues = maxReportedIssues;
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        this.hashingCallers = Executors.newFixedThreadPool(threads, namedDaemonThreads());
+    }
+
+    /**
+     * Imports every user in {@code input}. Rows that are invalid, already registered or fail are reported and skipped;
+     * they never abort the import.
+     */
+    public UserImportReport importUsers(InputStream input, Format format) {
+        Progress progress = new Progress(maxReportedIssues);
+        List<PendingUser> batch = new ArrayList<>(batchSize);
+        try (UserImportReader reader = new UserImportReader(input, format)) {
+            UserImportReader.Record record;
+            while ((record = reader.next()) != null) {
+                progress.rows++;
+                PendingUser user = validate(record, progress);
+                if (user == null) {
+                    continue;
+                }
+                batch.add(user);
+                if (batch.size() == batchSize) {
+                    write(batch, progress);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import input", e);
+        }
+        write(batch, progress);
+        log.info("User import finished: {} rows, {} imported, {} conflicts, {} invalid, {} failed",
+                progress.rows, progress.imported, progress.conflicts, progress.invalid, progress.failed);
+        return new UserImportReport(progress.rows, progress.imported, progress.conflicts, progress.invalid,
+                progress.failed, progress.issues, progress.issuesTruncated);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingCallers.shutdown();
+    }
+
+    private PendingUser validate(UserImportReader.Record record, Progress progress) {
+        if (record.error() != null) {
+            progress.issue(record.line(), null, UserImportReport.Status.INVALID, record.error());
+            return null;
+        }
+        UserImportRow row = record.row();
+        String email = row.getEmail() == null ? null : row.getEmail().trim();
+        if (email == null || email.isEmpty() || email.indexOf('@') < 1) {
+            progress.issue(record.line(), email, UserImportReport.Status.INVALID, "Missing or invalid email");
+            return null;
+        }
+        boolean hasPassword = row.getPassword() != null && !row.getPassword().isEmpty();
+        boolean hasHash = row.getPasswordHash() != null && !row.getPasswordHash().isEmpty();
+        if (hasPassword == hasHash) {
+            progress.issue(record.line(), email, UserImportReport.Status.INVALID,
+                    "Exactly one of password or password_hash is required");
+            return null;
+        }
+        if (hasHash && !SUPPORTED_HASH.matcher(row.getPasswordHash()).matches()) {
+            progress.issue(record.line(), email, UserImportReport.Status.INVALID, "Unsupported password hash format");
+            return null;
+        }
+        Role role;
+        try {
+            role = row.getRole() == null ? Role.USER : Role.valueOf(row.getRole().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            progress.issue(record.line(), email, UserImportReport.Status.INVALID, "Unknown role: " + row.getRole());
+            return null;
+        }
+        return new PendingUser(record.line(), email, hasPassword ? row.getPassword() : null,
+                hasHash ? row.getPasswordHash() : null, role);
+    }
+
+    private void write(List<PendingUser> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingUser> fresh = withoutConflicts(batch, progress);
+        List<HashedUser> hashed = hash(fresh, progress);
+        if (hashed.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, hashed,
+                    hashed.size(), (ps, user) -> {
+                        ps.setObject(1, UUID.randomUUID());
+                        ps.setString(2, user.pending().email());
+                        ps.setString(3, user.pending().emailNormalized());
+                        ps.setString(4, user.hash());
+                        ps.setShort(5, user.pending().role().code());
+                    }));
+            progress.imported += hashed.size();
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these emails since the lookup: the batch was rolled back, retry row by row
+            log.debug("Import batch hit a constraint violation, retrying {} rows individually", hashed.size());
+            hashed.forEach(user -> insertOne(user, progress));
+        }
+    }
+
+    /**
+     * Drops rows whose email is already registered or appeared earlier in the file, compared normalized.
+     */
+    private List<PendingUser> withoutConflicts(List<PendingUser> batch, Progress progress) {
+        Set<String> emails = new HashSet<>();
+        batch.forEach(user -> emails.add(user.emailNormalized()));
+        Set<String> existing = new HashSet<>(
+                namedJdbcTemplate.queryForList(EXISTING_SQL, Map.of("emails", emails), String.class));
+        Set<String> seen = new HashSet<>();
+        List<PendingUser> fresh = new ArrayList<>(batch.size());
+        for (PendingUser user : batch) {
+            if (existing.contains(user.emailNormalized())) {
+                progress.issue(user.line(), user.email(), UserImportReport.Status.CONFLICT, "Email already exists");
+            } else if (!seen.add(user.emailNormalized())) {
+                progress.issue(user.line(), user.email(), UserImportReport.Status.CONFLICT,
+                        "Duplicate email in import file");
+            } else {
+                fresh.add(user);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Hashes the plaintext passwords of the batch in parallel; pre-hashed rows pass through.
+     */
+    private List<HashedUser> hash(List<PendingUser> batch, Progress progress) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(batch.size());
+        for (PendingUser user : batch) {
+            hashes.add(user.passwordHash() != null
+                    ? CompletableFuture.completedFuture(user.passwordHash())
+                    : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(user.password()), hashingCallers));
+        }
+        List<HashedUser> hashed = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingUser user = batch.get(i);
+            try {
+                hashed.add(new HashedUser(user, hashes.get(i).join()));
+            } catch (CompletionException e) {
+                // e.g. the hashing pool is saturated by logins; the row can be imported again later
+                progress.issue(user.line(), user.email(), UserImportReport.Status.FAILED,
+                        "Password hashing failed: " + e.getCause().getMessage());
+            }
+        }
+        return hashed;
+    }
+
+    private void insertOne(HashedUser user, Progress progress) {
+        try {
+            int inserted = jdbcTemplate.update(INSERT_SQL, UUID.randomUUID(), user.pending().email(),
+                    user.pending().emailNormalized(), user.hash(), user.pending().role().code());
+            if (inserted > 0 || inserted == Statement.SUCCESS_NO_INFO) {
+                progress.imported++;
+            }
+        } catch (DataIntegrityViolationException e) {
+            progress.issue(user.pending().line(), user.pending().email(), UserImportReport.Status.CONFLICT,
+                    "Email already exists");
+        } catch (DataAccessException e) {
+            progress.issue(user.pending().line(), user.pending().email(), UserImportReport.Status.FAILED,
+                    "Insert failed: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record PendingUser(long line, String email, String password, String passwordHash, Role role) {
+
+        String emailNormalized() {
+            return TokenSubject.normalizeEmail(email);
+        }
+    }
+
+    private record HashedUser(PendingUser pending, String hash) {
+    }
+
+    private static final class Progress {
+        private final List<UserImportReport.RowIssue> issues = new ArrayList<>();
+        private final int maxIssues;
+        private boolean issuesTruncated;
+        private long rows;
+        private long imported;
+        private long conflicts;
+        private long invalid;
+        private long failed;
+
+        Progress(int maxIssues) {
+            this.maxIssues = maxIssues;
+        }
+
+        void issue(long line, String email, UserImportReport.Status status, String reason) {
+            if (issues.size() < maxIssues) {
+                issues.add(new UserImportReport.RowIssue(line, email, status, reason));
+            } else {
+                issuesTruncated = true;
+            }
+            switch (status) {
+                case CONFLICT -> conflicts++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+-- H2 copy of postgresql/V2__users_normalized_email.sql. H2 cannot convert the role column in place, so the role moves
+-- to a new column.
+
+ALTER TABLE users ADD COLUMN email_normalized varchar(255);
+UPDATE users SET email_normalized = lower(trim(email));
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+ALTER TABLE users DROP CONSTRAINT users_role_check;
+ALTER TABLE users ADD COLUMN role_code smallint;
+UPDATE users SET role_code = CASE role WHEN 'USER' THEN 1 WHEN 'ADMIN' THEN 2 END;
+ALTER TABLE users DROP COLUMN role;
+ALTER TABLE users RENAME COLUMN role_code TO role;
+ALTER TABLE users ALTER COLUMN role SET NOT NULL;
+
+CREATE UNIQUE INDEX ux_users_email_normalized ON users (email_normalized);
+
+ALTER TABLE users DROP CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7;
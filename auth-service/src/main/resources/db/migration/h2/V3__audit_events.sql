@@ -0,0 +1,14 @@
+-- H2 copy of postgresql/V3__audit_events.sql for tests and benchmarks; H2 has no BRIN, so occurred_at gets a B-tree
+
+CREATE TABLE audit_events (
+    id             bigint GENERATED ALWAYS AS IDENTITY,
+    occurred_at    timestamp(6) with time zone NOT NULL,
+    type           varchar(32)                 NOT NULL,
+    subject        varchar(255),
+    client_address varchar(64),
+    reason         varchar(32),
+    CONSTRAINT audit_events_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_audit_events_occurred_at ON audit_events (occurred_at);
+CREATE INDEX idx_audit_events_subject ON audit_events (subject, occurred_at);
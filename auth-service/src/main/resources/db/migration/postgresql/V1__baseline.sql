@@ -0,0 +1,38 @@
+-- The schema as Hibernate's ddl-auto=update created it before migrations were introduced, constraint names included.
+-- Databases created that way already have it: spring.flyway.baseline-on-migrate records them at this version and
+-- starts at V2.
+
+CREATE TABLE users (
+    id       uuid         NOT NULL,
+    email    varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    role     varchar(255) NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT users_role_check CHECK (role IN ('USER', 'ADMIN')),
+    CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE refresh_tokens (
+    id         uuid                        NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    family_id  uuid                        NOT NULL,
+    token_hash varchar(43)                 NOT NULL,
+    used_at    timestamp(6) with time zone,
+    user_id    uuid                        NOT NULL,
+    CONSTRAINT refresh_tokens_pkey PRIMARY KEY (id),
+    CONSTRAINT uko2mlirhldriil2y7krapq4frt UNIQUE (token_hash),
+    CONSTRAINT fk1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+CREATE TABLE revoked_tokens (
+    jti        varchar(36)                 NOT NULL,
+    expires_at timestamp(6) with time zone NOT NULL,
+    revoked_at timestamp(6) with time zone NOT NULL,
+    CONSTRAINT revoked_tokens_pkey PRIMARY KEY (jti)
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
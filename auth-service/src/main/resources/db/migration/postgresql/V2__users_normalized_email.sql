@@ -0,0 +1,34 @@
+-- Users are looked up by their normalized email (trimmed, lower-case; TokenSubject.normalizeEmail) through a unique
+-- index on it. The email as entered stays for display. Roles are stored as Role.code() in a smallint instead of their
+-- name.
+--
+-- Runs in one transaction that rewrites the table (the backfill and the role type change) and builds the index,
+-- holding an ACCESS EXCLUSIVE lock on users until it commits: logins and signups wait for the whole migration. See
+-- "Schema migrations" in the README for how long that takes on large tables.
+-- Fails if two accounts differ only in the case of their email; merge or rename one of them first.
+
+ALTER TABLE users ADD COLUMN email_normalized varchar(255);
+-- Same as TokenSubject.normalizeEmail for ASCII; lower() of other characters depends on the database's LC_CTYPE
+UPDATE users SET email_normalized = lower(trim(email));
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_role_check;
+ALTER TABLE users ALTER COLUMN role TYPE smallint USING CASE role WHEN 'USER' THEN 1 WHEN 'ADMIN' THEN 2 END;
+
+CREATE UNIQUE INDEX ux_users_email_normalized ON users (email_normalized);
+
+-- The unique constraint on the email as entered is replaced by the one above; its name is generated by Hibernate
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT c.conname FROM pg_constraint c
+        WHERE c.conrelid = 'users'::regclass AND c.contype = 'u'
+          AND c.conkey = ARRAY[(SELECT attnum FROM pg_attribute WHERE attrelid = 'users'::regclass AND attname = 'email')]
+    LOOP
+        EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+ANALYZE users;
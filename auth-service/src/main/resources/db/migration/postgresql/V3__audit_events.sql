@@ -0,0 +1,18 @@
+-- Audit trail of logins, signups and rejected access tokens, appended in batches by AuditLog's writer (JdbcAuditSink)
+-- and never updated. Rows older than audit.jdbc.retention are deleted by a scheduled job.
+
+CREATE TABLE audit_events (
+    id             bigint GENERATED ALWAYS AS IDENTITY,
+    occurred_at    timestamp(6) with time zone NOT NULL,
+    type           varchar(32)                 NOT NULL,
+    subject        varchar(255),
+    client_address varchar(64),
+    reason         varchar(32),
+    CONSTRAINT audit_events_pkey PRIMARY KEY (id)
+);
+
+-- Rows arrive roughly in occurred_at order, so a BRIN index serves time ranges and the retention delete at a fraction
+-- of a B-tree's size and insert cost
+CREATE INDEX idx_audit_events_occurred_at ON audit_events USING brin (occurred_at);
+-- The history of one account
+CREATE INDEX idx_audit_events_subject ON audit_events (subject, occurred_at);
@@ -0,0 +1,47 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.dto.UserImportRow;
+import com.gab.authservice.repository.UserCredentials;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeHintsTest() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_shouldCoverEveryJjwtImplementationClass() throws Exception {
+        for (String type : NativeHints.JJWT_IMPLEMENTATION) {
+            // A renamed class in a jjwt upgrade would silently drop its hint
+            Class.forName(type);
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type)).test(hints), type);
+        }
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(Jwts.parser().getClass().getConstructor()).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Deserializer").test(hints));
+    }
+
+    @Test
+    void registerHints_shouldBindDtosReadOutsideControllers() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(UserImportRow.class.getMethod("setEmail", String.class)).test(hints));
+    }
+
+    @Test
+    void registerHints_shouldCoverLoginProjectionAndMigrations() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(UserCredentials.class.getConstructors()[0]).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/migration/postgresql/V2__users_normalized_email.sql").test(hints));
+    }
+}
@@ -0,0 +1,86 @@
+package com.gab.authservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderConfigTest {
+
+    private PasswordHashingExecutor executor;
+    private PasswordEncoderConfig config;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PasswordHashingExecutor(1, 16, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        config = new PasswordEncoderConfig();
+        // Low costs keep the test fast; the @Value defaults are not applied outside Spring
+        ReflectionTestUtils.setField(config, "algorithm", "bcrypt");
+        ReflectionTestUtils.setField(config, "bcryptStrength", 5);
+        ReflectionTestUtils.setField(config, "argon2Iterations", 2);
+        ReflectionTestUtils.setField(config, "pbkdf2Iterations", 1000);
+        ReflectionTestUtils.setField(config, "targetLatency", Duration.ofMillis(250));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void passwordEncoder_shouldWritePrefixedHashesAndMatchLegacyBcrypt() {
+        PasswordEncoder encoder = config.passwordEncoder(executor, new SimpleMeterRegistry());
+
+        String hash = encoder.encode("password");
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+
+        // Hash stored before the {id} prefix was introduced
+        String legacy = new BCryptPasswordEncoder(5).encode("password");
+        assertTrue(encoder.matches("password", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void passwordEncoder_shouldUpgradeHashesFromOtherAlgorithmsOrLowerCost() {
+        ReflectionTestUtils.setField(config, "algorithm", "pbkdf2");
+        String pbkdf2Hash = config.passwordEncoder(executor, new SimpleMeterRegistry()).encode("password");
+        ReflectionTestUtils.setField(config, "algorithm", "argon2");
+        String argon2Hash = config.passwordEncoder(executor, new SimpleMeterRegistry()).encode("password");
+
+        ReflectionTestUtils.setField(config, "algorithm", "bcrypt");
+        ReflectionTestUtils.setField(config, "bcryptStrength", 4);
+        String weakHash = config.passwordEncoder(executor, new SimpleMeterRegistry()).encode("password");
+
+        ReflectionTestUtils.setField(config, "bcryptStrength", 5);
+        PasswordEncoder encoder = config.passwordEncoder(executor, new SimpleMeterRegistry());
+        assertTrue(encoder.matches("password", pbkdf2Hash));
+        assertTrue(encoder.upgradeEncoding(pbkdf2Hash));
+        assertTrue(argon2Hash.startsWith("{argon2}"));
+        assertTrue(encoder.matches("password", argon2Hash));
+        assertTrue(encoder.upgradeEncoding(argon2Hash));
+        assertTrue(encoder.matches("password", weakHash));
+        assertTrue(encoder.upgradeEncoding(weakHash));
+    }
+
+    @Test
+    void calibration_shouldNotGoBelowConfiguredStrength() {
+        ReflectionTestUtils.setField(config, "calibrate", true);
+        // A budget no cost can meet leaves the configured floor in place
+        ReflectionTestUtils.setField(config, "targetLatency", Duration.ofNanos(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        PasswordEncoder encoder = config.passwordEncoder(executor, meterRegistry);
+
+        assertEquals(5.0, meterRegistry.get("password.hashing.cost").gauge().value());
+        assertTrue(encoder.encode("password").startsWith("{bcrypt}$2a$05$"));
+    }
+}
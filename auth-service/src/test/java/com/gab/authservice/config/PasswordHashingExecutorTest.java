@@ -0,0 +1,80 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One worker and one queue slot, so the third concurrent task has nowhere to go
+        executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_shouldRunTaskOnHashingThread() {
+        String threadName = executor.execute(() -> Thread.currentThread().getName());
+
+        assertTrue(threadName.startsWith("password-hashing-"));
+    }
+
+    @Test
+    void execute_shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the only worker, then the only queue slot
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            running.countDown();
+            return await(release);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> executor.execute(() -> true));
+        waitForQueueDepth(1);
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class, () -> executor.execute(() -> true));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        // Accepted work still completes once the worker frees up
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < depth) {
+            assertTrue(System.currentTimeMillis() < deadline, "task was not queued");
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.gab.authservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica. Each holds one row naming itself, so a query
+ * shows which one served it.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private FlakyDataSource flakyReplica;
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    /**
+     * A replica that can be taken down and brought back.
+     */
+    private static class FlakyDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                // What Hikari throws when its database is unreachable: a timeout caused by the connection failure
+                throw new SQLTransientConnectionException("replica-1 - Connection is not available", "08001",
+                        new SQLException("Connection refused", "08001"));
+            }
+            return super.getConnection();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        flakyReplica = new FlakyDataSource(replica);
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-1", flakyReplica), 1, meterRegistry);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        // The lazy proxy takes one connection up front to read the defaults; keep it out of the routing counts
+        servedBy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        replica.close();
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table served_by (name varchar(16))");
+        jdbc.update("insert into served_by values (?)", name);
+        return dataSource;
+    }
+
+    private String servedBy() {
+        return jdbc.queryForObject("select name from served_by", String.class);
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void readOnlyTransactions_shouldGoToReplicaAndEverythingElseToPrimary() {
+        assertEquals("replica", readOnly.execute(status -> servedBy()));
+        assertEquals("primary", readWrite.execute(status -> servedBy()));
+        assertEquals("primary", servedBy());
+        assertEquals("replica", ReadWriteRoutingDataSource.onReplica(this::servedBy));
+
+        assertEquals(2.0, routed("replica", "read"));
+    }
+
+    @Test
+    void onPrimary_shouldOverrideReadOnlyTransaction() {
+        assertEquals("primary", ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> servedBy())));
+        // The override ends with the block
+        assertEquals("replica", readOnly.execute(status -> servedBy()));
+
+        assertEquals(1.0, routed("primary", "forced"));
+    }
+
+    @Test
+    void unhealthyReplica_shouldFailOverToPrimaryUntilHealthCheckPasses() {
+        flakyReplica.down = true;
+
+        assertEquals("primary", readOnly.execute(status -> servedBy()));
+        assertEquals(0.0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        // Out of rotation: the next read does not try the replica again
+        assertEquals("primary", readOnly.execute(status -> servedBy()));
+        assertEquals(2.0, routed("primary", "failover"));
+
+        routing.checkReplicas();
+        assertEquals("primary", readOnly.execute(status -> servedBy()));
+
+        flakyReplica.down = false;
+        routing.checkReplicas();
+        assertEquals(1.0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        assertEquals("replica", readOnly.execute(status -> servedBy()));
+    }
+
+    @Test
+    void saturatedReplicaPool_shouldServeThatReadFromPrimaryWithoutLeavingTheRotation() throws SQLException {
+        replica.setConnectionTimeout(250);
+        try (Connection first = replica.getConnection(); Connection second = replica.getConnection()) {
+            assertEquals("primary", readOnly.execute(status -> servedBy()));
+        }
+
+        assertEquals(1.0, routed("primary", "failover"));
+        assertEquals(1.0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        assertEquals("replica", readOnly.execute(status -> servedBy()));
+    }
+
+    @Test
+    void healthCheck_shouldLeaveSaturatedReplicaInRotation() throws SQLException {
+        replica.setConnectionTimeout(250);
+        try (Connection first = replica.getConnection(); Connection second = replica.getConnection()) {
+            routing.checkReplicas();
+            assertEquals(1.0, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+        }
+
+        assertEquals("replica", readOnly.execute(status -> servedBy()));
+        assertEquals(0.0, routed("primary", "failover"));
+    }
+
+    @Test
+    void getConnectionWithCredentials_shouldGoToPrimary() {
+        // Hikari does not take per-call credentials
+        assertThrows(SQLFeatureNotSupportedException.class, () -> routing.getConnection("sa", ""));
+        assertEquals(1.0, routed("primary", "forced"));
+    }
+
+    @Test
+    void readYourWritesWindow_shouldReadRecentlyWrittenKeysFromPrimary() throws InterruptedException {
+        ReadYourWritesWindow window = new ReadYourWritesWindow(true, Duration.ofMillis(200));
+
+        window.recordWrite("new@example.com");
+
+        assertEquals("primary", window.read("new@example.com", this::servedBy));
+        assertEquals("replica", window.read("old@example.com", this::servedBy));
+        Thread.sleep(300);
+        assertEquals("replica", window.read("new@example.com", this::servedBy));
+    }
+
+    @Test
+    void readYourWritesWindow_shouldLeaveReadsAloneWithoutReplicas() {
+        ReadYourWritesWindow window = new ReadYourWritesWindow(false, Duration.ofSeconds(5));
+
+        window.recordWrite("new@example.com");
+
+        // No routing override: outside a transaction the primary serves it
+        assertEquals("primary", window.read("other@example.com", this::servedBy));
+        assertEquals(0.0, routed("replica", "read"));
+    }
+}
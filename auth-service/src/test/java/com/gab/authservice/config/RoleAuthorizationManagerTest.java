@@ -0,0 +1,133 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.controller.DemoController;
+import com.gab.authservice.entity.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleAuthorizationManagerTest {
+
+    private DemoController demo;
+
+    static class Greeter {
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    @RequiresRole(Role.USER)
+    static class UserGreeter extends Greeter {
+    }
+
+    @RequiresRole(Role.ADMIN)
+    static class AdminGreeter extends Greeter {
+    }
+
+    @BeforeEach
+    void setUp() {
+        demo = secured(new DemoController());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static <T> T secured(T target) {
+        return secured(target, SecurityConfig.requiresRoleAuthorization());
+    }
+
+    // The advisor SecurityConfig registers, applied the way the auto-proxy creator applies it
+    private static <T> T secured(T target, Advisor advisor) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        @SuppressWarnings("unchecked")
+        T proxy = (T) factory.getProxy();
+        return proxy;
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @Test
+    void role_shouldCompileHierarchyIntoMasksAndSharedAuthorities() {
+        assertTrue(Role.ADMIN.grants(Role.USER));
+        assertTrue(Role.ADMIN.grants(Role.ADMIN));
+        assertTrue(Role.USER.grants(Role.USER));
+        assertFalse(Role.USER.grants(Role.ADMIN));
+
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"),
+                Role.ADMIN.authorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(List.of("ROLE_USER"), Role.USER.authorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(Role.ADMIN.authorities(), new RoleAuthenticationToken("a@example.com", Role.ADMIN).getAuthorities());
+        assertThrows(UnsupportedOperationException.class, () -> Role.USER.authorities().clear());
+    }
+
+    @Test
+    void requiresRole_shouldAllowUserEndpointsForUsersAndAdmins() {
+        authenticate(new RoleAuthenticationToken("user@example.com", Role.USER));
+        assertNotNull(demo.securedHello());
+        assertNotNull(demo.securedPublic());
+
+        authenticate(new RoleAuthenticationToken("admin@example.com", Role.ADMIN));
+        assertNotNull(demo.securedHello());
+        assertNotNull(demo.securedPublic());
+        assertNotNull(demo.securedAdmin());
+    }
+
+    @Test
+    void requiresRole_shouldDenyAdminEndpointForUsers() {
+        authenticate(new RoleAuthenticationToken("user@example.com", Role.USER));
+
+        assertThrows(AuthorizationDeniedException.class, () -> demo.securedAdmin());
+    }
+
+    @Test
+    void requiresRole_shouldResolveInheritedMethodPerSubclass() {
+        // One shared advisor, as in the application: the same Greeter.greet method behind both proxies
+        Advisor advisor = SecurityConfig.requiresRoleAuthorization();
+        UserGreeter userGreeter = secured(new UserGreeter(), advisor);
+        AdminGreeter adminGreeter = secured(new AdminGreeter(), advisor);
+        authenticate(new RoleAuthenticationToken("user@example.com", Role.USER));
+
+        // Called on the lenient class first: the stricter one must not inherit its decision
+        assertEquals("hello", userGreeter.greet());
+        assertThrows(AuthorizationDeniedException.class, adminGreeter::greet);
+    }
+
+    @Test
+    void requiresRole_shouldDenyAnonymousCallers() {
+        authenticate(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThrows(AuthorizationDeniedException.class, () -> demo.securedHello());
+    }
+
+    @Test
+    void requiresRole_shouldUseRoleAuthoritiesOfOtherAuthentications() {
+        authenticate(UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        assertNotNull(demo.securedHello());
+        assertNotNull(demo.securedAdmin());
+
+        authenticate(UsernamePasswordAuthenticationToken.authenticated("user@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "SCOPE_admin")));
+        assertThrows(AuthorizationDeniedException.class, () -> demo.securedAdmin());
+    }
+}
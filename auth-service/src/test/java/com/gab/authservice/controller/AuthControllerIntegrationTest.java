@@ -58,7 +58,6 @@ class AuthControllerIntegrationTest {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
         registry.add("spring.datasource.username", postgres::getUsername);
         registry.add("spring.datasource.password", postgres::getPassword);
-        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
         registry.add("aws.secrets.enabled", () -> "false");
     }
 
@@ -125,4 +124,27 @@ class AuthControllerIntegrationTest {
                     assertEquals(3, parts.length, "Response is not a valid JWT token");
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void introspect_shouldRequireAServiceToken() throws Exception {
+        mockMvc.perform(post("/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SignupRequest("introspect@example.com", "password"))))
+                .andExpect(status().isOk());
+        String token = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("introspect@example.com", "password"))))
+                .andReturn().getResponse().getContentAsString();
+        String body = "{\"tokens\":[\"" + token + "\"]}";
+
+        // Public like the rest of /auth/** before, which let anyone check any token
+        mockMvc.perform(post("/auth/introspect").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/introspect").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/introspect/stream").contentType(MediaType.TEXT_PLAIN).content(token)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+}
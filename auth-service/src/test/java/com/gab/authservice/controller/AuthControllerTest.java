@@ -0,0 +1,100 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.exception.GlobalExceptionHandler;
+import com.gab.authservice.service.AuthService;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AuthControllerTest {
+
+    private static final String LOGIN_JSON = "{\"email\":\"test@example.com\",\"password\":\"password\"}";
+
+    private AuthService authService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        authService = mock(AuthService.class);
+        when(authService.login(any(LoginRequest.class), any()))
+                .thenReturn(new AuthTokens("jwt_token", "refresh_token", Instant.now().plusSeconds(3600)));
+        // Two attempts per email per minute
+        LoginRateLimiter rateLimiter = new LoginRateLimiter(true, Duration.ofMinutes(1), 2, 100, 1024,
+                new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AuthController(authService, mock(JwtService.class), rateLimiter))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void login_shouldReturn429BeforeTouchingAuthServiceWhenRateLimited() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_JSON))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // The rejected attempt never reached the user lookup or the password encoder
+        verify(authService, times(2)).login(any(LoginRequest.class), any());
+    }
+
+    @Test
+    void login_shouldSetRefreshTokenCookie() throws Exception {
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("jwt_token"))
+                .andExpect(cookie().value("refresh_token", "refresh_token"))
+                .andExpect(cookie().httpOnly("refresh_token", true))
+                .andExpect(cookie().secure("refresh_token", true))
+                .andExpect(cookie().path("refresh_token", "/auth"));
+    }
+
+    @Test
+    void refresh_shouldExchangeCookieForNewTokens() throws Exception {
+        when(authService.refresh("old_refresh_token"))
+                .thenReturn(new AuthTokens("new_jwt", "new_refresh_token", Instant.now().plusSeconds(3600)));
+
+        mockMvc.perform(post("/auth/refresh").cookie(new Cookie("refresh_token", "old_refresh_token")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("new_jwt"))
+                .andExpect(cookie().value("refresh_token", "new_refresh_token"));
+    }
+
+    @Test
+    void refresh_shouldReturn401WithoutCookie() throws Exception {
+        mockMvc.perform(post("/auth/refresh"))
+                .andExpect(status().isUnauthorized());
+        verify(authService, never()).refresh(any());
+    }
+
+    @Test
+    void logout_shouldRevokeBearerTokenAndClearCookie() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .cookie(new Cookie("refresh_token", "refresh_token"))
+                        .header("Authorization", "Bearer jwt_token"))
+                .andExpect(status().isNoContent())
+                .andExpect(cookie().maxAge("refresh_token", 0));
+
+        verify(authService).logout("refresh_token", "jwt_token");
+    }
+}
@@ -0,0 +1,60 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.repository.RevokedTokenRepository;
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.TestKeys;
+import com.gab.authservice.service.TokenRevocationList;
+import com.gab.authservice.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class JwksControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        var material = TestKeys.material("RS256");
+        var meterRegistry = new SimpleMeterRegistry();
+        var jwtService = new JwtService(new JwtKeyProvider(() -> material, meterRegistry),
+                new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry),
+                new TokenRevocationList(mock(RevokedTokenRepository.class), 100, meterRegistry), Duration.ofMinutes(15),
+                "standard", meterRegistry);
+        // Standalone setup: only the controller, no security filter chain or database
+        mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(jwtService, Duration.ofMinutes(5))).build();
+    }
+
+    @Test
+    void getJwks_shouldReturnKeysWithCachingHeaders() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys[0].kty").value("RSA"))
+                .andExpect(jsonPath("$.keys[0].alg").value("RS256"))
+                .andExpect(jsonPath("$.keys[0].kid").exists());
+    }
+
+    @Test
+    void getJwks_shouldReturnNotModifiedForMatchingETag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/.well-known/jwks.json")).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+}
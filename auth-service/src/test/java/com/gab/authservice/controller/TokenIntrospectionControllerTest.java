@@ -0,0 +1,103 @@
+package com.gab.authservice.controller;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.GlobalExceptionHandler;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.TestKeys;
+import com.gab.authservice.service.TokenIntrospectionService;
+import com.gab.authservice.service.TokenRevocationList;
+import com.gab.authservice.service.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class TokenIntrospectionControllerTest {
+
+    private MockMvc mockMvc;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        var material = TestKeys.material("RS256");
+        var meterRegistry = new SimpleMeterRegistry();
+        var jwtService = new JwtService(new JwtKeyProvider(() -> material, meterRegistry),
+                new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry),
+                new TokenRevocationList(mock(RevokedTokenRepository.class), 100, meterRegistry), Duration.ofMinutes(15),
+                "standard", meterRegistry);
+        var introspectionService = new TokenIntrospectionService(jwtService, 2, 2, 3, DataSize.ofBytes(4096), 1,
+                meterRegistry);
+        token = jwtService.generateToken(new User(UUID.randomUUID(), "user@example.com", "hashed", Role.USER));
+        mockMvc = MockMvcBuilders.standaloneSetup(new TokenIntrospectionController(introspectionService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void introspect_shouldReturnResultsInRequestOrder() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"" + token + "\",\"expired-or-garbage\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].active").value(true))
+                .andExpect(jsonPath("$.results[0].sub").value("user@example.com"))
+                .andExpect(jsonPath("$.results[0].role").value("USER"))
+                .andExpect(jsonPath("$.results[0].exp").isNumber())
+                .andExpect(jsonPath("$.results[1].active").value(false))
+                .andExpect(jsonPath("$.results[1].sub").doesNotExist());
+    }
+
+    @Test
+    void introspect_shouldRejectBatchAboveLimit() throws Exception {
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\":[\"a\",\"b\",\"c\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void introspectStream_shouldAnswerEachLineWithNdjson() throws Exception {
+        mockMvc.perform(post("/auth/introspect/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(token + "\nnope\n" + token + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TokenIntrospectionController.NDJSON))
+                .andExpect(content().string(org.hamcrest.Matchers.matchesPattern(
+                        "(?s)\\{\"active\":true,.*}\n\\{\"active\":false}\n\\{\"active\":true,.*}\n")));
+    }
+
+    @Test
+    void introspectStream_shouldReturn413ForABodyOverTheByteLimit() throws Exception {
+        mockMvc.perform(post("/auth/introspect/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("x".repeat(4097)))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("4096 bytes")));
+    }
+
+    @Test
+    void introspectStream_shouldBreakOffResultsAlreadySentWhenTheTokenLimitIsPassed() {
+        // The first chunk of two results is flushed before the fourth line is read
+        IOException e = assertThrows(IOException.class, () -> mockMvc.perform(post("/auth/introspect/stream")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("a\nb\nc\nd\n")));
+
+        assertTrue(e.getMessage().contains("At most 3 tokens"), e.getMessage());
+    }
+}
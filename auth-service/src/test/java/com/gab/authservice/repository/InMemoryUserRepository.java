@@ -0,0 +1,64 @@
+package com.gab.authservice.repository;
+
+import com.gab.authservice.entity.User;
+import com.gab.authservice.service.TokenSubject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-in for {@link UserRepository}, for tests and benchmarks that need real lookups without a database.
+ * Only the methods the services call are implemented; anything else throws {@link UnsupportedOperationException}.
+ */
+public final class InMemoryUserRepository implements InvocationHandler {
+
+    // By normalized email, like the unique index
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+
+    private InMemoryUserRepository() {
+    }
+
+    public static UserRepository create() {
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                new InMemoryUserRepository());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findByEmail":
+            case "findByEmailNormalized":
+                return Optional.ofNullable(usersByEmail.get(TokenSubject.normalizeEmail((String) args[0])));
+            case "findCredentialsByEmailNormalized":
+                return Optional.ofNullable(usersByEmail.get((String) args[0]))
+                        .map(found -> new UserCredentials(found.getId(), found.getPassword(), found.getRole()));
+            case "existsByEmail":
+            case "existsByEmailNormalized":
+                return usersByEmail.containsKey(TokenSubject.normalizeEmail((String) args[0]));
+            case "save":
+            case "saveAndFlush":
+                User user = (User) args[0];
+                usersByEmail.put(user.getEmailNormalized(), user);
+                return user;
+            case "count":
+                return (long) usersByEmail.size();
+            case "deleteAll":
+                usersByEmail.clear();
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryUserRepository" + usersByEmail.keySet();
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
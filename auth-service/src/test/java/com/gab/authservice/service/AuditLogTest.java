@@ -0,0 +1,200 @@
+package com.gab.authservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<AuditEvent> written = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final Set<String> writerThreads = new HashSet<>();
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (auditLog != null) {
+            auditLog.stop();
+        }
+    }
+
+    @Test
+    void publish_shouldWriteEventsInOrderInBatchesOnTheWriterThread() throws InterruptedException {
+        auditLog = start(recordingSink(), 1024, 100, "drop");
+
+        for (int i = 0; i < 1000; i++) {
+            auditLog.publish(event(i));
+        }
+        auditLog.stop();
+
+        assertEquals(1000, written.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("user" + i + "@example.com", written.get(i).subject());
+        }
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 100));
+        assertEquals(Set.of("audit-writer"), writerThreads);
+        assertEquals(1000.0, count("audit.events.written", "success"));
+    }
+
+    @Test
+    void publish_shouldLoseNothingWithConcurrentPublishers() throws Exception {
+        auditLog = start(recordingSink(), 65536, 500, "drop");
+
+        List<CompletableFuture<Void>> publishers = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 10_000;
+            publishers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    auditLog.publish(event(offset + i));
+                }
+            }));
+        }
+        CompletableFuture.allOf(publishers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        auditLog.stop();
+
+        // Every event exactly once
+        assertEquals(40_000, written.size());
+        assertEquals(40_000, written.stream().map(AuditEvent::subject).distinct().count());
+        assertEquals(0.0, count("audit.events.published", "dropped"));
+    }
+
+    @Test
+    void publish_shouldDropAndCountWhenTheBufferIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        auditLog = start(blockingSink(writing, release), 4, 1, "drop");
+
+        // The writer takes the first event and hangs in the sink; four more fill the buffer
+        auditLog.publish(event(0));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            auditLog.publish(event(i));
+        }
+        long start = System.nanoTime();
+        auditLog.publish(event(5));
+
+        // Dropped at once, without waiting for the writer
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(5.0, count("audit.events.published", "accepted"));
+        assertEquals(1.0, count("audit.events.published", "dropped"));
+        release.countDown();
+        auditLog.stop();
+        assertEquals(5, written.size());
+    }
+
+    @Test
+    void publish_shouldWaitForRoomWhenBlocking() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        auditLog = start(blockingSink(writing, release), 4, 1, "block");
+
+        auditLog.publish(event(0));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            auditLog.publish(event(i));
+        }
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> auditLog.publish(event(5)));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        auditLog.stop();
+
+        assertEquals(6, written.size());
+        assertEquals(0.0, count("audit.events.published", "dropped"));
+    }
+
+    @Test
+    void publish_shouldCarryOnAfterTheSinkFails() throws InterruptedException {
+        List<AuditEvent> attempts = new CopyOnWriteArrayList<>();
+        auditLog = start(batch -> {
+            attempts.addAll(batch);
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("database down");
+            }
+            written.addAll(batch);
+        }, 16, 1, "drop");
+
+        auditLog.publish(event(0));
+        auditLog.publish(event(1));
+        auditLog.stop();
+
+        // The failed batch is discarded, not retried
+        assertEquals(2, attempts.size());
+        assertEquals(List.of("user1@example.com"), written.stream().map(AuditEvent::subject).toList());
+        assertEquals(1.0, count("audit.events.written", "failure"));
+    }
+
+    @Test
+    void publish_shouldDoNothingWhenDisabled() throws InterruptedException {
+        auditLog = new AuditLog(recordingSink(), false, 16, 1, Duration.ofMillis(10), "drop", Duration.ZERO,
+                meterRegistry);
+        auditLog.start();
+
+        auditLog.publish(event(0));
+        auditLog.publish(AuditEvent.Type.SIGNUP, "user@example.com", null, null);
+        auditLog.stop();
+
+        assertTrue(written.isEmpty());
+        assertEquals(0.0, count("audit.events.published", "accepted"));
+    }
+
+    @Test
+    void event_shouldCutOversizedValuesToTheirColumns() {
+        AuditEvent event = AuditEvent.of(AuditEvent.Type.LOGIN_FAILURE, "a".repeat(1000), "b".repeat(100),
+                "bad_password");
+
+        assertEquals(AuditEvent.MAX_SUBJECT_LENGTH, event.subject().length());
+        assertEquals(AuditEvent.MAX_ADDRESS_LENGTH, event.clientAddress().length());
+    }
+
+    private AuditLog start(AuditSink sink, int capacity, int batchSize, String overflow) {
+        AuditLog log = new AuditLog(sink, true, capacity, batchSize, Duration.ofMillis(10), overflow,
+                Duration.ofSeconds(5), meterRegistry);
+        log.start();
+        return log;
+    }
+
+    private AuditSink recordingSink() {
+        return batch -> {
+            writerThreads.add(Thread.currentThread().getName());
+            batchSizes.add(batch.size());
+            written.addAll(batch);
+        };
+    }
+
+    // Signals when the first batch arrives and holds it until released
+    private AuditSink blockingSink(CountDownLatch writing, CountDownLatch release) {
+        return batch -> {
+            writing.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.addAll(batch);
+        };
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(name).tag("result", result).counter().count();
+    }
+
+    private static AuditEvent event(int i) {
+        return AuditEvent.of(AuditEvent.Type.LOGIN_SUCCESS, "user" + i + "@example.com", "10.0.0.1", null);
+    }
+}
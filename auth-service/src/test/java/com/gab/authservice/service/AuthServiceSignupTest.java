@@ -0,0 +1,93 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.EmailAlreadyExistsException;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs signup against a real (in-memory H2) database, so the SQL it issues and the unique constraint are the real ones.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+// No test-managed transaction: each signup commits on its own, as it does in the application
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceSignupTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenReturn("{bcrypt}hashed");
+        authService = new AuthService(userRepository, passwordEncoder, mock(JwtService.class),
+                mock(TokenRevocationList.class), mock(RefreshTokenService.class), mock(UserCache.class),
+                mock(AuditLog.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void signup_shouldIssueASingleInsert() {
+        statistics.clear();
+
+        authService.signup(new SignupRequest("new@example.com", "password"));
+
+        // One statement: no existsByEmail SELECT and no merge SELECT by id
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertTrue(userRepository.findByEmail("new@example.com").isPresent());
+    }
+
+    @Test
+    void signup_shouldMapDuplicateEmailToEmailAlreadyExists() {
+        authService.signup(new SignupRequest("taken@example.com", "password"));
+
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> authService.signup(new SignupRequest("taken@example.com", "other")));
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void signup_shouldRejectCaseVariantOfARegisteredEmail() {
+        authService.signup(new SignupRequest("Taken@Example.com", "password"));
+
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> authService.signup(new SignupRequest("taken@example.com", "other")));
+        // Kept as entered; lookups and the unique index use the normalized form
+        User stored = userRepository.findByEmail("TAKEN@example.com").orElseThrow();
+        assertEquals("Taken@Example.com", stored.getEmail());
+        assertEquals("taken@example.com", stored.getEmailNormalized());
+        assertEquals(Role.USER, stored.getRole());
+    }
+}
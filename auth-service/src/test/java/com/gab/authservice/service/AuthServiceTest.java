@@ -0,0 +1,294 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.config.ReadYourWritesWindow;
+import com.gab.authservice.dto.AuthTokens;
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.EmailAlreadyExistsException;
+import com.gab.authservice.exception.ServiceOverloadedException;
+import com.gab.authservice.repository.UserCredentials;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthServiceTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private JwtService jwtService;
+    private TokenRevocationList tokenRevocationList;
+    private RefreshTokenService refreshTokenService;
+    private AuditLog auditLog;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = mock(UserRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        jwtService = mock(JwtService.class);
+        tokenRevocationList = mock(TokenRevocationList.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        auditLog = mock(AuditLog.class);
+        when(refreshTokenService.issue(any(User.class)))
+                .thenReturn(new RefreshTokenService.IssuedRefreshToken("refresh_token", Instant.now().plusSeconds(60)));
+        // Cache disabled: lookups go straight to the mocked repository (UserCacheTest covers the cache)
+        UserCache userCache = new UserCache(userRepository, new ReadYourWritesWindow(false, Duration.ZERO),
+                false, 0, Duration.ZERO, meterRegistry);
+        authService = new AuthService(userRepository, passwordEncoder, jwtService, tokenRevocationList,
+                refreshTokenService, userCache, auditLog, meterRegistry);
+    }
+
+    @Test
+    void signup_shouldSaveUser() {
+        // Create a new signup request with test email and password
+        SignupRequest request = new SignupRequest("test@example.com", "password");
+
+        // Mock the password encoder to return "hashed" when encoding the password
+        // This simulates password encryption
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed");
+
+        // Call the actual signup method being tested
+        authService.signup(request);
+
+        // Signup is a single insert: no existence check before it
+        verify(userRepository, never()).existsByEmail(any());
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void signup_shouldAuditNormalizedEmailAndClientAddress() {
+        when(passwordEncoder.encode("password")).thenReturn("hashed");
+
+        authService.signup(new SignupRequest("New@Example.com", "password"), "10.0.0.1");
+
+        verify(auditLog).publish(AuditEvent.Type.SIGNUP, "new@example.com", "10.0.0.1", null);
+    }
+
+    @Test
+    void signup_shouldThrowEmailAlreadyExistsOnUniqueViolation() {
+        SignupRequest request = new SignupRequest("test@example.com", "password");
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed");
+
+        // Simulate the database rejecting the insert on the users.email unique constraint
+        ConstraintViolationException violation = new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), "insert into users",
+                ConstraintViolationException.ConstraintKind.UNIQUE, "users_email_key");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key", violation));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> authService.signup(request, "10.0.0.1"));
+        verify(auditLog).publish(AuditEvent.Type.SIGNUP_REJECTED, "test@example.com", "10.0.0.1", "email_taken");
+        verify(auditLog, never()).publish(eq(AuditEvent.Type.SIGNUP), any(), any(), any());
+    }
+
+    @Test
+    void signup_shouldRecognizeUniqueViolationFromPostgres() {
+        SignupRequest request = new SignupRequest("test@example.com", "password");
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed");
+
+        // What Hibernate's PostgreSQL dialect produces: the SQLState only, kind OTHER
+        ConstraintViolationException violation = new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), "insert into users", "ux_users_email_normalized");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key", violation));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> authService.signup(request));
+    }
+
+    @Test
+    void signup_shouldRethrowOtherIntegrityViolations() {
+        SignupRequest request = new SignupRequest("test@example.com", "password");
+        when(passwordEncoder.encode(request.getPassword())).thenReturn("hashed");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("not-null violation"));
+
+        // Only a unique violation means the email is taken; anything else is a real error
+        assertThrows(DataIntegrityViolationException.class, () -> authService.signup(request));
+    }
+
+    @Test
+    void login_shouldReturnToken() {
+        String email = "test@example.com";
+        String password = "password";
+        String hashed = "hashed";
+        String token = "jwt_token";
+        User user = new User(UUID.randomUUID(), email, hashed, Role.USER);
+
+        // Mock the login lookup to return the test user's credentials (id, password hash, role)
+        // We need Optional.of() because the lookup returns Optional<UserCredentials>, not the credentials directly
+        // Even though we control the mock's return value, the return type must match the real method
+        givenStored(user);
+        // The when().thenReturn() pattern:
+        // 1. Ensures type safety - thenReturn value must match matches() return type (boolean)
+        // 2. Sets up the mock behavior - when matches(password, hashed) is called, return true
+        // The matches() call inside when() isn't actually executed - it's just used by Mockito 
+        // to capture the method and arguments to mock
+        when(passwordEncoder.matches(password, hashed)).thenReturn(true);
+        when(jwtService.generateToken(sameUser(user))).thenReturn(token);
+
+        // When authService.login() is called, it will use the mocked jwtService
+        // The mock was set up above with: when(jwtService.generateToken(user)).thenReturn(token)
+        // So even though we're calling the real login method, it uses our mocked token generation
+        AuthTokens result = authService.login(new LoginRequest(email, password), "10.0.0.1");
+        assertEquals(token, result.accessToken());
+        // Every login starts a new refresh token family
+        assertEquals("refresh_token", result.refreshToken());
+        verify(refreshTokenService, times(1)).issue(sameUser(user));
+        assertEquals(1.0, meterRegistry.get("auth.login").tag("result", "success").counter().count());
+        verify(auditLog).publish(AuditEvent.Type.LOGIN_SUCCESS, email, "10.0.0.1", null);
+    }
+
+    @Test
+    void login_shouldFindUserWhateverTheCaseOfTheEmail() {
+        User user = new User(UUID.randomUUID(), "Test@Example.com", "hashed", Role.USER);
+        givenStored(user);
+        when(passwordEncoder.matches("password", "hashed")).thenReturn(true);
+        when(jwtService.generateToken(sameUser(user))).thenReturn("jwt_token");
+
+        AuthTokens result = authService.login(new LoginRequest("TEST@example.com ", "password"));
+
+        assertEquals("jwt_token", result.accessToken());
+        verify(userRepository).findCredentialsByEmailNormalized("test@example.com");
+    }
+
+    @Test
+    void refresh_shouldRotateWithoutPasswordCheck() {
+        User user = new User(UUID.randomUUID(), "test@example.com", "hashed", Role.USER);
+        when(refreshTokenService.rotate("old_refresh_token")).thenReturn(new RefreshTokenService.Rotation(user,
+                new RefreshTokenService.IssuedRefreshToken("new_refresh_token", Instant.now().plusSeconds(60))));
+        when(jwtService.generateToken(user)).thenReturn("jwt_token");
+
+        AuthTokens result = authService.refresh("old_refresh_token");
+
+        assertEquals("jwt_token", result.accessToken());
+        assertEquals("new_refresh_token", result.refreshToken());
+        // Renewal never touches the password hash or the user table
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+
+    @Test
+    void login_shouldThrowExceptionIfUserNotFound() {
+        String email = "notfound@example.com";
+        when(userRepository.findCredentialsByEmailNormalized(email)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> authService.login(new LoginRequest(email, "password")));
+        assertEquals(1.0, meterRegistry.get("auth.login").tag("result", "unknown_user").counter().count());
+        verify(auditLog).publish(AuditEvent.Type.LOGIN_FAILURE, email, null, "unknown_user");
+    }
+
+    @Test
+    void login_shouldThrowExceptionIfPasswordInvalid() {
+        String email = "test@example.com";
+        String password = "wrongpassword";
+        String hashed = "hashed";
+        User user = new User(UUID.randomUUID(), email, hashed, Role.USER);
+
+        givenStored(user);
+        when(passwordEncoder.matches(password, hashed)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> authService.login(new LoginRequest(email, password), "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("auth.login").tag("result", "bad_password").counter().count());
+        assertEquals(0.0, meterRegistry.get("auth.login").tag("result", "success").counter().count());
+        verify(auditLog).publish(AuditEvent.Type.LOGIN_FAILURE, email, "10.0.0.1", "bad_password");
+        verify(auditLog, never()).publish(eq(AuditEvent.Type.LOGIN_SUCCESS), any(), any(), any());
+    }
+
+    @Test
+    void login_shouldCountOverloadedHashingPool() {
+        String email = "test@example.com";
+        User user = new User(UUID.randomUUID(), email, "hashed", Role.USER);
+
+        givenStored(user);
+        when(passwordEncoder.matches("password", "hashed"))
+                .thenThrow(new ServiceOverloadedException("busy", Duration.ofSeconds(1)));
+
+        assertThrows(ServiceOverloadedException.class, () -> authService.login(new LoginRequest(email, "password")));
+        // Not a wrong password: the outcome is unknown
+        assertEquals(1.0, meterRegistry.get("auth.login").tag("result", "overloaded").counter().count());
+        assertEquals(0.0, meterRegistry.get("auth.login").tag("result", "bad_password").counter().count());
+    }
+
+    @Test
+    void login_shouldRehashOutdatedPassword() {
+        String email = "test@example.com";
+        String password = "password";
+        User user = new User(UUID.randomUUID(), email, "$2a$04$legacyhash", Role.USER);
+
+        givenStored(user);
+        when(passwordEncoder.matches(password, "$2a$04$legacyhash")).thenReturn(true);
+        // Stored hash uses an old algorithm/cost, so the encoder asks for an upgrade
+        when(passwordEncoder.upgradeEncoding("$2a$04$legacyhash")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("{bcrypt}$2a$12$newhash");
+
+        authService.login(new LoginRequest(email, password));
+
+        // The new hash is persisted so the next login uses the current parameters
+        verify(refreshTokenService).issue(argThat(issued -> issued.getPassword().equals("{bcrypt}$2a$12$newhash")));
+        verify(userRepository, times(1)).updatePassword(user.getId(), "{bcrypt}$2a$12$newhash");
+    }
+
+    @Test
+    void login_shouldNotRehashCurrentPassword() {
+        String email = "test@example.com";
+        User user = new User(UUID.randomUUID(), email, "{bcrypt}current", Role.USER);
+
+        givenStored(user);
+        when(passwordEncoder.matches("password", "{bcrypt}current")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("{bcrypt}current")).thenReturn(false);
+
+        authService.login(new LoginRequest(email, "password"));
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).updatePassword(any(), any());
+    }
+
+    @Test
+    void logout_shouldRevokeVerifiedAccessTokenAndRefreshFamily() {
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        when(jwtService.verify("access_token"))
+                .thenReturn(Optional.of(new AccessTokenClaims("test@example.com", "USER", expiresAt, "jti-1")));
+
+        authService.logout("refresh_token", "access_token");
+
+        verify(refreshTokenService).revoke("refresh_token");
+        verify(tokenRevocationList).revoke("jti-1", expiresAt);
+    }
+
+    @Test
+    void logout_shouldIgnoreInvalidOrRevokedAccessToken() {
+        when(jwtService.verify("access_token")).thenReturn(Optional.empty());
+
+        authService.logout(null, "access_token");
+
+        verifyNoInteractions(tokenRevocationList, refreshTokenService);
+    }
+
+    // What the login lookup finds for this user
+    private void givenStored(User user) {
+        when(userRepository.findCredentialsByEmailNormalized(user.getEmailNormalized()))
+                .thenReturn(Optional.of(new UserCredentials(user.getId(), user.getPassword(), user.getRole())));
+    }
+
+    // Logins work on a copy of the stored user built from its credentials
+    private static User sameUser(User user) {
+        return argThat(other -> other != null && user.getId().equals(other.getId()));
+    }
+}
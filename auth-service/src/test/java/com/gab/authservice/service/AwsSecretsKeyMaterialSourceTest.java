@@ -0,0 +1,40 @@
+package com.gab.authservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AwsSecretsKeyMaterialSourceTest {
+
+    @Test
+    void parse_shouldReadVerificationKeys() {
+        KeyMaterialSource.KeyMaterial material = AwsSecretsKeyMaterialSource.parse(
+                "{\"private-key\":\"priv\",\"public-key\":\"pub\",\"algorithm\":\"ES256\","
+                        + "\"verification-public-keys\":[\"old\",\"next\"]}");
+
+        assertEquals("priv", material.privateKeyPem());
+        assertEquals("pub", material.publicKeyPem());
+        assertEquals("ES256", material.algorithm());
+        assertEquals(List.of("old", "next"), material.verificationPublicKeyPems());
+    }
+
+    @Test
+    void parse_shouldStillAcceptDeprecatedPreviousPublicKey() {
+        KeyMaterialSource.KeyMaterial material = AwsSecretsKeyMaterialSource.parse(
+                "{\"private-key\":\"priv\",\"public-key\":\"pub\",\"previous-public-key\":\"old\"}");
+
+        assertEquals(List.of("old"), material.verificationPublicKeyPems());
+        assertNull(material.algorithm());
+    }
+
+    @Test
+    void parse_shouldNotListTheSameKeyTwice() {
+        KeyMaterialSource.KeyMaterial material = AwsSecretsKeyMaterialSource.parse(
+                "{\"private-key\":\"priv\",\"public-key\":\"pub\",\"previous-public-key\":\"old\","
+                        + "\"verification-public-keys\":[\"old\"]}");
+
+        assertEquals(List.of("old"), material.verificationPublicKeyPems());
+    }
+}
@@ -0,0 +1,83 @@
+package com.gab.authservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileAuditSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private FileAuditSink sink;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        sink.close();
+    }
+
+    @Test
+    void write_shouldAppendOneJsonObjectPerEvent() throws IOException {
+        Path file = directory.resolve("audit/audit.ndjson");
+        sink = new FileAuditSink(file, DataSize.ofMegabytes(1), 2);
+        Instant at = Instant.parse("2026-01-01T12:00:00Z");
+
+        sink.write(List.of(new AuditEvent(at, AuditEvent.Type.LOGIN_FAILURE, "a\"b@example.com", "10.0.0.1",
+                "bad_password")));
+        sink.write(List.of(new AuditEvent(at, AuditEvent.Type.TOKEN_REJECTED, null, "10.0.0.2", "invalid")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertEquals("2026-01-01T12:00:00Z", first.get("occurredAt").asText());
+        assertEquals("LOGIN_FAILURE", first.get("type").asText());
+        assertEquals("a\"b@example.com", first.get("subject").asText());
+        assertEquals("bad_password", first.get("reason").asText());
+        // Null fields are left out
+        assertFalse(mapper.readTree(lines.get(1)).has("subject"));
+    }
+
+    @Test
+    void write_shouldRotateBeforeTheFileOutgrowsItsLimitAndKeepMaxFiles() throws IOException {
+        Path file = directory.resolve("audit.ndjson");
+        // Room for two single-event batches per file
+        sink = new FileAuditSink(file, DataSize.ofBytes(300), 2);
+
+        for (int i = 0; i < 10; i++) {
+            sink.write(List.of(AuditEvent.of(AuditEvent.Type.SIGNUP, "user" + i + "@example.com", null, null)));
+        }
+
+        assertTrue(Files.size(file) <= 300);
+        assertTrue(Files.size(directory.resolve("audit.ndjson.1")) <= 300);
+        assertTrue(Files.exists(directory.resolve("audit.ndjson.2")));
+        assertFalse(Files.exists(directory.resolve("audit.ndjson.3")));
+        // Newest in the current file, the ones before in .1
+        assertTrue(Files.readString(file).contains("user9@"));
+        assertTrue(Files.readString(directory.resolve("audit.ndjson.1")).contains("user7@"));
+    }
+
+    @Test
+    void write_shouldAppendToAnExistingFileAfterRestart() throws IOException {
+        Path file = directory.resolve("audit.ndjson");
+        sink = new FileAuditSink(file, DataSize.ofMegabytes(1), 2);
+        sink.write(List.of(AuditEvent.of(AuditEvent.Type.SIGNUP, "first@example.com", null, null)));
+        sink.close();
+
+        sink = new FileAuditSink(file, DataSize.ofMegabytes(1), 2);
+        sink.write(List.of(AuditEvent.of(AuditEvent.Type.SIGNUP, "second@example.com", null, null)));
+
+        assertEquals(2, Files.readAllLines(file).size());
+    }
+}
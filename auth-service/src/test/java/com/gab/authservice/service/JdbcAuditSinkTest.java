@@ -0,0 +1,81 @@
+package com.gab.authservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The audit table sink against an in-memory H2 database migrated with the application's migrations.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcAuditSinkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcAuditSink sink;
+
+    @BeforeEach
+    void setUp() {
+        sink = new JdbcAuditSink(jdbcTemplate, transactionManager, Duration.ofDays(90), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_events");
+    }
+
+    @Test
+    void write_shouldInsertTheBatch() {
+        Instant at = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        sink.write(List.of(
+                new AuditEvent(at, AuditEvent.Type.LOGIN_FAILURE, "user@example.com", "10.0.0.1", "bad_password"),
+                new AuditEvent(at, AuditEvent.Type.TOKEN_REJECTED, null, "10.0.0.2", "invalid")));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT occurred_at, type, subject, client_address, reason FROM audit_events ORDER BY id");
+        assertEquals(2, rows.size());
+        assertEquals(at, jdbcTemplate.queryForObject("SELECT occurred_at FROM audit_events ORDER BY id LIMIT 1",
+                OffsetDateTime.class).toInstant());
+        assertEquals("LOGIN_FAILURE", rows.get(0).get("TYPE"));
+        assertEquals("user@example.com", rows.get(0).get("SUBJECT"));
+        assertEquals("bad_password", rows.get(0).get("REASON"));
+        assertNull(rows.get(1).get("SUBJECT"));
+    }
+
+    @Test
+    void deleteExpired_shouldDeleteOnlyEventsPastRetentionInBatches() {
+        Instant old = Instant.now().minus(Duration.ofDays(91));
+        sink.write(List.of(
+                new AuditEvent(old, AuditEvent.Type.SIGNUP, "a@example.com", null, null),
+                new AuditEvent(old, AuditEvent.Type.SIGNUP, "b@example.com", null, null),
+                new AuditEvent(old, AuditEvent.Type.SIGNUP, "c@example.com", null, null),
+                AuditEvent.of(AuditEvent.Type.SIGNUP, "recent@example.com", null, null)));
+
+        // Cleanup batches of 2, so this takes two statements
+        sink.deleteExpired();
+
+        assertEquals(List.of("recent@example.com"),
+                jdbcTemplate.queryForList("SELECT subject FROM audit_events", String.class));
+    }
+}
@@ -0,0 +1,72 @@
+package com.gab.authservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtKeyProviderTest {
+
+    private KeyMaterialSource source;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtKeyProvider keyProvider;
+
+    @BeforeEach
+    void setUp() {
+        source = mock(KeyMaterialSource.class);
+        meterRegistry = new SimpleMeterRegistry();
+        keyProvider = new JwtKeyProvider(source, meterRegistry);
+    }
+
+    @Test
+    void current_shouldLoadOnceAndServeFromMemory() {
+        when(source.fetch()).thenReturn(TestKeys.material("RS256"));
+
+        JwtKeys first = keyProvider.current();
+        JwtKeys second = keyProvider.current();
+
+        // Same snapshot instance: no re-read or re-parse on the request path
+        assertSame(first, second);
+        verify(source, times(1)).fetch();
+    }
+
+    @Test
+    void refresh_shouldSwapInNewKeys() {
+        when(source.fetch()).thenReturn(TestKeys.material("RS256"), TestKeys.material("RS256"));
+
+        JwtKeys before = keyProvider.current();
+        keyProvider.refresh();
+
+        assertNotEquals(before.keyId(), keyProvider.current().keyId());
+        assertEquals(1.0, meterRegistry.get("jwt.keys.refresh").tag("result", "success").counter().count());
+    }
+
+    @Test
+    void refresh_shouldKeepLastGoodKeysOnFailure() {
+        when(source.fetch())
+                .thenReturn(TestKeys.material("RS256"))
+                .thenThrow(new RuntimeException("Secrets Manager unavailable"));
+
+        JwtKeys before = keyProvider.current();
+        // Must not throw, the failure is only recorded as a metric
+        keyProvider.refresh();
+
+        assertSame(before, keyProvider.current());
+        assertEquals(1.0, meterRegistry.get("jwt.keys.refresh").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void current_shouldDeriveAlgorithmFromKeyType() {
+        when(source.fetch()).thenReturn(
+                TestKeys.material(TestKeys.keyPair("ES256"), null, List.of()),
+                TestKeys.material(TestKeys.keyPair("EdDSA"), null, List.of()));
+
+        assertEquals("ES256", keyProvider.current().algorithm().getId());
+        keyProvider.refresh();
+        assertEquals("EdDSA", keyProvider.current().algorithm().getId());
+    }
+}
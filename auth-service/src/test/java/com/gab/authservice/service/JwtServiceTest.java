@@ -0,0 +1,333 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList revocationList;
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), 100, meterRegistry);
+        jwtService = jwtService(() -> TestKeys.material("RS256"));
+        user = new User(UUID.randomUUID(), "test@example.com", "hashed", Role.ADMIN);
+    }
+
+    private JwtService jwtService(KeyMaterialSource source) {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(source, meterRegistry);
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, DataSize.ofMegabytes(1), meterRegistry);
+        return new JwtService(keyProvider, cache, revocationList, Duration.ofMinutes(15), "standard", meterRegistry);
+    }
+
+    // What logout does (AuthService.logout): revoke a token by the jti and expiry it verifies with
+    private void revoke(JwtService service, String token) {
+        AccessTokenClaims claims = service.verify(token).orElseThrow();
+        revocationList.revoke(claims.tokenId(), claims.expiresAt());
+    }
+
+    private JwtService jwtService(JwtKeyProvider keyProvider, String profile, Duration ttl) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, DataSize.ofMegabytes(1), meterRegistry);
+        return new JwtService(keyProvider, cache, revocationList, ttl, profile, meterRegistry);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void generateToken_shouldSignWithConfiguredAlgorithm(String algorithm) {
+        KeyMaterialSource.KeyMaterial material = TestKeys.material(algorithm);
+        JwtService service = jwtService(() -> material);
+
+        String token = service.generateToken(user);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"alg\":\"" + algorithm + "\""), header);
+        assertEquals("test@example.com", service.verify(token).orElseThrow().subject());
+    }
+
+    @Test
+    void generateToken_shouldCarrySigningKeyIdFromJwks() {
+        String token = jwtService.generateToken(user);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String jwks = new String(jwtService.getJwks().body());
+        String kid = header.replaceAll(".*\"kid\":\"([^\"]+)\".*", "$1");
+        assertTrue(jwks.contains("\"kid\":\"" + kid + "\""), jwks);
+    }
+
+    @Test
+    void verify_shouldAcceptOldAndNewKeyDuringRotationOverlap() {
+        KeyPair oldKey = TestKeys.keyPair("RS256");
+        KeyPair newKey = TestKeys.keyPair("RS256");
+        KeyMaterialSource source = mock(KeyMaterialSource.class);
+        when(source.fetch()).thenReturn(
+                // New key published ahead of the rotation
+                TestKeys.material(oldKey, null, List.of(TestKeys.publicPem(newKey))),
+                // Rotated: new key signs, old key still verifies
+                TestKeys.material(newKey, null, List.of(TestKeys.publicPem(oldKey))),
+                // Old key retired
+                TestKeys.material(newKey, null, List.of()));
+        JwtKeyProvider keyProvider = new JwtKeyProvider(source, meterRegistry);
+        JwtService service = new JwtService(keyProvider, new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry),
+                revocationList, Duration.ofMinutes(15), "standard", meterRegistry);
+
+        String oldToken = service.generateToken(user);
+        keyProvider.refresh();
+        String newToken = service.generateToken(user);
+
+        assertTrue(service.verify(oldToken).isPresent());
+        assertTrue(service.verify(newToken).isPresent());
+
+        keyProvider.refresh();
+        assertTrue(service.verify(oldToken).isEmpty());
+        assertTrue(service.verify(newToken).isPresent());
+    }
+
+    @Test
+    void verify_shouldAcceptTokensFromPreviousKeyAfterAlgorithmChange() {
+        KeyPair rsa = TestKeys.keyPair("RS256");
+        KeyMaterialSource source = mock(KeyMaterialSource.class);
+        when(source.fetch()).thenReturn(
+                TestKeys.material(rsa, "RS256", List.of()),
+                // Switch signing to ES256, keep the RSA public key for tokens already issued
+                TestKeys.material(TestKeys.keyPair("ES256"), "ES256", List.of(TestKeys.publicPem(rsa))));
+        JwtKeyProvider keyProvider = new JwtKeyProvider(source, meterRegistry);
+        JwtService service = new JwtService(keyProvider, new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry),
+                revocationList, Duration.ofMinutes(15), "standard", meterRegistry);
+
+        String rsaToken = service.generateToken(user);
+        keyProvider.refresh();
+        String ecToken = service.generateToken(user);
+
+        assertTrue(service.verify(rsaToken).isPresent());
+        assertTrue(service.verify(ecToken).isPresent());
+        assertEquals("ES256", keyProvider.current().algorithm().getId());
+    }
+
+    @Test
+    void verify_shouldReturnSubjectAndRoleFromOneParse() {
+        String token = jwtService.generateToken(user);
+
+        Optional<AccessTokenClaims> claims = jwtService.verify(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("test@example.com", claims.get().subject());
+        assertEquals("ADMIN", claims.get().role());
+        assertNotNull(claims.get().expiresAt());
+    }
+
+    @Test
+    void verify_shouldRejectTamperedToken() {
+        String token = jwtService.generateToken(user);
+        // Flip a character in the signature part
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+        assertTrue(jwtService.verify("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void verify_shouldServeRepeatedTokenFromCache() {
+        String token = jwtService.generateToken(user);
+
+        jwtService.verify(token);
+        jwtService.verify(token);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-claims").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-claims").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void verify_shouldNotCacheInvalidTokens() {
+        jwtService.verify("not-a-jwt");
+        jwtService.verify("not-a-jwt");
+
+        assertEquals(0.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-claims").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void revoke_shouldRejectTokenEvenWhenCached() {
+        String token = jwtService.generateToken(user);
+        String other = jwtService.generateToken(user);
+        // Cached before the revocation: the check must not be skipped on a cache hit
+        assertTrue(jwtService.verify(token).isPresent());
+
+        revoke(jwtService, token);
+
+        assertTrue(jwtService.verify(token).isEmpty());
+        assertFalse(jwtService.validateToken(token));
+        // Same user and claims, different jti
+        assertTrue(jwtService.verify(other).isPresent());
+    }
+
+    @Test
+    void verify_shouldCountRejectionsByFixedReason() {
+        String token = jwtService.generateToken(user);
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+        JwtService expiring = new JwtService(new JwtKeyProvider(() -> TestKeys.material("RS256"), new SimpleMeterRegistry()),
+                new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry), revocationList,
+                Duration.ofMinutes(-1), "standard", meterRegistry);
+        // Signed with a key this service does not know
+        String foreign = jwtService(() -> TestKeys.material("RS256")).generateToken(user);
+
+        jwtService.verify(tampered);
+        jwtService.verify("not-a-jwt");
+        jwtService.verify("not-a-jwt-either");
+        expiring.verify(expiring.generateToken(user));
+        jwtService.verify(foreign);
+        revoke(jwtService, token);
+        jwtService.verify(token);
+
+        assertEquals(1.0, rejected("signature"));
+        assertEquals(2.0, rejected("malformed"));
+        assertEquals(1.0, rejected("expired"));
+        assertEquals(1.0, rejected("unsupported"));
+        assertEquals(1.0, rejected("revoked"));
+        assertEquals(0.0, rejected("invalid"));
+        // Whatever the tokens contained, only the fixed reasons show up as tags
+        assertEquals(6, meterRegistry.get("jwt.verify.rejected").counters().size());
+        assertEquals(3, meterRegistry.get("jwt.sign").timer().count());
+        // Revoking verifies too
+        assertEquals(7, meterRegistry.get("jwt.verify").timer().count());
+    }
+
+    @Test
+    void generateToken_shouldIssueCompactClaimsInCompactProfile() {
+        JwtService service = jwtService(new JwtKeyProvider(() -> TestKeys.material("RS256"), meterRegistry),
+                "compact", Duration.ofMinutes(15));
+
+        String token = service.generateToken(user);
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String payload = new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+        assertTrue(header.contains("\"kid\":"), header);
+        assertTrue(payload.contains("\"sub\":\"" + user.getId() + "\""), payload);
+        assertTrue(payload.contains("\"r\":2"), payload);
+        assertFalse(payload.contains("iat"), payload);
+        assertFalse(payload.contains("example.com"), payload);
+        AccessTokenClaims claims = service.verify(token).orElseThrow();
+        assertEquals(user.getId().toString(), claims.subject());
+        assertEquals("ADMIN", claims.role());
+        assertEquals(22, claims.tokenId().length());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"RS256,RS256", "RS256,PS256", "ES256,ES256", "EdDSA,EdDSA"})
+    void generateToken_shouldIssueVerifiableCwtInCwtProfile(String keyType, String algorithm) {
+        KeyMaterialSource.KeyMaterial material = TestKeys.material(TestKeys.keyPair(keyType), algorithm, List.of());
+        JwtService service = jwtService(new JwtKeyProvider(() -> material, meterRegistry), "cwt",
+                Duration.ofMinutes(15));
+
+        String token = service.generateToken(user);
+
+        assertFalse(token.contains("."), token);
+        AccessTokenClaims claims = service.verify(token).orElseThrow();
+        assertEquals(user.getId().toString(), claims.subject());
+        assertEquals("ADMIN", claims.role());
+        assertEquals(22, claims.tokenId().length());
+        assertTrue(claims.expiresAt().isAfter(Instant.now().plus(Duration.ofMinutes(14))));
+        // Shorter than the standard token for the same user and key
+        String standard = jwtService(new JwtKeyProvider(() -> material, meterRegistry), "standard",
+                Duration.ofMinutes(15)).generateToken(user);
+        assertTrue(token.length() < standard.length(), token.length() + " vs " + standard.length());
+    }
+
+    @Test
+    void verify_shouldAcceptTokensOfEveryProfileWhateverIsIssued() {
+        JwtKeyProvider keyProvider = new JwtKeyProvider(() -> TestKeys.material("ES256"), meterRegistry);
+        JwtService standard = jwtService(keyProvider, "standard", Duration.ofMinutes(15));
+        JwtService compact = jwtService(keyProvider, "compact", Duration.ofMinutes(15));
+        JwtService cwt = jwtService(keyProvider, "CWT", Duration.ofMinutes(15));
+
+        for (JwtService issuer : List.of(standard, compact, cwt)) {
+            String token = issuer.generateToken(user);
+            for (JwtService verifier : List.of(standard, compact, cwt)) {
+                assertEquals("ADMIN", verifier.verify(token).orElseThrow().role());
+            }
+        }
+    }
+
+    @Test
+    void verify_shouldCountCwtRejectionsUnderTheJwtReasons() {
+        KeyMaterialSource.KeyMaterial material = TestKeys.material("ES256");
+        JwtService cwt = jwtService(new JwtKeyProvider(() -> material, meterRegistry), "cwt", Duration.ofMinutes(15));
+        String token = cwt.generateToken(user);
+        byte[] bytes = Base64.getUrlDecoder().decode(token);
+        // The last byte belongs to the signature
+        bytes[bytes.length - 1] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        JwtService expiring = jwtService(new JwtKeyProvider(() -> material, meterRegistry), "cwt",
+                Duration.ofMinutes(-1));
+        String foreign = jwtService(new JwtKeyProvider(() -> TestKeys.material("ES256"), meterRegistry), "cwt",
+                Duration.ofMinutes(15)).generateToken(user);
+        String truncated = token.substring(0, token.length() / 2);
+
+        cwt.verify(tampered);
+        cwt.verify(expiring.generateToken(user));
+        cwt.verify(foreign);
+        cwt.verify(truncated);
+        revoke(cwt, token);
+        cwt.verify(token);
+
+        assertEquals(1.0, rejected("signature"));
+        assertEquals(1.0, rejected("expired"));
+        assertEquals(1.0, rejected("unsupported"));
+        assertEquals(1.0, rejected("malformed"));
+        assertEquals(1.0, rejected("revoked"));
+        assertEquals(0.0, rejected("invalid"));
+    }
+
+    @Test
+    void verify_shouldLeaveUnknownRoleCodesWithoutRole() {
+        KeyPair keyPair = TestKeys.keyPair("RS256");
+        JwtService service = jwtService(new JwtKeyProvider(() -> TestKeys.material(keyPair, null, List.of()),
+                meterRegistry), "compact", Duration.ofMinutes(15));
+        String token = Jwts.builder()
+                .subject(user.getId().toString())
+                .claim("r", 99)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+
+        AccessTokenClaims claims = service.verify(token).orElseThrow();
+
+        assertEquals(user.getId().toString(), claims.subject());
+        assertNull(claims.role());
+    }
+
+    @Test
+    void tokenProfile_shouldRejectUnknownNames() {
+        assertEquals(TokenProfile.COMPACT, TokenProfile.of(" Compact "));
+        assertThrows(IllegalArgumentException.class, () -> TokenProfile.of("binary"));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("jwt.verify.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,136 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 3 attempts per email, 5 per address, per minute; the clock only moves when the test moves it
+        rateLimiter = new LoginRateLimiter(true, Duration.ofMinutes(1), 3, 5, 1024, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void acquire_shouldRejectEmailOverLimit() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("victim@example.com", "10.0.0." + i);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> rateLimiter.acquire("victim@example.com", "10.0.0.99"));
+        assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        // Emails are counted as login looks them up: case-insensitive, without surrounding whitespace
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(" Victim@Example.com ", "10.0.0.98"));
+        // Other accounts are unaffected
+        assertDoesNotThrow(() -> rateLimiter.acquire("other@example.com", "10.0.0.97"));
+        assertEquals(2.0, meterRegistry.get("login.rate.limit").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void acquire_shouldCountControlCharacterVariantsOfAnEmailAsOneAccount() {
+        // Each of these logs in to victim@example.com, since the lookup trims every character up to U+0020
+        String[] variants = {"victim@example.com\u0001", "\u0002victim@example.com", "\u0008Victim@example.com\u001B"};
+        rateLimiter.acquire("victim@example.com", "10.0.0.1");
+        for (int i = 0; i < 2; i++) {
+            rateLimiter.acquire(variants[i], "10.0.0.2");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire(variants[2], "10.0.0.3"));
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("victim@example.com", "10.0.0.4"));
+    }
+
+    @Test
+    void acquire_shouldRejectAddressOverLimit() {
+        // Credential stuffing: a different email every attempt, same source
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire("user" + i + "@example.com", "203.0.113.7");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("user5@example.com", "203.0.113.7"));
+        assertDoesNotThrow(() -> rateLimiter.acquire("user6@example.com", "203.0.113.8"));
+        assertEquals(1.0, meterRegistry.get("login.rate.limit").tag("key", "address").counter().count());
+    }
+
+    @Test
+    void acquire_shouldNotLetOneAddressSprayingEmailsLockOutOtherAccounts() {
+        // A narrow sketch, which 100k counted attempts would saturate
+        LoginRateLimiter limiter = new LoginRateLimiter(true, Duration.ofMinutes(1), 3, 5, 64,
+                new SimpleMeterRegistry(), nanoTime::get);
+
+        int rejected = 0;
+        for (int i = 0; i < 100_000; i++) {
+            try {
+                limiter.acquire("random" + i + "@example.com", "203.0.113.7");
+            } catch (TooManyRequestsException e) {
+                rejected++;
+            }
+        }
+
+        assertEquals(100_000 - 5, rejected);
+        // An unrelated account from another address can still log in
+        assertDoesNotThrow(() -> limiter.acquire("victim@example.com", "198.51.100.1"));
+    }
+
+    @Test
+    void acquire_shouldSlideWindow() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire("user@example.com", "10.0.0.1");
+        }
+
+        // Halfway into the next window half of the previous window's attempts still count: 1.5 + 1 <= 3
+        nanoTime.addAndGet(Duration.ofSeconds(90).toNanos());
+        assertDoesNotThrow(() -> rateLimiter.acquire("user@example.com", "10.0.0.1"));
+        // 1.5 + 2 > 3
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("user@example.com", "10.0.0.1"));
+
+        // Two windows later nothing is left
+        nanoTime.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertDoesNotThrow(() -> rateLimiter.acquire("user@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    void acquire_shouldUseFixedMemoryAndStayAccurateForManyKeys() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LoginRateLimiter limiter = new LoginRateLimiter(true, Duration.ofMinutes(1), 3, 5, 65536,
+                registry, nanoTime::get);
+        double memory = registry.get("login.rate.limit.memory").gauge().value();
+
+        // 100k distinct emails in one window, e.g. a spray of random accounts
+        int rejected = 0;
+        for (int i = 0; i < 100_000; i++) {
+            try {
+                limiter.acquire("random" + i + "@example.com", null);
+            } catch (TooManyRequestsException e) {
+                rejected++;
+            }
+        }
+
+        // Memory does not depend on the number of keys, and collisions almost never push a single attempt over 3
+        assertEquals(memory, registry.get("login.rate.limit.memory").gauge().value());
+        assertEquals(2L * 2 * 4 * 65536 * Integer.BYTES, (long) memory);
+        assertTrue(rejected < 10, "false rejections: " + rejected);
+    }
+
+    @Test
+    void acquire_shouldAllowEverythingWhenDisabled() {
+        LoginRateLimiter disabled = new LoginRateLimiter(false, Duration.ofMinutes(1), 1, 1, 1024,
+                meterRegistry, nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire("user@example.com", "10.0.0.1");
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.RefreshToken;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.InvalidRefreshTokenException;
+import com.gab.authservice.repository.RefreshTokenRepository;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Refresh token rotation against an in-memory H2 database, through the Spring proxy so the transaction boundaries
+ * are the real ones.
+ */
+@DataJpaTest(properties = {
+        "refresh-token.cleanup.batch-size=2",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@Import({RefreshTokenService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User(UUID.randomUUID(), "test@example.com", "{bcrypt}hash", Role.USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rotate_shouldIssueSuccessorWithOneLookup() {
+        String first = refreshTokenService.issue(user).token();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals("test@example.com", rotation.user().getEmail());
+        assertNotEquals(first, rotation.refreshToken().token());
+        // Token and user in one SELECT, the used-marker UPDATE and the successor's INSERT
+        assertEquals(3, statistics.getPrepareStatementCount());
+        // The successor works in turn
+        assertDoesNotThrow(() -> refreshTokenService.rotate(rotation.refreshToken().token()));
+    }
+
+    @Test
+    void rotate_shouldRevokeFamilyOnReuse() {
+        String first = refreshTokenService.issue(user).token();
+        String second = refreshTokenService.rotate(first).refreshToken().token();
+        String otherSession = refreshTokenService.issue(user).token();
+
+        // The already rotated token shows up again: someone kept a copy
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+
+        // Its whole family is gone, including the legitimate successor, but other sessions are untouched
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+        assertDoesNotThrow(() -> refreshTokenService.rotate(otherSession));
+        assertEquals(1.0, meterRegistry.get("refresh.token.rotations").tag("result", "reused").counter().count());
+    }
+
+    @Test
+    void issue_shouldOnlyInsertForDetachedUser() {
+        // What a UserCache hit hands to login: a copy no persistence context knows
+        User detached = new User(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String token = refreshTokenService.issue(detached).token();
+
+        // The token's INSERT, and no SELECT of the user
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("test@example.com", refreshTokenService.rotate(token).user().getEmail());
+    }
+
+    @Test
+    void rotate_shouldRejectUnknownToken() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("not-a-token"));
+    }
+
+    @Test
+    void revoke_shouldEndSession() {
+        String token = refreshTokenService.issue(user).token();
+
+        refreshTokenService.revoke(token);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    void deleteExpired_shouldDeleteInBatchesAndKeepLiveTokens() {
+        for (int i = 0; i < 5; i++) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .id(UUID.randomUUID())
+                    .tokenHash("expired-" + i)
+                    .familyId(UUID.randomUUID())
+                    .user(user)
+                    .expiresAt(Instant.now().minusSeconds(60))
+                    .build());
+        }
+        String live = refreshTokenService.issue(user).token();
+
+        // Batch size 2: three batches for five expired rows
+        refreshTokenService.deleteExpired();
+
+        assertEquals(1, refreshTokenRepository.count());
+        assertEquals(5.0, meterRegistry.get("refresh.token.cleanup.deleted").counter().count());
+        assertDoesNotThrow(() -> refreshTokenService.rotate(live));
+    }
+}
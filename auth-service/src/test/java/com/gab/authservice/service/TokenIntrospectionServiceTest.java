@@ -0,0 +1,151 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.dto.TokenIntrospection;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.IntrospectionPayloadTooLargeException;
+import com.gab.authservice.exception.InvalidIntrospectionRequestException;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TokenIntrospectionServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private TokenIntrospectionService introspectionService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        var material = TestKeys.material("RS256");
+        jwtService = new JwtService(new JwtKeyProvider(() -> material, meterRegistry),
+                new VerifiedTokenCache(false, DataSize.ofMegabytes(1), meterRegistry),
+                new TokenRevocationList(mock(RevokedTokenRepository.class), 100, meterRegistry), Duration.ofMinutes(15),
+                "standard", meterRegistry);
+        introspectionService = new TokenIntrospectionService(jwtService, 500, 100, 1000, DataSize.ofMegabytes(1), 4,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        introspectionService.shutdown();
+    }
+
+    private String token(String email, Role role) {
+        return jwtService.generateToken(new User(UUID.randomUUID(), email, "hashed", role));
+    }
+
+    @Test
+    void introspect_shouldReturnOneResultPerTokenInOrder() {
+        String user = token("user@example.com", Role.USER);
+        String admin = token("admin@example.com", Role.ADMIN);
+
+        List<TokenIntrospection> results = introspectionService.introspect(List.of(admin, "not-a-token", user, ""));
+
+        assertEquals(4, results.size());
+        assertEquals("admin@example.com", results.get(0).sub());
+        assertEquals("ADMIN", results.get(0).role());
+        assertTrue(results.get(0).exp() > System.currentTimeMillis() / 1000);
+        assertEquals(TokenIntrospection.INACTIVE, results.get(1));
+        assertEquals("user@example.com", results.get(2).sub());
+        assertEquals(TokenIntrospection.INACTIVE, results.get(3));
+    }
+
+    @Test
+    void introspect_shouldVerifyDuplicatesOnce() {
+        String token = token("user@example.com", Role.USER);
+
+        List<TokenIntrospection> results = introspectionService.introspect(Collections.nCopies(10, token));
+
+        assertEquals(10, results.size());
+        assertTrue(results.stream().allMatch(TokenIntrospection::active));
+        assertEquals(1, meterRegistry.get("jwt.verify").timer().count());
+        assertEquals(9, meterRegistry.get("token.introspection.duplicates").counter().count());
+    }
+
+    @Test
+    void introspect_shouldKeepOrderAcrossParallelChunks() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tokens.add(i % 7 == 0 ? "invalid-" + i : token("user" + i + "@example.com", Role.USER));
+        }
+
+        List<TokenIntrospection> results = introspectionService.introspect(tokens);
+
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i % 7 == 0) {
+                assertFalse(results.get(i).active());
+            } else {
+                assertEquals("user" + i + "@example.com", results.get(i).sub());
+            }
+        }
+        assertEquals(300, meterRegistry.get("jwt.verify").timer().count());
+    }
+
+    @Test
+    void introspect_shouldRejectOversizedBatch() {
+        assertThrows(InvalidIntrospectionRequestException.class,
+                () -> introspectionService.introspect(Collections.nCopies(501, "token")));
+    }
+
+    @Test
+    void introspectStream_shouldWriteOneLinePerInputLineAcrossChunks() throws Exception {
+        String token = token("user@example.com", Role.USER);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            input.append(i % 2 == 0 ? token : "garbage").append('\n');
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        introspectionService.introspect(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)),
+                -1, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(250, lines.length);
+        assertTrue(lines[0].startsWith("{\"active\":true,\"sub\":\"user@example.com\",\"role\":\"USER\",\"exp\":"), lines[0]);
+        assertEquals("{\"active\":false}", lines[1]);
+        assertEquals(3, meterRegistry.get("token.introspection.batch.size").summary().count());
+    }
+
+    @Test
+    void introspectStream_shouldRejectMoreTokensThanTheLimit() {
+        byte[] input = "garbage\n".repeat(1001).getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IntrospectionPayloadTooLargeException.class, () -> introspectionService.introspect(
+                new ByteArrayInputStream(input), input.length, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void introspectStream_shouldRejectALargerDeclaredLengthBeforeReading() {
+        ByteArrayInputStream input = new ByteArrayInputStream("garbage\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IntrospectionPayloadTooLargeException.class, () -> introspectionService.introspect(
+                input, DataSize.ofMegabytes(1).toBytes() + 1, new ByteArrayOutputStream()));
+        assertEquals(8, input.available());
+    }
+
+    @Test
+    void introspectStream_shouldRejectABodyThatPassesTheByteLimitWithoutDeclaringIt() {
+        // Few lines, so only the byte limit applies
+        byte[] input = ("x".repeat(600_000) + "\n").repeat(2).getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IntrospectionPayloadTooLargeException.class, () -> introspectionService.introspect(
+                new ByteArrayInputStream(input), -1, new ByteArrayOutputStream()));
+    }
+}
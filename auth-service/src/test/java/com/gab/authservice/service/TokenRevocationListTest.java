@@ -0,0 +1,131 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.RevokedToken;
+import com.gab.authservice.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The revocation denylist against an in-memory H2 database, with two lists standing in for two service instances.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationListTest {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList instanceA;
+    private TokenRevocationList instanceB;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        instanceA = new TokenRevocationList(revokedTokenRepository, 100, meterRegistry);
+        instanceB = new TokenRevocationList(revokedTokenRepository, 100, new SimpleMeterRegistry());
+        instanceA.init();
+        instanceB.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void revoke_shouldApplyLocallyAtOnceAndElsewhereAfterRefresh() {
+        String jti = UUID.randomUUID().toString();
+
+        instanceA.revoke(jti, Instant.now().plusSeconds(900));
+
+        assertTrue(instanceA.isRevoked(jti));
+        assertFalse(instanceB.isRevoked(jti));
+        instanceB.refresh();
+        assertTrue(instanceB.isRevoked(jti));
+        assertFalse(instanceB.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(instanceB.isRevoked(null));
+    }
+
+    @Test
+    void refresh_shouldOnlyReadNewRowsAndSkipExpiredOnes() {
+        String first = UUID.randomUUID().toString();
+        instanceA.revoke(first, Instant.now().plusSeconds(900));
+        instanceB.refresh();
+        String second = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        instanceA.revoke(second, Instant.now().plusSeconds(900));
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(expired).expiresAt(Instant.now().minusSeconds(1)).revokedAt(Instant.now()).build());
+
+        instanceB.refresh();
+
+        assertTrue(instanceB.isRevoked(first));
+        assertTrue(instanceB.isRevoked(second));
+        assertFalse(instanceB.isRevoked(expired));
+        // Instance A has not polled: it holds the two revocations it made itself, not the expired row
+        assertEquals(2.0, meterRegistry.get("jwt.revocation.entries").gauge().value());
+    }
+
+    @Test
+    void revoke_shouldBeIdempotent() {
+        String jti = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusSeconds(900);
+
+        instanceA.revoke(jti, expiresAt);
+        instanceA.revoke(jti, expiresAt);
+
+        assertTrue(instanceA.isRevoked(jti));
+        assertEquals(1, revokedTokenRepository.count());
+    }
+
+    @Test
+    void deleteExpired_shouldDeleteOnlyExpiredRows() {
+        instanceA.revoke(UUID.randomUUID().toString(), Instant.now().plusSeconds(900));
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(UUID.randomUUID().toString()).expiresAt(Instant.now().minusSeconds(1)).revokedAt(Instant.now()).build());
+
+        instanceA.deleteExpired();
+
+        assertEquals(1, revokedTokenRepository.count());
+    }
+
+    @Test
+    void revokedTokenSet_shouldDropExpiredEntriesAndGrowPastExpectedSize() {
+        Instant now = Instant.now();
+        RevokedTokenSet set = RevokedTokenSet.empty(42, 4)
+                .with(Map.of("short-lived", now.plusSeconds(1), "long-lived", now.plusSeconds(900)), now, 4);
+        long initialBytes = set.sizeInBytes();
+
+        RevokedTokenSet later = set.with(Map.of(), now.plusSeconds(2), 4);
+        assertFalse(later.contains("short-lived"));
+        assertTrue(later.contains("long-lived"));
+        assertTrue(set.contains("short-lived"), "snapshots are immutable");
+
+        // Far more entries than expected: the filter is resized and keeps answering exactly
+        Map<String, Instant> many = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            many.put("jti-" + i, now.plusSeconds(900));
+        }
+        RevokedTokenSet grown = later.with(many, now, 4);
+        assertEquals(1001, grown.size());
+        assertTrue(grown.sizeInBytes() > initialBytes);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(grown.contains("jti-" + i));
+            assertFalse(grown.contains("other-" + i));
+        }
+    }
+}
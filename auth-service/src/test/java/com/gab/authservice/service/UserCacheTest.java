@@ -0,0 +1,96 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.config.ReadYourWritesWindow;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.repository.UserCredentials;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = new UserCache(userRepository, new ReadYourWritesWindow(false, Duration.ZERO),
+                true, 100, Duration.ofMinutes(5), meterRegistry);
+        user = new User(UUID.randomUUID(), "test@example.com", "{bcrypt}hash", Role.USER);
+        when(userRepository.findCredentialsByEmailNormalized("test@example.com"))
+                .thenReturn(Optional.of(new UserCredentials(user.getId(), "{bcrypt}hash", Role.USER)));
+    }
+
+    @Test
+    void findByEmail_shouldHitDatabaseOnceForRepeatedLookups() {
+        User first = userCache.findByEmail("test@example.com").orElseThrow();
+        User second = userCache.findByEmail("test@example.com").orElseThrow();
+
+        verify(userRepository, times(1)).findCredentialsByEmailNormalized("test@example.com");
+        assertEquals(user.getId(), second.getId());
+        assertEquals("{bcrypt}hash", second.getPassword());
+        // Each caller gets its own copy
+        assertNotSame(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+        assertEquals(1L, meterRegistry.get("user.cache.load").timer().count());
+    }
+
+    @Test
+    void findByEmail_shouldNotCacheUnknownEmails() {
+        when(userRepository.findCredentialsByEmailNormalized("new@example.com")).thenReturn(Optional.empty());
+
+        assertTrue(userCache.findByEmail("new@example.com").isEmpty());
+        assertTrue(userCache.findByEmail("new@example.com").isEmpty());
+
+        verify(userRepository, times(2)).findCredentialsByEmailNormalized("new@example.com");
+    }
+
+    @Test
+    void findByEmail_shouldServeEverySpellingOfTheEmailFromOneEntry() {
+        userCache.findByEmail("test@example.com");
+
+        // Lookups are by normalized email, so a case variant is the same account
+        User variant = userCache.findByEmail(" Test@Example.COM").orElseThrow();
+
+        assertEquals(user.getId(), variant.getId());
+        assertEquals("test@example.com", variant.getEmail());
+        verify(userRepository, times(1)).findCredentialsByEmailNormalized(any());
+    }
+
+    @Test
+    void changeRole_shouldInvalidateSoTheNextLookupSeesTheNewRole() {
+        UserAdminService userAdminService = new UserAdminService(userRepository, userCache);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        assertEquals(Role.USER, userCache.findByEmail("test@example.com").orElseThrow().getRole());
+
+        // The database now holds the new role
+        when(userRepository.findCredentialsByEmailNormalized("test@example.com"))
+                .thenReturn(Optional.of(new UserCredentials(user.getId(), "{bcrypt}hash", Role.ADMIN)));
+        assertTrue(userAdminService.changeRole(user.getId(), Role.ADMIN));
+
+        verify(userRepository).updateRole(user.getId(), Role.ADMIN);
+        assertEquals(Role.ADMIN, userCache.findByEmail("test@example.com").orElseThrow().getRole());
+    }
+
+    @Test
+    void changeRole_shouldReportUnknownUser() {
+        UserAdminService userAdminService = new UserAdminService(userRepository, userCache);
+        when(userRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertFalse(userAdminService.changeRole(UUID.randomUUID(), Role.ADMIN));
+        verify(userRepository, never()).updateRole(any(), any());
+    }
+}
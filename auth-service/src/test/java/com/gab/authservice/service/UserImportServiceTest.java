@@ -0,0 +1,200 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.config.PasswordEncoders;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.dto.UserImportReport;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.entity.User;
+import com.gab.authservice.exception.InvalidImportException;
+import com.gab.authservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Bulk import against an in-memory H2 database, with the real batch inserts and unique constraint.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Low cost so the test does not spend seconds in bcrypt
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        // Batch size 2 so a handful of rows already spans several batches
+        importService = new UserImportService(jdbcTemplate, transactionManager, passwordEncoder, 2, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importUsers_shouldImportNdjsonAndReportEachProblemRow() {
+        // An account that already exists before the import
+        new AuthService(userRepository, passwordEncoder, mock(JwtService.class), mock(TokenRevocationList.class),
+                mock(RefreshTokenService.class), mock(UserCache.class), mock(AuditLog.class), new SimpleMeterRegistry())
+                .signup(new SignupRequest("existing@example.com", "password"));
+        String legacyHash = "{bcrypt}" + passwordEncoder.encode("legacy-password");
+
+        UserImportReport report = importService.importUsers(input(
+                "{\"email\":\"alice@example.com\",\"password\":\"alice-password\"}",
+                "{\"email\":\"bob@example.com\",\"password_hash\":\"" + legacyHash + "\",\"role\":\"admin\"}",
+                "{\"email\":\"Existing@Example.com\",\"password\":\"x\"}",
+                "",
+                "{\"email\":\"ALICE@example.com\",\"password\":\"again\"}",
+                "{\"email\":\"broken@example.com\",",
+                "{\"email\":\"nopassword@example.com\"}",
+                "{\"email\":\"carol@example.com\",\"password_hash\":\"md5:abc\"}",
+                "{\"email\":\"dave@example.com\",\"password\":\"p\",\"role\":\"ROOT\"}"), UserImportService.Format.NDJSON);
+
+        // The blank line is not a row; case variants of a registered or earlier email are conflicts
+        assertEquals(8, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.conflicts());
+        assertEquals(4, report.invalid());
+        assertEquals(0, report.failed());
+        assertIssue(report, 3, UserImportReport.Status.CONFLICT);
+        assertIssue(report, 5, UserImportReport.Status.CONFLICT);
+        assertIssue(report, 6, UserImportReport.Status.INVALID);
+        assertIssue(report, 7, UserImportReport.Status.INVALID);
+        assertIssue(report, 8, UserImportReport.Status.INVALID);
+        assertIssue(report, 9, UserImportReport.Status.INVALID);
+
+        // Plaintext passwords are hashed, pre-hashed ones are stored as they are
+        User alice = userRepository.findByEmail("alice@example.com").orElseThrow();
+        assertTrue(passwordEncoder.matches("alice-password", alice.getPassword()));
+        assertEquals(Role.USER, alice.getRole());
+        User bob = userRepository.findByEmail("bob@example.com").orElseThrow();
+        assertEquals(legacyHash, bob.getPassword());
+        assertEquals(Role.ADMIN, bob.getRole());
+        assertEquals(Role.ADMIN.code(), jdbcTemplate.queryForObject(
+                "SELECT role FROM users WHERE email_normalized = ?", Short.class, "bob@example.com"));
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    void importUsers_shouldRejectHashesWhosePayloadDoesNotMatchTheirId() {
+        String bcrypt = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 4, 1, 1000).encode("password");
+        String argon2 = PasswordEncoders.delegating(PasswordEncoders.ARGON2, 4, 1, 1000).encode("password");
+        String pbkdf2 = PasswordEncoders.delegating(PasswordEncoders.PBKDF2, 4, 1, 1000).encode("password");
+        String argon2Salt = argon2.substring(0, argon2.lastIndexOf('$'));
+
+        UserImportReport report = importService.importUsers(input(
+                hashRow("valid-bcrypt", bcrypt),
+                hashRow("valid-argon2", argon2),
+                hashRow("valid-pbkdf2", pbkdf2),
+                hashRow("bcrypt-garbage", "{bcrypt}garbage"),
+                hashRow("bcrypt-short", bcrypt.substring(0, bcrypt.length() - 1)),
+                hashRow("argon2-garbage", "{argon2}garbage"),
+                hashRow("argon2-no-hash", argon2Salt),
+                hashRow("argon2-other-variant", argon2.replace("$argon2id$", "$argon2x$")),
+                hashRow("pbkdf2-garbage", "{pbkdf2}garbage"),
+                hashRow("pbkdf2-short", pbkdf2.substring(0, pbkdf2.length() - 2)),
+                hashRow("pbkdf2-not-hex", pbkdf2.substring(0, pbkdf2.length() - 1) + "g")),
+                UserImportService.Format.NDJSON);
+
+        assertEquals(3, report.imported());
+        assertEquals(8, report.invalid());
+        for (long line = 4; line <= 11; line++) {
+            assertIssue(report, line, UserImportReport.Status.INVALID);
+        }
+        // Every imported hash can be logged in with
+        PasswordEncoder matcher = PasswordEncoders.delegating(PasswordEncoders.BCRYPT, 4, 1, 1000);
+        for (String name : List.of("valid-bcrypt", "valid-argon2", "valid-pbkdf2")) {
+            User user = userRepository.findByEmail(name + "@example.com").orElseThrow();
+            assertTrue(matcher.matches("password", user.getPassword()), name);
+        }
+    }
+
+    @Test
+    void importUsers_shouldReadCsvWithQuotedFieldsInAnyColumnOrder() {
+        UserImportReport report = importService.importUsers(input(
+                "role,password,email",
+                "USER,\"pa,ss\"\"word\",erin@example.com",
+                ",plain,frank@example.com",
+                "USER,\"unterminated,grace@example.com"), UserImportService.Format.CSV);
+
+        assertEquals(3, report.rows());
+        assertEquals(2, report.imported());
+        assertIssue(report, 4, UserImportReport.Status.INVALID);
+        User erin = userRepository.findByEmail("erin@example.com").orElseThrow();
+        assertTrue(passwordEncoder.matches("pa,ss\"word", erin.getPassword()));
+        assertTrue(userRepository.findByEmail("frank@example.com").isPresent());
+    }
+
+    @Test
+    void importUsers_shouldRejectCsvWithoutEmailColumn() {
+        assertThrows(InvalidImportException.class, () -> importService.importUsers(
+                input("username,password", "alice,secret"), UserImportService.Format.CSV));
+    }
+
+    @Test
+    void importUsers_shouldOnlyCountIssuesPastTheReportLimit() {
+        UserImportService limited = new UserImportService(jdbcTemplate, transactionManager, passwordEncoder, 2, 2, 3);
+        String[] lines = new String[11];
+        for (int i = 0; i < 10; i++) {
+            lines[i] = "{\"email\":\"invalid-" + i + "\",\"password\":\"p\"}";
+        }
+        lines[10] = "{\"email\":\"valid@example.com\",\"password\":\"p\"}";
+
+        UserImportReport report;
+        try {
+            report = limited.importUsers(input(lines), UserImportService.Format.NDJSON);
+        } finally {
+            limited.shutdown();
+        }
+
+        assertEquals(11, report.rows());
+        assertEquals(1, report.imported());
+        assertEquals(10, report.invalid());
+        assertEquals(3, report.issues().size());
+        assertTrue(report.issuesTruncated());
+        assertEquals(List.of(1L, 2L, 3L), report.issues().stream().map(UserImportReport.RowIssue::line).toList());
+    }
+
+    private static String hashRow(String name, String passwordHash) {
+        return "{\"email\":\"" + name + "@example.com\",\"password_hash\":\"" + passwordHash + "\"}";
+    }
+
+    private static InputStream input(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertIssue(UserImportReport report, long line, UserImportReport.Status status) {
+        List<UserImportReport.RowIssue> issues = report.issues().stream().filter(issue -> issue.line() == line).toList();
+        assertEquals(1, issues.size(), "issues for line " + line);
+        assertEquals(status, issues.get(0).status(), "status of line " + line);
+    }
+}
@@ -0,0 +1,40 @@
+#!/bin/bash
+# Runs the JMH benchmarks (src/jmh/java) with the GC profiler and compares the result against the stored baseline.
+#
+#   ./benchmark.sh                      run everything, fail if anything regressed more than MAX_REGRESSION percent
+#   ./benchmark.sh JwtServiceBenchmark  run a subset (JMH include regex)
+#   ./benchmark.sh --update-baseline    run and store the result as the new baseline
+#
+# Baselines are hardware specific: refresh it on the machine that runs the comparison.
+
+set -e
+
+# Paths below are relative to the auth-service module
+cd "$(dirname "$0")/auth-service"
+
+# The module is built on its own below, so the shared core module has to be in the local repository
+../mvnw -q -f ../pom.xml -pl core -am -DskipTests install
+
+BASELINE=src/jmh/baseline.json
+RESULT=target/jmh-result.json
+MAX_REGRESSION=${MAX_REGRESSION:-10}
+
+UPDATE=false
+if [ "$1" == "--update-baseline" ]; then
+    UPDATE=true
+    shift
+fi
+
+echo "Running benchmarks..."
+../mvnw -q -Pbenchmark test-compile exec:exec -Dbenchmark.args="-prof gc -rf json -rff $RESULT $*"
+
+if [ "$UPDATE" == "true" ]; then
+    cp "$RESULT" "$BASELINE"
+    echo "Baseline updated: $BASELINE"
+    exit 0
+fi
+
+echo "Comparing against $BASELINE (max regression ${MAX_REGRESSION}%)..."
+../mvnw -q -Pbenchmark exec:exec \
+    -Dbenchmark.main=com.gab.authservice.benchmark.BaselineComparator \
+    -Dbenchmark.args="$BASELINE $RESULT $MAX_REGRESSION"
@@ -0,0 +1,67 @@
+package com.gab.authservice.config;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * The stored password hash format, shared by both runtimes so either can check hashes the other wrote.
+ * <p>
+ * Hashes are in {@link DelegatingPasswordEncoder} format ({@code {bcrypt}...}, {@code {argon2}...},
+ * {@code {pbkdf2}...}). Hashes written before the prefix existed are plain bcrypt and still match. bcrypt and argon2
+ * hashes record their own cost; PBKDF2 hashes do not, so the PBKDF2 iteration count must be the same everywhere.
+ * </p>
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+    public static final String PBKDF2 = "pbkdf2";
+
+    // Argon2id parameters besides iterations, as in Spring Security's defaults
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int ARGON2_MEMORY_KB = 1 << 14;
+    // PBKDF2 salt, and the key Pbkdf2PasswordEncoder derives by default (256 bits)
+    private static final int PBKDF2_SALT_LENGTH = 16;
+    private static final int PBKDF2_KEY_LENGTH = 32;
+
+    /**
+     * Length of a {@code {pbkdf2}} hash written by {@link #delegating}, without the prefix: salt and key, hex-encoded.
+     * The hash carries nothing else, so its length is all there is to check an imported one against.
+     */
+    public static final int PBKDF2_HEX_LENGTH = 2 * (PBKDF2_SALT_LENGTH + PBKDF2_KEY_LENGTH);
+
+    private PasswordEncoders() {
+    }
+
+    /**
+     * An encoder that writes new hashes with {@code algorithm} at the given cost and matches hashes of all three.
+     */
+    public static DelegatingPasswordEncoder delegating(String algorithm, int bcryptStrength, int argon2Iterations,
+                                                       int pbkdf2Iterations) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                ARGON2, argon2(argon2Iterations),
+                PBKDF2, new Pbkdf2PasswordEncoder("", PBKDF2_SALT_LENGTH, pbkdf2Iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unsupported password-hashing.algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain bcrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    public static Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+                ARGON2_MEMORY_KB, iterations);
+    }
+}
@@ -0,0 +1,55 @@
+package com.gab.authservice.config;
+
+import com.gab.authservice.entity.Role;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * The authentication the JWT filters of both runtimes set for a verified access token: the token's subject and its
+ * {@link Role}.
+ * <p>
+ * The authorities are the role's precompiled list rather than a copy, so nothing is allocated for them per request,
+ * and {@code RoleAuthorizationManager} checks the role's mask directly instead of scanning authority strings.
+ * </p>
+ */
+public class RoleAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final String subject;
+    private final Role role;
+
+    public RoleAuthenticationToken(String subject, Role role) {
+        super(null);
+        this.subject = subject;
+        this.role = role;
+        super.setAuthenticated(true);
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return role.authorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return subject;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot set this token to trusted; it is created authenticated");
+        }
+        super.setAuthenticated(false);
+    }
+}
@@ -0,0 +1,142 @@
+package com.gab.authservice.entity;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * User roles and their hierarchy: a role grants itself and every role it includes, transitively (ADMIN > USER).
+ * {@code SERVICE} is for other services' accounts, e.g. a gateway introspecting tokens, and grants nothing else.
+ * <p>
+ * The hierarchy is compiled once when the enum is initialized. Each role gets a bit, a mask of the bits it grants and
+ * an immutable list of the {@code ROLE_} authorities it grants, shared by every authentication of that role. So
+ * {@link #grants(Role)} is a single AND, and no authority objects are created per request.
+ * </p>
+ * Roles are stored by their {@link #code()} ({@code users.role}, a smallint), so constants can be added, renamed or
+ * reordered, but a code must never change or be reused; at most 64 roles are supported.
+ */
+public enum Role {
+    USER(1),
+    ADMIN(2, USER),
+    SERVICE(3);
+
+    private static final Map<String, Role> BY_NAME =
+            Stream.of(values()).collect(Collectors.toUnmodifiableMap(Role::name, Function.identity()));
+    private static final Map<String, Role> BY_AUTHORITY =
+            Stream.of(values()).collect(Collectors.toUnmodifiableMap(Role::authority, Function.identity()));
+    private static final Map<Short, Role> BY_CODE =
+            Stream.of(values()).collect(Collectors.toUnmodifiableMap(Role::code, Function.identity()));
+
+    private final short code;
+    private final Role[] includes;
+    private final long bit;
+    private long mask;
+    private List<GrantedAuthority> authorities;
+
+    static {
+        for (Role role : values()) {
+            role.mask = role.bit;
+            for (Role included : role.includes) {
+                // Included roles are declared first, so their masks are complete
+                role.mask |= included.mask;
+            }
+        }
+        for (Role role : values()) {
+            List<GrantedAuthority> granted = new ArrayList<>();
+            Role[] all = values();
+            for (int i = all.length - 1; i >= 0; i--) {
+                Role other = all[i];
+                if (role.grants(other)) {
+                    granted.add(new SimpleGrantedAuthority(other.authority()));
+                }
+            }
+            role.authorities = List.copyOf(granted);
+        }
+    }
+
+    Role(int code, Role... includes) {
+        this.code = (short) code;
+        this.includes = includes;
+        this.bit = 1L << ordinal();
+    }
+
+    /**
+     * Whether this role grants {@code required}, itself or through the hierarchy.
+     */
+    public boolean grants(Role required) {
+        return (mask & required.bit) != 0;
+    }
+
+    /**
+     * The bits of every role this role grants; {@code (mask() & required.bit()) != 0} is {@link #grants(Role)}.
+     */
+    public long mask() {
+        return mask;
+    }
+
+    public long bit() {
+        return bit;
+    }
+
+    /**
+     * The value stored for this role in {@code users.role}.
+     */
+    public short code() {
+        return code;
+    }
+
+    /**
+     * The Spring Security authority of this role alone, {@code ROLE_} plus its name.
+     */
+    public String authority() {
+        return "ROLE_" + name();
+    }
+
+    /**
+     * The authorities of every role this role grants, later-declared first; the same immutable list on every call.
+     */
+    public List<GrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    /**
+     * The role with this name, or null, without the exception {@link #valueOf(String)} throws for unknown names.
+     */
+    public static Role fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+
+    /**
+     * The role stored as {@code code}.
+     *
+     * @throws IllegalArgumentException if no role has this code
+     */
+    public static Role fromCode(short code) {
+        Role role = BY_CODE.get(code);
+        if (role == null) {
+            throw new IllegalArgumentException("Unknown role code: " + code);
+        }
+        return role;
+    }
+
+    /**
+     * The mask of the roles granted by any of these authorities; authorities that are not roles are ignored.
+     */
+    public static long mask(Iterable<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            Role role = name == null ? null : BY_AUTHORITY.get(name);
+            if (role != null) {
+                mask |= role.mask;
+            }
+        }
+        return mask;
+    }
+}
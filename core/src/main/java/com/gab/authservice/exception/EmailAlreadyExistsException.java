@@ -0,0 +1,11 @@
+package com.gab.authservice.exception;
+
+/**
+ * Thrown when a signup hits the unique constraint on {@code users.email}. Mapped to {@code 409 Conflict}.
+ */
+public class EmailAlreadyExistsException extends RuntimeException {
+
+    public EmailAlreadyExistsException() {
+        super("Email already exists");
+    }
+}
@@ -0,0 +1,20 @@
+package com.gab.authservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a bounded resource (e.g. the password hashing pool) is saturated and the request is shed
+ * instead of queued. Mapped to {@code 503 Service Unavailable} with a {@code Retry-After} header.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.gab.authservice.service;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature and expiry have already been verified.
+ * Produced once per request by {@link JwtService#verify(String)} and reused by the caller.
+ * {@code tokenId} is the {@code jti}, by which the token can be revoked; tokens issued before it existed have none.
+ */
+public record AccessTokenClaims(String subject, String role, Instant expiresAt, String tokenId) {
+}
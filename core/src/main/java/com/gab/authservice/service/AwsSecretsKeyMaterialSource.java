@@ -0,0 +1,99 @@
+package com.gab.authservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Production: reads the signing key pair from AWS Secrets Manager.
+ * The secret is a JSON object with {@code private-key} and {@code public-key} PEM entries, an optional
+ * {@code algorithm} (e.g. {@code ES256}) and an optional {@code verification-public-keys} array of PEMs that are
+ * accepted for verification during a rotation but not used for signing. The single {@code previous-public-key} PEM
+ * that field replaced is still read, with a warning, so a rotation under way with an older secret keeps verifying.
+ */
+@Slf4j
+@Component
+@Profile("!local")
+public class AwsSecretsKeyMaterialSource implements KeyMaterialSource {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String secretName = "auth-microservice/jwt/keys";
+    private final Region region = Region.of("us-east-1");
+    // Created on first use (the background key refresh and a first-request load can race for it). Guarded by a lock
+    // rather than synchronized so a virtual thread building the client does not pin its carrier thread
+    private final ReentrantLock clientLock = new ReentrantLock();
+    private volatile SecretsManagerClient client;
+
+    private SecretsManagerClient getSecretsManagerClient() {
+        SecretsManagerClient existing = client;
+        if (existing != null) {
+            return existing;
+        }
+        clientLock.lock();
+        try {
+            if (client == null) {
+                client = SecretsManagerClient.builder()
+                        .region(region)
+                        .build();
+            }
+            return client;
+        } finally {
+            clientLock.unlock();
+        }
+    }
+
+    private String getSecretFromAWS() {
+        GetSecretValueRequest getSecretValueRequest = GetSecretValueRequest.builder()
+                .secretId(secretName)
+                .build();
+
+        try {
+            GetSecretValueResponse getSecretValueResponse = getSecretsManagerClient().getSecretValue(getSecretValueRequest);
+            return getSecretValueResponse.secretString();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch JWT keys from AWS Secrets Manager", e);
+        }
+    }
+
+    @Override
+    public KeyMaterial fetch() {
+        return parse(getSecretFromAWS());
+    }
+
+    static KeyMaterial parse(String secret) {
+        JsonNode keys;
+        try {
+            keys = MAPPER.readTree(secret);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse keys from AWS secret", e);
+        }
+        List<String> verificationPublicKeys = new ArrayList<>();
+        keys.path("verification-public-keys").forEach(pem -> verificationPublicKeys.add(pem.asText()));
+        String previousPublicKey = text(keys, "previous-public-key");
+        if (previousPublicKey != null) {
+            // Logged on every refresh until the secret is migrated
+            log.warn("AWS secret field previous-public-key is deprecated; move it into verification-public-keys");
+            if (!verificationPublicKeys.contains(previousPublicKey)) {
+                verificationPublicKeys.add(previousPublicKey);
+            }
+        }
+        return new KeyMaterial(text(keys, "private-key"), text(keys, "public-key"), text(keys, "algorithm"),
+                List.copyOf(verificationPublicKeys));
+    }
+
+    private static String text(JsonNode keys, String field) {
+        JsonNode value = keys.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,246 @@
+package com.gab.authservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The subset of CBOR (RFC 8949) that {@link CwtTokens} needs: integers, byte and text strings, arrays, maps and tags,
+ * all with definite lengths. Nothing else is written; anything else read, and anything truncated, fails with an
+ * {@link IllegalArgumentException}.
+ */
+final class Cbor {
+
+    static final int UNSIGNED = 0;
+    static final int NEGATIVE = 1;
+    static final int BYTES = 2;
+    static final int TEXT = 3;
+    static final int ARRAY = 4;
+    static final int MAP = 5;
+    static final int TAG = 6;
+
+    // How deep skip() follows nested arrays and maps before giving up on the input
+    private static final int MAX_DEPTH = 8;
+
+    private Cbor() {
+    }
+
+    static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int size;
+
+        Writer integer(long value) {
+            return value >= 0 ? head(UNSIGNED, value) : head(NEGATIVE, -1 - value);
+        }
+
+        Writer bytes(byte[] value) {
+            head(BYTES, value.length);
+            append(value);
+            return this;
+        }
+
+        Writer text(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            head(TEXT, utf8.length);
+            append(utf8);
+            return this;
+        }
+
+        Writer array(int size) {
+            return head(ARRAY, size);
+        }
+
+        Writer map(int size) {
+            return head(MAP, size);
+        }
+
+        Writer tag(long tag) {
+            return head(TAG, tag);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        // The shortest head for the value, as deterministic encoding (RFC 8949 section 4.2) requires
+        private Writer head(int majorType, long value) {
+            int type = majorType << 5;
+            if (value < 24) {
+                write(type | (int) value);
+            } else if (value < 0x100) {
+                write(type | 24);
+                write((int) value);
+            } else if (value < 0x10000) {
+                write(type | 25);
+                writeBigEndian(value, 2);
+            } else if (value < 0x100000000L) {
+                write(type | 26);
+                writeBigEndian(value, 4);
+            } else {
+                write(type | 27);
+                writeBigEndian(value, 8);
+            }
+            return this;
+        }
+
+        private void writeBigEndian(long value, int length) {
+            for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        private void write(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        private void append(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean atEnd() {
+            return position == data.length;
+        }
+
+        int peekMajorType() {
+            require(1);
+            return (data[position] & 0xff) >>> 5;
+        }
+
+        long integer() {
+            int majorType = peekMajorType();
+            if (majorType == UNSIGNED) {
+                return nonNegative(head(UNSIGNED));
+            }
+            if (majorType == NEGATIVE) {
+                return -1 - nonNegative(head(NEGATIVE));
+            }
+            throw new IllegalArgumentException("Expected a CBOR integer, found major type " + majorType);
+        }
+
+        byte[] bytes() {
+            int length = length(head(BYTES));
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        String text() {
+            int length = length(head(TEXT));
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int array() {
+            return length(head(ARRAY));
+        }
+
+        int map() {
+            return length(head(MAP));
+        }
+
+        long tag() {
+            return head(TAG);
+        }
+
+        /**
+         * Skips the next data item, e.g. the value of a map key the caller does not know.
+         */
+        void skip() {
+            skip(0);
+        }
+
+        private void skip(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("CBOR nested too deeply");
+            }
+            int majorType = peekMajorType();
+            switch (majorType) {
+                case UNSIGNED, NEGATIVE -> integer();
+                case BYTES, TEXT -> position += length(head(majorType));
+                case ARRAY -> {
+                    int items = array();
+                    for (int i = 0; i < items; i++) {
+                        skip(depth + 1);
+                    }
+                }
+                case MAP -> {
+                    int entries = map();
+                    for (int i = 0; i < 2 * entries; i++) {
+                        skip(depth + 1);
+                    }
+                }
+                case TAG -> {
+                    tag();
+                    skip(depth + 1);
+                }
+                default -> throw new IllegalArgumentException("Unsupported CBOR major type " + majorType);
+            }
+        }
+
+        // The argument of the head, unsigned; indefinite lengths and reserved encodings are rejected
+        private long head(int expectedMajorType) {
+            require(1);
+            int initial = data[position] & 0xff;
+            int majorType = initial >>> 5;
+            if (majorType != expectedMajorType) {
+                throw new IllegalArgumentException(
+                        "Expected CBOR major type " + expectedMajorType + ", found " + majorType);
+            }
+            position++;
+            int info = initial & 0x1f;
+            if (info < 24) {
+                return info;
+            }
+            if (info > 27) {
+                throw new IllegalArgumentException("Unsupported CBOR additional information " + info);
+            }
+            int length = 1 << (info - 24);
+            require(length);
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value = (value << 8) | (data[position++] & 0xff);
+            }
+            return value;
+        }
+
+        private int length(long value) {
+            if (value < 0 || value > data.length - position) {
+                throw new IllegalArgumentException("CBOR length " + value + " exceeds the input");
+            }
+            return (int) value;
+        }
+
+        private static long nonNegative(long value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("CBOR integer out of range");
+            }
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (data.length - position < bytes) {
+                throw new IllegalArgumentException("Truncated CBOR");
+            }
+        }
+    }
+}
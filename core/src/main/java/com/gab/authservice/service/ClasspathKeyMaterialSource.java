@@ -0,0 +1,53 @@
+package com.gab.authservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Local development: reads the signing key pair from the classpath (see {@code jwt.private-key-path}), plus any
+ * {@code jwt.verification-public-key-paths} accepted for verification during a rotation. Paths with a {@code file:}
+ * prefix are read from the file system instead, e.g. to share one key pair between the two runtimes.
+ */
+@Component
+@Profile("local")
+public class ClasspathKeyMaterialSource implements KeyMaterialSource {
+
+    private static final ResourceLoader RESOURCES = new DefaultResourceLoader();
+
+    @Value("${jwt.private-key-path}")
+    private String privateKeyPath;
+
+    @Value("${jwt.public-key-path}")
+    private String publicKeyPath;
+
+    // Empty: derived from the key type (RS256 for RSA, ES256 for EC P-256, EdDSA for Ed25519)
+    @Value("${jwt.algorithm:}")
+    private String algorithm;
+
+    @Value("${jwt.verification-public-key-paths:}")
+    private String[] verificationPublicKeyPaths;
+
+    @Override
+    public KeyMaterial fetch() {
+        List<String> verificationPublicKeys = Arrays.stream(verificationPublicKeyPaths)
+                .filter(path -> !path.isBlank())
+                .map(this::read)
+                .toList();
+        return new KeyMaterial(read(privateKeyPath), read(publicKeyPath), algorithm, verificationPublicKeys);
+    }
+
+    private String read(String path) {
+        try {
+            return new String(RESOURCES.getResource(path).getInputStream().readAllBytes());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading key from " + path, e);
+        }
+    }
+}
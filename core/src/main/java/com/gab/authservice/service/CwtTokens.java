@@ -0,0 +1,290 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.Role;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Access tokens of the {@link TokenProfile#CWT} profile: a CBOR Web Token (RFC 8392) signed as a COSE_Sign1 structure
+ * (RFC 9052), base64url-encoded without padding so it fits an {@code Authorization} header.
+ * <p>
+ * The protected header holds the COSE algorithm, the unprotected header the {@code kid}: the key's thumbprint as
+ * 32 raw bytes instead of its 43 base64url characters. The claims are {@code sub} (2), {@code exp} (4, seconds) and
+ * {@code cti} (7, the token id as raw bytes) under their registered integer keys, and the role code under {@code "r"},
+ * as in the compact JWT. Verification failures are thrown as the jjwt exceptions a JWT would fail with, so both
+ * formats are counted under the same {@code jwt.verify.rejected} reasons.
+ * </p>
+ */
+final class CwtTokens {
+
+    private static final int COSE_SIGN1_TAG = 18;
+    private static final int HEADER_ALG = 1;
+    private static final int HEADER_KID = 4;
+    private static final int CLAIM_SUB = 2;
+    private static final int CLAIM_EXP = 4;
+    private static final int CLAIM_CTI = 7;
+    static final String CLAIM_ROLE = "r";
+
+    private static final byte[] NO_EXTERNAL_AAD = new byte[0];
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    private CwtTokens() {
+    }
+
+    /**
+     * Signs the claims with the current signing key of {@code keys}.
+     *
+     * @throws IllegalStateException if the signing algorithm has no COSE counterpart here
+     */
+    static String sign(JwtKeys keys, String subject, short roleCode, byte[] tokenId, Instant expiresAt) {
+        CoseAlgorithm algorithm = CoseAlgorithm.of(keys.algorithm().getId());
+        if (algorithm == null) {
+            throw new IllegalStateException("No COSE algorithm for " + keys.algorithm().getId());
+        }
+        byte[] protectedHeader = new Cbor.Writer().map(1).integer(HEADER_ALG).integer(algorithm.coseId).toByteArray();
+        // Keys in the canonical order: the integer keys ascending, then "r"
+        byte[] payload = new Cbor.Writer().map(4)
+                .integer(CLAIM_SUB).text(subject)
+                .integer(CLAIM_EXP).integer(expiresAt.getEpochSecond())
+                .integer(CLAIM_CTI).bytes(tokenId)
+                .text(CLAIM_ROLE).integer(roleCode)
+                .toByteArray();
+        byte[] signature;
+        try {
+            Signature signer = algorithm.newSignature();
+            signer.initSign(keys.signingKey());
+            signer.update(toBeSigned(protectedHeader, payload));
+            signature = signer.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign CWT with " + algorithm, e);
+        }
+        byte[] token = new Cbor.Writer().tag(COSE_SIGN1_TAG).array(4)
+                .bytes(protectedHeader)
+                .map(1).integer(HEADER_KID).bytes(BASE64URL_DECODER.decode(keys.keyId()))
+                .bytes(payload)
+                .bytes(signature)
+                .toByteArray();
+        return BASE64URL.encodeToString(token);
+    }
+
+    /**
+     * Verifies the signature and expiry of a token issued by {@link #sign} with any key of {@code keys} and returns its
+     * claims. A role code no {@link Role} has is returned as a null role, for the caller to reject.
+     */
+    static AccessTokenClaims verify(JwtKeys keys, String token) {
+        Cbor.Reader structure;
+        try {
+            structure = new Cbor.Reader(BASE64URL_DECODER.decode(token));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("CWT is not base64url", e);
+        }
+        try {
+            if (structure.peekMajorType() == Cbor.TAG && structure.tag() != COSE_SIGN1_TAG) {
+                throw new UnsupportedJwtException("Not a COSE_Sign1 structure");
+            }
+            if (structure.array() != 4) {
+                throw new MalformedJwtException("COSE_Sign1 must have 4 elements");
+            }
+            byte[] protectedHeader = structure.bytes();
+            String keyId = readKeyId(structure);
+            byte[] payload = structure.bytes();
+            byte[] signature = structure.bytes();
+            if (!structure.atEnd()) {
+                throw new MalformedJwtException("Trailing bytes after COSE_Sign1");
+            }
+
+            CoseAlgorithm algorithm = readAlgorithm(protectedHeader);
+            PublicKey key = keyId != null ? keys.keysById().get(keyId) : keys.keysByAlgorithm().get(algorithm.name());
+            if (key == null) {
+                throw new UnsupportedJwtException("No verification key for the CWT");
+            }
+            if (!verifySignature(algorithm, key, toBeSigned(protectedHeader, payload), signature)) {
+                throw new SignatureException("CWT signature does not match");
+            }
+            return readClaims(payload);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Malformed CWT: " + e.getMessage(), e);
+        }
+    }
+
+    // Sig_structure: ["Signature1", protected, external_aad, payload]
+    private static byte[] toBeSigned(byte[] protectedHeader, byte[] payload) {
+        return new Cbor.Writer().array(4)
+                .text("Signature1")
+                .bytes(protectedHeader)
+                .bytes(NO_EXTERNAL_AAD)
+                .bytes(payload)
+                .toByteArray();
+    }
+
+    private static String readKeyId(Cbor.Reader structure) {
+        String keyId = null;
+        int entries = structure.map();
+        for (int i = 0; i < entries; i++) {
+            if (readKey(structure) == HEADER_KID) {
+                keyId = BASE64URL.encodeToString(structure.bytes());
+            } else {
+                structure.skip();
+            }
+        }
+        return keyId;
+    }
+
+    // An integer map key; any other key is skipped and read as 0, which no header or claim here uses
+    private static long readKey(Cbor.Reader map) {
+        if (map.peekMajorType() <= Cbor.NEGATIVE) {
+            return map.integer();
+        }
+        map.skip();
+        return 0;
+    }
+
+    private static CoseAlgorithm readAlgorithm(byte[] protectedHeader) {
+        Cbor.Reader header = new Cbor.Reader(protectedHeader);
+        Long coseId = null;
+        int entries = header.map();
+        for (int i = 0; i < entries; i++) {
+            if (readKey(header) == HEADER_ALG) {
+                coseId = header.integer();
+            } else {
+                header.skip();
+            }
+        }
+        CoseAlgorithm algorithm = coseId == null ? null : CoseAlgorithm.of(coseId);
+        if (algorithm == null) {
+            throw new UnsupportedJwtException("Unsupported COSE algorithm: " + coseId);
+        }
+        return algorithm;
+    }
+
+    private static boolean verifySignature(CoseAlgorithm algorithm, PublicKey key, byte[] toBeSigned,
+                                           byte[] signature) {
+        try {
+            Signature verifier = algorithm.newSignature();
+            verifier.initVerify(key);
+            verifier.update(toBeSigned);
+            return verifier.verify(signature);
+        } catch (InvalidKeyException e) {
+            throw new UnsupportedJwtException("The CWT's key does not fit " + algorithm, e);
+        } catch (GeneralSecurityException e) {
+            // A signature of the wrong length or encoding for the algorithm
+            throw new SignatureException("Invalid CWT signature", e);
+        }
+    }
+
+    private static AccessTokenClaims readClaims(byte[] payload) {
+        Cbor.Reader claims = new Cbor.Reader(payload);
+        String subject = null;
+        Instant expiresAt = null;
+        String tokenId = null;
+        String role = null;
+        int entries = claims.map();
+        for (int i = 0; i < entries; i++) {
+            if (claims.peekMajorType() == Cbor.TEXT) {
+                if (claims.text().equals(CLAIM_ROLE)) {
+                    role = roleName(claims.integer());
+                } else {
+                    claims.skip();
+                }
+                continue;
+            }
+            long key = claims.integer();
+            if (key == CLAIM_SUB) {
+                subject = claims.text();
+            } else if (key == CLAIM_EXP) {
+                expiresAt = Instant.ofEpochSecond(claims.integer());
+            } else if (key == CLAIM_CTI) {
+                tokenId = BASE64URL.encodeToString(claims.bytes());
+            } else {
+                claims.skip();
+            }
+        }
+        if (expiresAt == null) {
+            throw new MalformedJwtException("CWT has no exp claim");
+        }
+        if (!Instant.now().isBefore(expiresAt)) {
+            throw new ExpiredJwtException(null, null, "CWT expired at " + expiresAt);
+        }
+        return new AccessTokenClaims(subject, role, expiresAt, tokenId);
+    }
+
+    /**
+     * The name of the role with this code, or null for codes no role has.
+     */
+    static String roleName(long code) {
+        if (code < Short.MIN_VALUE || code > Short.MAX_VALUE) {
+            return null;
+        }
+        try {
+            return Role.fromCode((short) code).name();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The JWS algorithms {@link JwtKeyProvider} signs with and their COSE identifiers (IANA COSE Algorithms registry).
+     * ECDSA signatures are the fixed-length concatenation of r and s in COSE as in JWS, hence P1363 format.
+     */
+    private enum CoseAlgorithm {
+        RS256(-257, "SHA256withRSA"),
+        RS384(-258, "SHA384withRSA"),
+        RS512(-259, "SHA512withRSA"),
+        PS256(-37, "RSASSA-PSS"),
+        PS384(-38, "RSASSA-PSS"),
+        PS512(-39, "RSASSA-PSS"),
+        ES256(-7, "SHA256withECDSAinP1363Format"),
+        ES384(-35, "SHA384withECDSAinP1363Format"),
+        ES512(-36, "SHA512withECDSAinP1363Format"),
+        EdDSA(-8, "EdDSA");
+
+        private final int coseId;
+        private final String jcaName;
+
+        CoseAlgorithm(int coseId, String jcaName) {
+            this.coseId = coseId;
+            this.jcaName = jcaName;
+        }
+
+        Signature newSignature() throws GeneralSecurityException {
+            Signature signature = Signature.getInstance(jcaName);
+            if (this == PS256 || this == PS384 || this == PS512) {
+                // Salt as long as the hash, MGF1 with the same hash, as RFC 7518 and RFC 8230 specify
+                String hash = "SHA-" + name().substring(2);
+                int saltLength = Integer.parseInt(name().substring(2)) / 8;
+                signature.setParameter(new PSSParameterSpec(hash, "MGF1", new MGF1ParameterSpec(hash), saltLength, 1));
+            }
+            return signature;
+        }
+
+        static CoseAlgorithm of(String joseId) {
+            for (CoseAlgorithm algorithm : values()) {
+                if (algorithm.name().equals(joseId)) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+
+        static CoseAlgorithm of(long coseId) {
+            for (CoseAlgorithm algorithm : values()) {
+                if (algorithm.coseId == coseId) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gab.authservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The serialized JWK Set for {@code /.well-known/jwks.json}, built once per key snapshot so serving it
+ * is a byte copy. The strong ETag is derived from the bytes, so every instance serving the same keys
+ * produces the same validator.
+ */
+public record JwksDocument(byte[] body, String etag) {
+
+    static JwksDocument of(List<String> jwks) {
+        byte[] body = ("{\"keys\":[" + String.join(",", jwks) + "]}").getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new JwksDocument(body, "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value matches this document (weak comparison, as RFC 9110 requires
+     * for If-None-Match).
+     */
+    public boolean isMatchedBy(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || (tag.startsWith("W/") && tag.substring(2).equals(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,256 @@
+package com.gab.authservice.service;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the parsed JWT keys in memory.
+ * <p>
+ * Keys are loaded once at startup and then refreshed in the background every
+ * {@code jwt.keys.refresh-interval}. A refresh that finds changed material builds a complete new {@link JwtKeys}
+ * snapshot and swaps it in atomically, so the request path only ever reads a reference: no Secrets Manager calls,
+ * JSON or PEM parsing.
+ * If a refresh fails the last good keys keep being served and {@code jwt.keys.refresh{result=failure}} is incremented.
+ * Fetching and parsing the material is timed as {@code jwt.keys.load}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class JwtKeyProvider {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+    private static final List<String> KEY_TYPES = List.of("RSA", "EC", "EdDSA");
+
+    private final KeyMaterialSource keyMaterialSource;
+    private final AtomicReference<JwtKeys> current = new AtomicReference<>();
+    // A lock rather than synchronized: the first load does I/O, and a virtual thread blocked inside synchronized would
+    // pin its carrier thread
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private final Timer loadTimer;
+
+    public JwtKeyProvider(KeyMaterialSource keyMaterialSource, MeterRegistry meterRegistry) {
+        this.keyMaterialSource = keyMaterialSource;
+        this.refreshSuccess = Counter.builder("jwt.keys.refresh")
+                .tag("result", "success")
+                .description("Background JWT key refreshes")
+                .register(meterRegistry);
+        this.refreshFailure = Counter.builder("jwt.keys.refresh")
+                .tag("result", "failure")
+                .description("Background JWT key refreshes")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("jwt.keys.load")
+                .description("Time to fetch and parse the JWT key material")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        Gauge.builder("jwt.keys.age", current, ref -> {
+                    JwtKeys keys = ref.get();
+                    return keys == null ? Double.NaN : Instant.now().getEpochSecond() - keys.loadedAt().getEpochSecond();
+                })
+                .baseUnit("seconds")
+                .description("Time since the served JWT keys were loaded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the keys eagerly so the first request does not pay for it. A failure here is not fatal:
+     * {@link #current()} retries the load on demand until one succeeds.
+     */
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * Returns the current key snapshot. Only blocks on I/O if no load has ever succeeded.
+     */
+    public JwtKeys current() {
+        JwtKeys keys = current.get();
+        if (keys != null) {
+            return keys;
+        }
+        loadLock.lock();
+        try {
+            keys = current.get();
+            if (keys == null) {
+                keys = loadTimer.record(() -> parse(keyMaterialSource.fetch()));
+                current.set(keys);
+            }
+            return keys;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the key material and swaps in a freshly parsed snapshot if it changed. Keeps the previous keys on failure.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval:PT15M}",
+            initialDelayString = "${jwt.keys.refresh-interval:PT15M}")
+    public void refresh() {
+        try {
+            loadTimer.record(() -> {
+                KeyMaterialSource.KeyMaterial material = keyMaterialSource.fetch();
+                JwtKeys keys = current.get();
+                // Unchanged material keeps the existing snapshot, so anything keyed on it (e.g. cached verifications)
+                // stays valid
+                if (keys == null || !keys.matches(material)) {
+                    current.set(parse(material));
+                }
+            });
+            refreshSuccess.increment();
+        } catch (RuntimeException e) {
+            refreshFailure.increment();
+            log.warn("JWT key refresh failed, keeping previously loaded keys", e);
+        }
+    }
+
+    private JwtKeys parse(KeyMaterialSource.KeyMaterial material) {
+        if (material.privateKeyPem() == null || material.publicKeyPem() == null) {
+            throw new IllegalStateException("JWT key material is incomplete");
+        }
+        PrivateKey signingKey = decodePrivateKey(material.privateKeyPem());
+        PublicKey publicKey = decodePublicKey(material.publicKeyPem());
+        SignatureAlgorithm algorithm = material.algorithm() == null || material.algorithm().isBlank()
+                ? defaultAlgorithm(publicKey)
+                : signatureAlgorithm(material.algorithm());
+
+        // The signing key goes first: it is listed first in the JWKS and wins the algorithm fallback
+        Map<String, PublicKey> keysById = new LinkedHashMap<>();
+        Map<String, PublicKey> keysByAlgorithm = new HashMap<>();
+        List<String> jwks = new ArrayList<>();
+        String keyId = addVerificationKey(publicKey, algorithm, keysById, keysByAlgorithm, jwks);
+        for (String pem : material.verificationPublicKeyPems()) {
+            PublicKey verificationKey = decodePublicKey(pem);
+            addVerificationKey(verificationKey, defaultAlgorithm(verificationKey), keysById, keysByAlgorithm, jwks);
+        }
+        Map<String, PublicKey> byId = Map.copyOf(keysById);
+        Map<String, PublicKey> byAlgorithm = Map.copyOf(keysByAlgorithm);
+
+        JwtParser parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        // An unknown kid is rejected rather than retried against other keys
+                        return kid != null ? byId.get(kid) : byAlgorithm.get(header.getAlgorithm());
+                    }
+                })
+                .build();
+        return new JwtKeys(signingKey, algorithm, keyId, material.publicKeyPem(), byId, byAlgorithm,
+                JwksDocument.of(jwks), parser, material, Instant.now());
+    }
+
+    private static String addVerificationKey(PublicKey key, SignatureAlgorithm algorithm, Map<String, PublicKey> keysById,
+                                             Map<String, PublicKey> keysByAlgorithm, List<String> jwks) {
+        PublicJwk<PublicKey> jwk = Jwks.builder().key(key)
+                .algorithm(algorithm.getId())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+        if (keysById.putIfAbsent(jwk.getId(), key) == null) {
+            keysByAlgorithm.putIfAbsent(algorithm.getId(), key);
+            jwks.add(Jwks.json(jwk));
+        }
+        return jwk.getId();
+    }
+
+    /**
+     * Resolves a JWS algorithm id ({@code RS256}, {@code ES256}, {@code EdDSA}, ...) to an asymmetric signature algorithm.
+     */
+    static SignatureAlgorithm signatureAlgorithm(String id) {
+        SecureDigestAlgorithm<?, ?> algorithm = Jwts.SIG.get().get(id);
+        if (!(algorithm instanceof SignatureAlgorithm signatureAlgorithm)) {
+            throw new IllegalArgumentException("Unsupported JWT signing algorithm: " + id);
+        }
+        return signatureAlgorithm;
+    }
+
+    /**
+     * The algorithm used for a key when none is configured: RS256 for RSA, ES256/384/512 by curve size for EC,
+     * EdDSA for Ed25519/Ed448.
+     */
+    static SignatureAlgorithm defaultAlgorithm(PublicKey key) {
+        if (key instanceof RSAPublicKey) {
+            return Jwts.SIG.RS256;
+        }
+        if (key instanceof ECPublicKey ecKey) {
+            int bits = ecKey.getParams().getCurve().getField().getFieldSize();
+            return bits <= 256 ? Jwts.SIG.ES256 : bits <= 384 ? Jwts.SIG.ES384 : Jwts.SIG.ES512;
+        }
+        if (key instanceof EdECPublicKey) {
+            return Jwts.SIG.EdDSA;
+        }
+        throw new IllegalArgumentException("Unsupported JWT key type: " + key.getAlgorithm());
+    }
+
+    private static PrivateKey decodePrivateKey(String pem) {
+        PKCS8EncodedKeySpec spec = new PKCS8EncodedKeySpec(decodePem(pem, "PRIVATE KEY"));
+        for (String type : KEY_TYPES) {
+            try {
+                return KeyFactory.getInstance(type).generatePrivate(spec);
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                // not this key type, try the next one
+            }
+        }
+        throw new IllegalArgumentException("Private key is not an RSA, EC or EdDSA PKCS#8 key");
+    }
+
+    private static PublicKey decodePublicKey(String pem) {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(decodePem(pem, "PUBLIC KEY"));
+        for (String type : KEY_TYPES) {
+            try {
+                return KeyFactory.getInstance(type).generatePublic(spec);
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                // not this key type, try the next one
+            }
+        }
+        throw new IllegalArgumentException("Public key is not an RSA, EC or EdDSA X.509 key");
+    }
+
+    private static byte[] decodePem(String pem, String type) {
+        String body = pem.replace("-----BEGIN " + type + "-----", "")
+                .replace("-----END " + type + "-----", "");
+        return Base64.getDecoder().decode(WHITESPACE.matcher(body).replaceAll(""));
+    }
+}
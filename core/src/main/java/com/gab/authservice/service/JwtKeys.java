@@ -0,0 +1,28 @@
+package com.gab.authservice.service;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of parsed JWT key material. Swapped atomically by {@link JwtKeyProvider} on refresh,
+ * so a request always signs and verifies with a consistent set of keys. The parser is thread-safe and built once
+ * per snapshot instead of once per call; it picks the verification key by the token's {@code kid} header.
+ *
+ * @param keyId            {@code kid} of the signing key (RFC 7638 thumbprint), stamped into every issued token
+ * @param keysById         every key accepted for verification, by {@code kid}, including the signing key
+ * @param keysByAlgorithm  verification keys by JWS algorithm, for tokens issued before tokens carried a {@code kid}
+ * @param jwks             the same verification keys, pre-serialized as a JWK Set
+ */
+public record JwtKeys(PrivateKey signingKey, SignatureAlgorithm algorithm, String keyId, String publicKeyPem,
+                      Map<String, PublicKey> keysById, Map<String, PublicKey> keysByAlgorithm, JwksDocument jwks,
+                      JwtParser parser, KeyMaterialSource.KeyMaterial material, Instant loadedAt) {
+
+    boolean matches(KeyMaterialSource.KeyMaterial material) {
+        return this.material.equals(material);
+    }
+}
@@ -0,0 +1,244 @@
+package com.gab.authservice.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Issues and verifies access tokens, for the servlet and the reactive runtime alike.
+ * <p>
+ * Signing is timed as {@code jwt.sign} and {@link #verify} as {@code jwt.verify} (cache hits included). Tokens that
+ * fail verification are counted in {@code jwt.verify.rejected{reason}}, where the reason is one of a fixed set
+ * ({@code expired}, {@code signature}, {@code malformed}, {@code unsupported}, {@code invalid}, {@code revoked}) and
+ * never anything taken from the token itself.
+ * </p>
+ * <p>
+ * Tokens are issued in the format of {@code jwt.token-profile} ({@link TokenProfile}); {@link #verify} accepts all of
+ * them, telling a CWT from a JWT by the dots only a JWT has.
+ * </p>
+ */
+@Service
+public class JwtService {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtKeyProvider keyProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocations revocationList;
+    // Short-lived: sessions are renewed through refresh tokens (AuthService.refresh), not by logging in again
+    private final Duration accessTokenTtl;
+    private final TokenProfile profile;
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final SecureRandom random = new SecureRandom();
+
+    public JwtService(JwtKeyProvider keyProvider,
+                      VerifiedTokenCache verifiedTokenCache,
+                      TokenRevocations revocationList,
+                      @Value("${jwt.access-token-ttl:PT15M}") Duration accessTokenTtl,
+                      @Value("${jwt.token-profile:standard}") String profile,
+                      MeterRegistry meterRegistry) {
+        this.keyProvider = keyProvider;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.revocationList = revocationList;
+        this.accessTokenTtl = accessTokenTtl;
+        this.profile = TokenProfile.of(profile);
+        this.signTimer = Timer.builder("jwt.sign")
+                .description("Time to build and sign an access token")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("jwt.verify")
+                .description("Time to verify an access token, including verified-claims cache hits")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("jwt.verify.rejected")
+                    .tag("reason", rejection.name().toLowerCase(Locale.ROOT))
+                    .description("Access tokens that failed verification")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns the public key as a PEM-formatted string for sharing with clients (e.g., via /auth/public-key endpoint).
+     */
+    public String getPublicKeyPEM() {
+        return keyProvider.current().publicKeyPem();
+    }
+
+    /**
+     * Returns the pre-serialized JWK Set of all keys currently accepted for verification.
+     */
+    public JwksDocument getJwks() {
+        return keyProvider.current().jwks();
+    }
+
+    /**
+     * Issues a token signed with the current signing key, using the algorithm configured for that key.
+     * The key's {@code kid} goes into the header so verifiers can pick the key from the JWKS during a rotation.
+     * Each token gets a random {@code jti} so it can be revoked on its own. The subject is the normalized email, the
+     * same for every session of the user whichever spelling was used to log in, or the user id in the compact
+     * profiles.
+     */
+    public String generateToken(TokenSubject user) {
+        return signTimer.record(() -> sign(user));
+    }
+
+    private String sign(TokenSubject user) {
+        JwtKeys keys = keyProvider.current();
+        long now = System.currentTimeMillis();
+        Date expiration = new Date(now + accessTokenTtl.toMillis());
+        return switch (profile) {
+            case STANDARD -> Jwts.builder()
+                    .header().keyId(keys.keyId()).and()
+                    .id(UUID.randomUUID().toString())
+                    .subject(user.getEmailNormalized())
+                    .claim("role", user.getRole().name())
+                    .issuedAt(new Date(now))
+                    .expiration(expiration)
+                    .signWith(keys.signingKey(), keys.algorithm())
+                    .compact();
+            case COMPACT -> Jwts.builder()
+                    .header().keyId(keys.keyId()).and()
+                    .id(BASE64URL.encodeToString(randomTokenId()))
+                    .subject(user.getId().toString())
+                    .claim(CwtTokens.CLAIM_ROLE, user.getRole().code())
+                    .expiration(expiration)
+                    .signWith(keys.signingKey(), keys.algorithm())
+                    .compact();
+            case CWT -> CwtTokens.sign(keys, user.getId().toString(), user.getRole().code(), randomTokenId(),
+                    expiration.toInstant());
+        };
+    }
+
+    // As random as a UUID's 122 bits, in 22 characters instead of 36
+    private byte[] randomTokenId() {
+        byte[] tokenId = new byte[16];
+        random.nextBytes(tokenId);
+        return tokenId;
+    }
+
+    /**
+     * Verifies the token's signature and expiry once and returns its claims, or empty if the token is invalid.
+     * Callers that need several claims should use this instead of the individual {@code extract*} methods,
+     * each of which verifies the token again. Revoked tokens are rejected; the revocation check is made on every call,
+     * after the verified-claims cache.
+     */
+    public Optional<AccessTokenClaims> verify(String token) {
+        long start = System.nanoTime();
+        try {
+            JwtKeys keys = keyProvider.current();
+            Optional<AccessTokenClaims> claims = verifiedTokenCache.get(token, keys, t -> parse(keys, t));
+            if (claims.isPresent() && revocationList.isRevoked(claims.get().tokenId())) {
+                rejections.get(Rejection.REVOKED).increment();
+                return Optional.empty();
+            }
+            return claims;
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Optional<AccessTokenClaims> parse(JwtKeys keys, String token) {
+        try {
+            if (token.indexOf('.') < 0) {
+                return Optional.of(CwtTokens.verify(keys, token));
+            }
+            Claims claims = keys.parser().parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            return Optional.of(new AccessTokenClaims(
+                    claims.getSubject(),
+                    role(claims),
+                    expiration == null ? null : expiration.toInstant(),
+                    claims.getId()));
+        } catch (JwtException | IllegalArgumentException e) {
+            rejections.get(Rejection.of(e)).increment();
+            return Optional.empty();
+        }
+    }
+
+    // The role name of a standard token, or that of the role code of a compact one
+    private static String role(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role != null) {
+            return role;
+        }
+        Number code = claims.get(CwtTokens.CLAIM_ROLE, Number.class);
+        return code == null ? null : CwtTokens.roleName(code.longValue());
+    }
+
+    // The methods below parse JWTs only, with the claims as issued: use verify() for tokens of any profile
+
+    public String extractUsername(String token) {
+        return extractClaim(token, Claims::getSubject);
+    }
+
+    public boolean validateToken(String token) {
+        try {
+            Claims claims = keyProvider.current().parser().parseSignedClaims(token).getPayload();
+            return !revocationList.isRevoked(claims.getId());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(keyProvider.current().parser().parseSignedClaims(token).getPayload());
+    }
+
+    public String extractRole(String token) {
+        return extractClaim(token, claims -> claims.get("role", String.class));
+    }
+
+    private enum Rejection {
+        EXPIRED,
+        SIGNATURE,
+        MALFORMED,
+        // Also covers a kid with no matching key: the key locator finds nothing to verify with
+        UNSUPPORTED,
+        INVALID,
+        REVOKED;
+
+        static Rejection of(RuntimeException e) {
+            if (e instanceof ExpiredJwtException) {
+                return EXPIRED;
+            }
+            if (e instanceof SignatureException) {
+                return SIGNATURE;
+            }
+            if (e instanceof MalformedJwtException) {
+                return MALFORMED;
+            }
+            if (e instanceof UnsupportedJwtException) {
+                return UNSUPPORTED;
+            }
+            return INVALID;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gab.authservice.service;
+
+import java.util.List;
+
+/**
+ * Supplies the raw PEM-encoded key material used to sign and verify JWTs.
+ * <p>
+ * Implementations may do I/O (classpath reads, AWS Secrets Manager calls), so they are only
+ * called by {@link JwtKeyProvider} at startup and on its background refresh, never on the request path.
+ * </p>
+ */
+public interface KeyMaterialSource {
+
+    KeyMaterial fetch();
+
+    /**
+     * @param privateKeyPem              PKCS#8 signing key (RSA, EC P-256 or Ed25519)
+     * @param publicKeyPem               X.509 public key matching {@code privateKeyPem}
+     * @param algorithm                  JWS algorithm for the signing key (e.g. {@code RS256}, {@code ES256}, {@code EdDSA});
+     *                                   {@code null} to derive it from the key type
+     * @param verificationPublicKeyPems  extra public keys accepted for verification and published in the JWKS, but
+     *                                   not used for signing: retired keys whose tokens have not expired yet, and
+     *                                   upcoming keys published ahead of a rotation
+     */
+    record KeyMaterial(String privateKeyPem, String publicKeyPem, String algorithm, List<String> verificationPublicKeyPems) {
+
+        public KeyMaterial(String privateKeyPem, String publicKeyPem) {
+            this(privateKeyPem, publicKeyPem, null, List.of());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.gab.authservice.service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the revoked access tokens: a Bloom filter in front of the exact set of {@code jti}s.
+ * <p>
+ * Nearly every token checked is not revoked, and for those the answer comes from the filter alone: seven bit probes
+ * over a hash computed in place, with no allocation and no map lookup. Only the roughly 1% of tokens the filter cannot
+ * rule out, plus the revoked ones, go on to the exact set. Each entry keeps its token's expiry so it can be dropped
+ * once the token would be rejected anyway; a Bloom filter cannot forget, so dropping entries rebuilds the filter.
+ * </p>
+ * Changes produce a new snapshot ({@link #with}) and leave this one untouched, so readers need no locking.
+ */
+public final class RevokedTokenSet {
+
+    // About 10 bits and 7 probes per entry keep the filter's false positive rate around 1%
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+
+    // Rough per-entry footprint of the exact set: HashMap node and table slot, jti string, Instant
+    private static final int ENTRY_BYTES = 140;
+
+    private final long seed;
+    private final long[] bits;
+    private final int mask;
+    private final Map<String, Instant> entries;
+
+    private RevokedTokenSet(long seed, long[] bits, Map<String, Instant> entries) {
+        this.seed = seed;
+        this.bits = bits;
+        this.mask = bits.length * Long.SIZE - 1;
+        this.entries = entries;
+    }
+
+    /**
+     * An empty set whose filter is sized for {@code expectedEntries}; it grows if more are added.
+     */
+    public static RevokedTokenSet empty(long seed, int expectedEntries) {
+        return new RevokedTokenSet(seed, new long[words(expectedEntries)], Map.of());
+    }
+
+    public boolean contains(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return entries.containsKey(jti);
+    }
+
+    /**
+     * Returns a snapshot with {@code added} included and every entry expired at {@code now} left out. Returns this
+     * snapshot if nothing changes. New entries are set in a copy of the filter; the filter is only rebuilt from scratch
+     * when entries were dropped or it has to grow.
+     */
+    public RevokedTokenSet with(Map<String, Instant> added, Instant now, int expectedEntries) {
+        Map<String, Instant> next = new HashMap<>(entries);
+        boolean pruned = next.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        boolean grew = false;
+        for (Map.Entry<String, Instant> entry : added.entrySet()) {
+            if (entry.getValue().isAfter(now) && next.put(entry.getKey(), entry.getValue()) == null) {
+                grew = true;
+            }
+        }
+        if (!pruned && !grew) {
+            return this;
+        }
+        int words = words(Math.max(expectedEntries, next.size()));
+        RevokedTokenSet result;
+        if (!pruned && words == bits.length) {
+            result = new RevokedTokenSet(seed, bits.clone(), next);
+            added.keySet().forEach(result::set);
+        } else {
+            result = new RevokedTokenSet(seed, new long[words], next);
+            next.keySet().forEach(result::set);
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate heap footprint of the filter and the exact set.
+     */
+    public long sizeInBytes() {
+        return (long) bits.length * Long.BYTES + (long) entries.size() * ENTRY_BYTES;
+    }
+
+    // Only called on a snapshot that is still being built, before it is published
+    private void set(String jti) {
+        long hash = hash(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // Filter size in longs: BITS_PER_ENTRY bits per entry, rounded up to a power of two so probes can mask
+    private static int words(int entries) {
+        long wanted = Math.max(Long.SIZE, (long) Math.max(1, entries) * BITS_PER_ENTRY);
+        long bitCount = Long.highestOneBit(wanted - 1) << 1;
+        return (int) Math.min(bitCount / Long.SIZE, 1 << 24);
+    }
+
+    private long hash(String key) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+        }
+        // MurmurHash3 finalizer
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,41 @@
+package com.gab.authservice.service;
+
+import java.util.Locale;
+
+/**
+ * The format {@link JwtService} issues access tokens in, set by {@code jwt.token-profile}. Verification accepts every
+ * profile whatever the setting, so it can be changed without invalidating the tokens already out.
+ */
+public enum TokenProfile {
+
+    /**
+     * A JWT with the normalized email as {@code sub}, the role name as {@code role}, a UUID {@code jti} and
+     * {@code iat}.
+     */
+    STANDARD,
+
+    /**
+     * A JWT with the user id as {@code sub}, the role code as {@code r}, a 128-bit {@code jti} in 22 characters and no
+     * {@code iat}.
+     */
+    COMPACT,
+
+    /**
+     * The claims of {@link #COMPACT} as a CBOR Web Token in a COSE_Sign1 structure, for traffic between services that
+     * verify with {@link JwtService}; see {@link CwtTokens}.
+     */
+    CWT;
+
+    /**
+     * The profile named {@code name}, in any case.
+     *
+     * @throws IllegalArgumentException if no profile has this name
+     */
+    public static TokenProfile of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown jwt.token-profile: " + name + " (standard, compact or cwt)");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gab.authservice.service;
+
+/**
+ * The access tokens revoked before their expiry, by {@code jti}, as {@link JwtService} sees them: it checks this view
+ * on every verification, so implementations answer {@link #isRevoked} from memory. Revoking is up to whichever
+ * runtime owns the denylist (auth-service's {@code TokenRevocationList}); a runtime that only verifies implements the
+ * view alone.
+ */
+public interface TokenRevocations {
+
+    /**
+     * Whether the token with this {@code jti} was revoked. Tokens without a {@code jti} cannot be revoked.
+     */
+    boolean isRevoked(String jti);
+}
@@ -0,0 +1,35 @@
+package com.gab.authservice.service;
+
+import com.gab.authservice.entity.Role;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Whom {@link JwtService} issues an access token for. Each runtime implements it on its own user type, so the
+ * token format does not depend on how users are loaded.
+ */
+public interface TokenSubject {
+
+    /**
+     * The subject of compact and CWT tokens: stable and opaque, unlike the email.
+     */
+    UUID getId();
+
+    /**
+     * The subject of standard tokens: the email in the form it is looked up by ({@link #normalizeEmail}), the same for
+     * every spelling used to log in.
+     */
+    String getEmailNormalized();
+
+    Role getRole();
+
+    /**
+     * The form emails are looked up and compared in: trimmed and lower-case, so {@code " Alice@Example.com"} and
+     * {@code "alice@example.com"} are the same account. Null stays null. Every runtime normalizes with this, since they
+     * share the users table.
+     */
+    static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
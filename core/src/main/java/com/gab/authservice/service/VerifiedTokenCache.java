@@ -0,0 +1,106 @@
+package com.gab.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of successfully verified access tokens, keyed by the SHA-256 digest of the token.
+ * <p>
+ * A hit skips the RSA signature check entirely. Entries expire at the token's own {@code exp}, are only valid for
+ * the key snapshot they were verified with, and are weighed by their approximate heap size so the cache never grows
+ * past {@code jwt.verification-cache.max-size}. Invalid tokens are never cached. Hit/miss/eviction metrics are
+ * published as {@code cache.*{cache=jwt.verified-claims}}.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    // Rough per-entry footprint excluding strings: digest buffer, entry, claims record, Caffeine node
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final Cache<ByteBuffer, Entry> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.verification-cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.verification-cache.max-size:16MB}") DataSize maxSize,
+                              MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((ByteBuffer key, Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<ByteBuffer, Entry>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime) {
+                        long millis = entry.claims().expiresAt().toEpochMilli() - System.currentTimeMillis();
+                        return Math.max(0, millis) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-claims");
+    }
+
+    /**
+     * Returns the cached claims for {@code token} if it was already verified with {@code keys},
+     * otherwise runs {@code verifier} and caches a successful result.
+     */
+    public Optional<AccessTokenClaims> get(String token, JwtKeys keys,
+                                           Function<String, Optional<AccessTokenClaims>> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+        ByteBuffer digest = digest(token);
+        Entry entry = cache.getIfPresent(digest);
+        if (entry != null && entry.keys() == keys && entry.claims().expiresAt().isAfter(Instant.now())) {
+            return Optional.of(entry.claims());
+        }
+        Optional<AccessTokenClaims> claims = verifier.apply(token);
+        claims.filter(c -> c.expiresAt() != null)
+                .ifPresent(c -> cache.put(digest, new Entry(c, keys)));
+        return claims;
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(AccessTokenClaims claims, JwtKeys keys) {
+
+        int weight() {
+            int strings = claims.subject() == null ? 0 : claims.subject().length();
+            strings += claims.role() == null ? 0 : claims.role().length();
+            strings += claims.tokenId() == null ? 0 : claims.tokenId().length();
+            return ENTRY_OVERHEAD_BYTES + 2 * strings;
+        }
+    }
+}
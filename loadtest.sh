@@ -0,0 +1,47 @@
+#!/bin/bash
+# Runs the end-to-end load test (src/loadtest/java) against an in-process instance on H2 and compares the report
+# against the stored baseline.
+#
+#   ./loadtest.sh                                    default mix and concurrency levels
+#   ./loadtest.sh --concurrency=16 --mix=login=1     any LoadTest option; unknown --name=value go to the service
+#   ./loadtest.sh --base-url=http://host:8080        load a running instance instead (turn its login rate limit off)
+#   ./loadtest.sh --update-baseline                  run and store the report as the new baseline
+#
+# Baselines are hardware specific: refresh it on the machine that runs the comparison, with the same options.
+
+set -e
+
+# Paths below are relative to the auth-service module
+cd "$(dirname "$0")/auth-service"
+
+# The module is built on its own below, so the shared core module has to be in the local repository
+../mvnw -q -f ../pom.xml -pl core -am -DskipTests install
+
+BASELINE=src/loadtest/baseline.json
+REPORT=target/loadtest-report.json
+MAX_REGRESSION=${MAX_REGRESSION:-20}
+
+UPDATE=false
+if [ "$1" == "--update-baseline" ]; then
+    UPDATE=true
+    shift
+fi
+
+echo "Running load test..."
+../mvnw -q -Ploadtest test-compile exec:exec -Dloadtest.args="--report=$REPORT $*"
+
+if [ "$UPDATE" == "true" ]; then
+    cp "$REPORT" "$BASELINE"
+    echo "Baseline updated: $BASELINE"
+    exit 0
+fi
+
+if [ ! -f "$BASELINE" ]; then
+    echo "No baseline at $BASELINE; store one with --update-baseline"
+    exit 0
+fi
+
+echo "Comparing against $BASELINE (max regression ${MAX_REGRESSION}%)..."
+../mvnw -q -Ploadtest exec:exec \
+    -Dloadtest.main=com.gab.authservice.loadtest.ReportComparator \
+    -Dloadtest.args="$BASELINE $REPORT $MAX_REGRESSION"
@@ -0,0 +1,32 @@
+package com.gab.authservice.reactive;
+
+import com.gab.authservice.service.AwsSecretsKeyMaterialSource;
+import com.gab.authservice.service.ClasspathKeyMaterialSource;
+import com.gab.authservice.service.JwtKeyProvider;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.VerifiedTokenCache;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * The auth endpoints on WebFlux and R2DBC: {@code /auth/signup}, {@code /auth/login} and {@code /auth/public-key}
+ * with the same contract as auth-service, and the same JWT check in front of {@code /api/**}. Tokens and keys come from
+ * the shared core module, so either runtime accepts the other's tokens when both use the same keys.
+ * <p>
+ * It reads the schema auth-service migrates and does not migrate it itself: run auth-service (or its Flyway
+ * migrations) against the database first.
+ * </p>
+ */
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+@EnableScheduling
+@Import({JwtService.class, JwtKeyProvider.class, VerifiedTokenCache.class,
+        ClasspathKeyMaterialSource.class, AwsSecretsKeyMaterialSource.class})
+public class ReactiveAuthApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveAuthApplication.class, args);
+    }
+}
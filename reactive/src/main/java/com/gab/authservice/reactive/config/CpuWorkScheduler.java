@@ -0,0 +1,98 @@
+package com.gab.authservice.reactive.config;
+
+import com.gab.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded scheduler for password hashing and token signing, so neither runs on an event loop thread.
+ * <p>
+ * The reactive counterpart of auth-service's {@code PasswordHashingExecutor}, with the same properties and metrics:
+ * {@code password-hashing.threads} workers (default: one per core) and a queue of
+ * {@code password-hashing.queue-capacity}. A task submitted to a full queue fails at once with
+ * {@link ServiceOverloadedException} (503 + {@code Retry-After}). Reactor's bounded elastic scheduler is not used
+ * because it caps queued tasks per worker rather than in total, and may create up to ten threads per core.
+ * </p>
+ * Metrics: {@code password.hashing.queue.depth}, {@code password.hashing.active}, {@code password.hashing.wait}
+ * (time from subscription to start) and {@code password.hashing.rejected}.
+ */
+@Component
+public class CpuWorkScheduler {
+
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public CpuWorkScheduler(@Value("${password-hashing.threads:0}") int threads,
+                            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                            @Value("${password-hashing.retry-after:PT1S}") Duration retryAfter,
+                            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedDaemonThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.retryAfter = retryAfter;
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a password hashing task waited in the queue")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code task} on the pool when subscribed to; the result is emitted on the pool's thread.
+     * Fails with {@link ServiceOverloadedException} if the queue is full.
+     */
+    public <T> Mono<T> execute(Callable<T> task) {
+        return Mono.defer(() -> {
+            long submittedAt = System.nanoTime();
+            return Mono.fromCallable(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            }).subscribeOn(scheduler);
+        }).onErrorMap(RejectedExecutionException.class, e -> {
+            rejected.increment();
+            return new ServiceOverloadedException("Too many concurrent password operations", retryAfter);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    private static ThreadFactory namedDaemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
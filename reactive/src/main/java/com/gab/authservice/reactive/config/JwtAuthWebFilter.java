@@ -0,0 +1,91 @@
+package com.gab.authservice.reactive.config;
+
+import com.gab.authservice.config.RoleAuthenticationToken;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.AccessTokenClaims;
+import com.gab.authservice.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reactive counterpart of auth-service's {@code JwtAuthFilter}: verifies the bearer token once (signature, expiry
+ * and revocation) and puts a {@link RoleAuthenticationToken} into the reactive security context. Missing and invalid
+ * tokens leave the request unauthenticated.
+ * <p>
+ * Verification runs inline on the event loop. It is a few tens of microseconds of CPU, or a cache lookup for a token
+ * seen before, with no I/O, so handing it to another scheduler would cost about as much as it saves. Its time is
+ * published as {@code auth.filter{outcome=skipped|anonymous|authenticated|rejected}}.
+ * </p>
+ * Not a bean: {@link ReactiveSecurityConfig} adds it to the security chain, and as a bean WebFlux would run it a second
+ * time outside of it.
+ */
+public class JwtAuthWebFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final Timer skipped;
+    private final Timer anonymous;
+    private final Timer authenticated;
+    private final Timer rejected;
+
+    public JwtAuthWebFilter(JwtService jwtService, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.skipped = timer(meterRegistry, "skipped");
+        this.anonymous = timer(meterRegistry, "anonymous");
+        this.authenticated = timer(meterRegistry, "authenticated");
+        this.rejected = timer(meterRegistry, "rejected");
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        long start = System.nanoTime();
+        Optional<RoleAuthenticationToken> authentication = Optional.empty();
+        Timer outcome;
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (path.equals("/auth/signup") || path.equals("/auth/login")) {
+            outcome = skipped;
+        } else if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            outcome = anonymous;
+        } else {
+            authentication = authenticate(authHeader.substring(7));
+            outcome = authentication.isPresent() ? authenticated : rejected;
+        }
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        return authentication
+                .map(token -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(token)))
+                .orElseGet(() -> chain.filter(exchange));
+    }
+
+    // Single signature check; subject and role come from the same verified claims. Tokens with a role this service
+    // does not know are treated as invalid
+    private Optional<RoleAuthenticationToken> authenticate(String token) {
+        return jwtService.verify(token)
+                .filter(claims -> claims.subject() != null)
+                .flatMap(claims -> Optional.ofNullable(Role.fromName(claims.role()))
+                        .map(role -> new RoleAuthenticationToken(claims.subject(), role)));
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.filter")
+                .tag("outcome", outcome)
+                .description("Time spent authenticating a request from its bearer token")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.gab.authservice.reactive.config;
+
+import com.gab.authservice.config.PasswordEncoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The same delegating encoder and {@code password-hashing.*} properties as auth-service, so either runtime matches
+ * the other's hashes. The encoder itself blocks; callers run it on the {@link CpuWorkScheduler}. Startup calibration
+ * and re-hashing of outdated hashes are left to auth-service.
+ */
+@Configuration
+public class ReactivePasswordEncoderConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${password-hashing.algorithm:bcrypt}") String algorithm,
+                                           @Value("${password-hashing.bcrypt.strength:10}") int bcryptStrength,
+                                           @Value("${password-hashing.argon2.iterations:2}") int argon2Iterations,
+                                           @Value("${password-hashing.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+        return PasswordEncoders.delegating(algorithm, bcryptStrength, argon2Iterations, pbkdf2Iterations);
+    }
+}
@@ -0,0 +1,81 @@
+package com.gab.authservice.reactive.config;
+
+import com.gab.authservice.config.RoleAuthenticationToken;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The same access rules as auth-service's {@code SecurityConfig}: the auth endpoints and the public actuator endpoints
+ * are open, everything else needs a valid access token, and a request without one gets {@code 403}. The demo
+ * endpoints' role requirements are checked here by path, against the role's mask, rather than per method.
+ * {@code /actuator/prometheus} is open only on the management listener ({@code management.server.port}) and needs an
+ * admin token anywhere else.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    private static final String PROMETHEUS_PATH = "/actuator/prometheus";
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtService jwtService,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${management.server.port:-1}") int managementPort) {
+        ServerWebExchangeMatcher prometheusOnManagementPort = exchange -> {
+            InetSocketAddress local = exchange.getRequest().getLocalAddress();
+            return managementPort > 0 && local != null && local.getPort() == managementPort
+                    && PROMETHEUS_PATH.equals(exchange.getRequest().getPath().value())
+                    ? ServerWebExchangeMatcher.MatchResult.match()
+                    : ServerWebExchangeMatcher.MatchResult.notMatch();
+        };
+        return http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .logout(ServerHttpSecurity.LogoutSpec::disable)
+            // Stateless: the token is the session
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers(
+                    "/auth/**",
+                    "/actuator/health",
+                    "/actuator/health/liveness",
+                    "/actuator/health/readiness",
+                    "/actuator/info"
+                ).permitAll()
+                .matchers(prometheusOnManagementPort).permitAll()
+                .pathMatchers(PROMETHEUS_PATH).access(requires(Role.ADMIN))
+                .pathMatchers("/api/demo/hello_admin").access(requires(Role.ADMIN))
+                .pathMatchers("/api/demo/**").access(requires(Role.USER))
+                .anyExchange().authenticated()
+            )
+            .addFilterAt(new JwtAuthWebFilter(jwtService, meterRegistry), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+
+    private static ReactiveAuthorizationManager<AuthorizationContext> requires(Role required) {
+        return (authentication, context) -> authentication
+                .map(granted -> new AuthorizationDecision(granted instanceof RoleAuthenticationToken token
+                        && token.getRole().grants(required)))
+                .defaultIfEmpty(new AuthorizationDecision(false));
+    }
+}
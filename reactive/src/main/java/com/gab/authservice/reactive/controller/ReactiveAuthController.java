@@ -0,0 +1,44 @@
+package com.gab.authservice.reactive.controller;
+
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.reactive.service.ReactiveAuthService;
+import com.gab.authservice.service.JwtService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Signup, login and the public key, with the same requests and response bodies as auth-service's
+ * {@code AuthController}. Login answers with the access token only; there is no refresh token cookie.
+ */
+@RestController
+@RequestMapping("/auth")
+@RequiredArgsConstructor
+public class ReactiveAuthController {
+
+    private final ReactiveAuthService authService;
+    private final JwtService jwtService;
+
+    @PostMapping("/signup")
+    public Mono<ResponseEntity<String>> signup(@RequestBody @Valid SignupRequest request) {
+        return authService.signup(request)
+                .thenReturn(ResponseEntity.ok("User registered successfully"));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<String>> login(@RequestBody LoginRequest request) {
+        return authService.login(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/public-key")
+    public ResponseEntity<String> getPublicKey() {
+        return ResponseEntity.ok(jwtService.getPublicKeyPEM());
+    }
+}
@@ -0,0 +1,27 @@
+package com.gab.authservice.reactive.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The demo endpoints of auth-service's {@code DemoController}; the role each needs is set in
+ * {@link com.gab.authservice.reactive.config.ReactiveSecurityConfig}.
+ */
+@RestController
+public class ReactiveDemoController {
+
+    @GetMapping("/api/demo/hello_user")
+    public String securedHello() {
+        return "You accessed a USER endpoint!";
+    }
+
+    @GetMapping("/api/demo/hello_admin")
+    public String securedAdmin() {
+        return "You accessed a ADMIN endpoint!";
+    }
+
+    @GetMapping("/api/demo/hello_public")
+    public String securedPublic() {
+        return "You accessed a PUBLIC endpoint!";
+    }
+}
@@ -0,0 +1,12 @@
+package com.gab.authservice.reactive.exception;
+
+/**
+ * Thrown when a login names an unknown user or the wrong password. Mapped to {@code 403 Forbidden} with no body,
+ * which is what a failed login gets from auth-service.
+ */
+public class InvalidCredentialsException extends RuntimeException {
+
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
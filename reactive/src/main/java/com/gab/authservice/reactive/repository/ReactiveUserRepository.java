@@ -0,0 +1,26 @@
+package com.gab.authservice.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface ReactiveUserRepository extends ReactiveCrudRepository<UserRecord, UUID> {
+
+    /**
+     * Looks a user up by {@code users.email_normalized}, through its unique index. The argument must already be
+     * normalized, as auth-service stores it.
+     */
+    @Query("SELECT id, email_normalized, password, role FROM users WHERE email_normalized = :emailNormalized")
+    Mono<UserRecord> findCredentials(String emailNormalized);
+
+    /**
+     * Inserts a user with a single statement; the unique index on {@code email_normalized} rejects a taken address.
+     */
+    @Modifying
+    @Query("INSERT INTO users (id, email, email_normalized, password, role) "
+            + "VALUES (:id, :email, :emailNormalized, :password, :role)")
+    Mono<Integer> insert(UUID id, String email, String emailNormalized, String password, short role);
+}
@@ -0,0 +1,34 @@
+package com.gab.authservice.reactive.repository;
+
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.service.TokenSubject;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+/**
+ * The columns of a {@code users} row that login needs. The role is kept as its stored code.
+ */
+@Table("users")
+public record UserRecord(@Id UUID id,
+                         @Column("email_normalized") String emailNormalized,
+                         String password,
+                         short role) implements TokenSubject {
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public String getEmailNormalized() {
+        return emailNormalized;
+    }
+
+    @Override
+    public Role getRole() {
+        return Role.fromCode(role);
+    }
+}
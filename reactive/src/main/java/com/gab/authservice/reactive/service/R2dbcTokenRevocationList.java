@@ -0,0 +1,137 @@
+package com.gab.authservice.reactive.service;
+
+import com.gab.authservice.service.RevokedTokenSet;
+import com.gab.authservice.service.TokenRevocations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only view of the {@code revoked_tokens} denylist that auth-service writes.
+ * <p>
+ * Like auth-service's {@code TokenRevocationList}, it holds the revocations in memory as a {@link RevokedTokenSet}
+ * and polls the rows recorded since the last one seen every {@code jwt.revocation.refresh-interval}, here over R2DBC.
+ * Until the first successful poll nothing is considered revoked; failed polls keep the last view and increment
+ * {@code jwt.revocation.refresh{result=failure}}. Tokens are revoked through auth-service's {@code /auth/logout},
+ * which also deletes the expired rows.
+ * </p>
+ */
+@Slf4j
+@DependsOnDatabaseInitialization
+@Component
+public class R2dbcTokenRevocationList implements TokenRevocations {
+
+    // Same overlap as TokenRevocationList: re-read rows that committed after a later-stamped one was seen
+    private static final Duration POLL_OVERLAP = Duration.ofSeconds(30);
+    private static final String SELECT_SQL = "SELECT jti, expires_at, revoked_at FROM revoked_tokens "
+            + "WHERE revoked_at >= :since AND expires_at > :now";
+
+    private final DatabaseClient databaseClient;
+    private final int expectedEntries;
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private volatile RevokedTokenSet revoked;
+
+    // Only read and written by the poll, which never overlaps with itself
+    private Instant lastSeen = Instant.EPOCH;
+
+    public R2dbcTokenRevocationList(DatabaseClient databaseClient,
+                                    @Value("${jwt.revocation.expected-entries:10000}") int expectedEntries,
+                                    MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.expectedEntries = expectedEntries;
+        this.revoked = RevokedTokenSet.empty(new SecureRandom().nextLong(), expectedEntries);
+        this.refreshSuccess = Counter.builder("jwt.revocation.refresh")
+                .tag("result", "success")
+                .description("Polls of the revoked token table")
+                .register(meterRegistry);
+        this.refreshFailure = Counter.builder("jwt.revocation.refresh")
+                .tag("result", "failure")
+                .description("Polls of the revoked token table")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.memory", this, list -> list.revoked.sizeInBytes())
+                .baseUnit("bytes")
+                .description("Approximate memory held by the in-memory revoked token view")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", this, list -> list.revoked.size())
+                .description("Revoked, not yet expired access tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        return revoked.contains(jti);
+    }
+
+    /**
+     * Reads the revocations recorded since the last poll into the in-memory view and drops expired entries. Waits for
+     * the rows on the scheduling thread, never on an event loop, so polls cannot overlap.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT10S}",
+            initialDelayString = "${jwt.revocation.refresh-interval:PT10S}")
+    public void refresh() {
+        poll().block();
+    }
+
+    /**
+     * One poll, as a {@link Mono} that completes once the view is updated (or the failure counted).
+     */
+    Mono<Void> poll() {
+        Instant now = Instant.now();
+        return databaseClient.sql(SELECT_SQL)
+                .bind("since", utc(lastSeen.minus(POLL_OVERLAP)))
+                .bind("now", utc(now))
+                .map((row, metadata) -> new Row(row.get("jti", String.class),
+                        row.get("expires_at", OffsetDateTime.class).toInstant(),
+                        row.get("revoked_at", OffsetDateTime.class).toInstant()))
+                .all()
+                .collectList()
+                .doOnNext(rows -> {
+                    Map<String, Instant> added = new HashMap<>();
+                    Instant newest = lastSeen;
+                    for (Row row : rows) {
+                        added.put(row.jti(), row.expiresAt());
+                        if (row.revokedAt().isAfter(newest)) {
+                            newest = row.revokedAt();
+                        }
+                    }
+                    revoked = revoked.with(added, now, expectedEntries);
+                    lastSeen = newest;
+                    refreshSuccess.increment();
+                })
+                .then()
+                .onErrorResume(e -> {
+                    refreshFailure.increment();
+                    log.warn("Revoked token refresh failed, keeping the previous view", e);
+                    return Mono.empty();
+                });
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private record Row(String jti, Instant expiresAt, Instant revokedAt) {
+    }
+}
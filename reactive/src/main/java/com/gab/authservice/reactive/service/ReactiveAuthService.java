@@ -0,0 +1,99 @@
+package com.gab.authservice.reactive.service;
+
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.entity.Role;
+import com.gab.authservice.exception.EmailAlreadyExistsException;
+import com.gab.authservice.exception.ServiceOverloadedException;
+import com.gab.authservice.reactive.config.CpuWorkScheduler;
+import com.gab.authservice.reactive.exception.InvalidCredentialsException;
+import com.gab.authservice.reactive.repository.ReactiveUserRepository;
+import com.gab.authservice.reactive.repository.UserRecord;
+import com.gab.authservice.service.JwtService;
+import com.gab.authservice.service.TokenSubject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Signup and login without blocking a thread on the database.
+ * <p>
+ * Queries go through R2DBC; the password hash, and for login also the token signature, run as one task on the
+ * {@link CpuWorkScheduler}, so event loop threads only ever parse requests and write responses. Login outcomes are
+ * counted in {@code auth.login{result}} like in auth-service ({@code success}, {@code unknown_user},
+ * {@code bad_password}, {@code overloaded}).
+ * </p>
+ * Sessions here are the access token alone: refresh tokens, logout, the login rate limiter, the user cache, the audit
+ * trail and re-hashing of outdated hashes are only in auth-service.
+ */
+@Service
+public class ReactiveAuthService {
+
+    private final ReactiveUserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final CpuWorkScheduler cpuWorkScheduler;
+    private final Counter loginSuccess;
+    private final Counter loginUnknownUser;
+    private final Counter loginBadPassword;
+    private final Counter loginOverloaded;
+
+    public ReactiveAuthService(ReactiveUserRepository userRepository, PasswordEncoder passwordEncoder,
+                               JwtService jwtService, CpuWorkScheduler cpuWorkScheduler, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtService = jwtService;
+        this.cpuWorkScheduler = cpuWorkScheduler;
+        this.loginSuccess = loginCounter(meterRegistry, "success");
+        this.loginUnknownUser = loginCounter(meterRegistry, "unknown_user");
+        this.loginBadPassword = loginCounter(meterRegistry, "bad_password");
+        this.loginOverloaded = loginCounter(meterRegistry, "overloaded");
+    }
+
+    /**
+     * Hashes the password, then creates the user with a single INSERT; the unique index on
+     * {@code users.email_normalized} rejects a taken address.
+     */
+    public Mono<Void> signup(SignupRequest request) {
+        return cpuWorkScheduler.execute(() -> passwordEncoder.encode(request.getPassword()))
+                .flatMap(hash -> userRepository.insert(UUID.randomUUID(), request.getEmail(),
+                        TokenSubject.normalizeEmail(request.getEmail()), hash, Role.USER.code()))
+                .onErrorMap(DuplicateKeyException.class, e -> new EmailAlreadyExistsException())
+                .then();
+    }
+
+    /**
+     * Checks the password and returns a signed access token.
+     */
+    public Mono<String> login(LoginRequest request) {
+        return userRepository.findCredentials(TokenSubject.normalizeEmail(request.getEmail()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    loginUnknownUser.increment();
+                    return Mono.error(new InvalidCredentialsException("User not found"));
+                }))
+                .flatMap(user -> cpuWorkScheduler.execute(() -> matchAndSign(request.getPassword(), user)))
+                .doOnError(ServiceOverloadedException.class, e -> loginOverloaded.increment());
+    }
+
+    // Runs on the scheduler: one hop for both the hash check and the signature
+    private String matchAndSign(String rawPassword, UserRecord user) {
+        if (!passwordEncoder.matches(rawPassword, user.password())) {
+            loginBadPassword.increment();
+            throw new InvalidCredentialsException("Invalid password");
+        }
+        loginSuccess.increment();
+        return jwtService.generateToken(user);
+    }
+
+    private static Counter loginCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.login")
+                .tag("result", result)
+                .description("Login attempts, by outcome")
+                .register(meterRegistry);
+    }
+}
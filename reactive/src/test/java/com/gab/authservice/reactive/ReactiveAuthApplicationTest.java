@@ -0,0 +1,192 @@
+package com.gab.authservice.reactive;
+
+import com.gab.authservice.dto.LoginRequest;
+import com.gab.authservice.dto.SignupRequest;
+import com.gab.authservice.reactive.service.R2dbcTokenRevocationList;
+import com.gab.authservice.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("local")
+class ReactiveAuthApplicationTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private R2dbcTokenRevocationList revocationList;
+
+    // A throwaway RS256 key pair, read through file: paths as a deployment sharing auth-service's keys would
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException, NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        Path keys = Files.createTempDirectory("reactive-test-keys");
+        Path privateKey = Files.writeString(keys.resolve("private.pem"),
+                pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Path publicKey = Files.writeString(keys.resolve("public.pem"),
+                pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        registry.add("jwt.private-key-path", () -> "file:" + privateKey);
+        registry.add("jwt.public-key-path", () -> "file:" + publicKey);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:h2:mem:///reactive-test;DB_CLOSE_DELAY=-1");
+        registry.add("spring.r2dbc.username", () -> "sa");
+        registry.add("spring.r2dbc.password", () -> "");
+        registry.add("spring.sql.init.mode", () -> "always");
+        registry.add("password-hashing.bcrypt.strength", () -> "4");
+    }
+
+    @BeforeEach
+    void clearTables() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        databaseClient.sql("DELETE FROM revoked_tokens").then().block();
+    }
+
+    @Test
+    void signupAndLogin_shouldIssueATokenThatOpensUserEndpoints() {
+        signup("Alice@Example.com", "secret");
+
+        String token = login("alice@example.com", "secret");
+
+        assertTrue(jwtService.verify(token).isPresent());
+        client.get().uri("/api/demo/hello_user").header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("You accessed a USER endpoint!");
+        client.get().uri("/api/demo/hello_admin").header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void login_shouldGrantAdminEndpointsToAdmins() {
+        signup("admin@example.com", "secret");
+        databaseClient.sql("UPDATE users SET role = 2 WHERE email_normalized = 'admin@example.com'").then().block();
+
+        String token = login("admin@example.com", "secret");
+
+        client.get().uri("/api/demo/hello_admin").header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void signup_shouldRejectATakenEmailInAnyCase() {
+        signup("bob@example.com", "secret");
+
+        client.post().uri("/auth/signup").bodyValue(new SignupRequest("BOB@Example.com", "other"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void signup_shouldValidateTheRequest() {
+        client.post().uri("/auth/signup").bodyValue(new SignupRequest("not-an-email", ""))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void login_shouldBeForbiddenForUnknownUsersAndWrongPasswords() {
+        signup("carol@example.com", "secret");
+
+        client.post().uri("/auth/login").bodyValue(new LoginRequest("carol@example.com", "wrong"))
+                .exchange()
+                .expectStatus().isForbidden();
+        client.post().uri("/auth/login").bodyValue(new LoginRequest("nobody@example.com", "secret"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void protectedEndpoints_shouldBeForbiddenWithoutAValidToken() {
+        client.get().uri("/api/demo/hello_user")
+                .exchange()
+                .expectStatus().isForbidden();
+        client.get().uri("/api/demo/hello_user").header("Authorization", "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void revokedTokens_shouldBeRejectedAfterThePoll() {
+        signup("dave@example.com", "secret");
+        String token = login("dave@example.com", "secret");
+        String jti = jwtService.extractClaim(token, claims -> claims.getId());
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        databaseClient.sql("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, :now)")
+                .bind("jti", jti)
+                .bind("expiresAt", now.plus(1, ChronoUnit.HOURS).atOffset(ZoneOffset.UTC))
+                .bind("now", now.atOffset(ZoneOffset.UTC))
+                .then().block();
+
+        assertFalse(revocationList.isRevoked(jti));
+        revocationList.refresh();
+
+        assertTrue(revocationList.isRevoked(jti));
+        client.get().uri("/api/demo/hello_user").header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void publicKey_shouldReturnThePem() {
+        String pem = client.get().uri("/auth/public-key")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertNotNull(pem);
+        assertTrue(pem.contains("BEGIN PUBLIC KEY"));
+    }
+
+    private void signup(String email, String password) {
+        client.post().uri("/auth/signup").bodyValue(new SignupRequest(email, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("User registered successfully");
+    }
+
+    private String login(String email, String password) {
+        return client.post().uri("/auth/login").bodyValue(new LoginRequest(email, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+    }
+
+    private static String pem(String type, byte[] encoded) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(encoded)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,75 @@
+package com.gab.authservice.reactive.config;
+
+import com.gab.authservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpuWorkSchedulerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CpuWorkScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One worker and one queue slot, so the third concurrent task has nowhere to go
+        scheduler = new CpuWorkScheduler(1, 1, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void execute_shouldRunTaskOnHashingThreadWhenSubscribed() {
+        Mono<String> threadName = scheduler.execute(() -> Thread.currentThread().getName());
+
+        assertEquals(0.0, meterRegistry.get("password.hashing.wait").timer().count());
+        assertTrue(threadName.block(Duration.ofSeconds(5)).startsWith("password-hashing-"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.wait").timer().count());
+    }
+
+    @Test
+    void execute_shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the only worker, then the only queue slot
+        var first = scheduler.execute(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }).toFuture();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        var second = scheduler.execute(() -> true).toFuture();
+
+        ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                () -> scheduler.execute(() -> true).block(Duration.ofSeconds(5)));
+        assertEquals(Duration.ofSeconds(2), e.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        // Accepted work still completes once the worker frees up
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_shouldPassTaskExceptionsThrough() {
+        Mono<Object> failing = scheduler.execute(() -> {
+            throw new IllegalArgumentException("bad input");
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> failing.block(Duration.ofSeconds(5)));
+        assertEquals(0.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+}
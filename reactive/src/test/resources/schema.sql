@@ -0,0 +1,16 @@
+-- The tables this module reads and writes, as auth-service's migrations leave them
+CREATE TABLE users (
+    id               uuid         NOT NULL PRIMARY KEY,
+    email            varchar(255) NOT NULL,
+    email_normalized varchar(255) NOT NULL,
+    password         varchar(255) NOT NULL,
+    role             smallint     NOT NULL
+);
+
+CREATE UNIQUE INDEX ux_users_email_normalized ON users (email_normalized);
+
+CREATE TABLE revoked_tokens (
+    jti        varchar(36)                 NOT NULL PRIMARY KEY,
+    expires_at timestamp(6) with time zone NOT NULL,
+    revoked_at timestamp(6) with time zone NOT NULL
+);
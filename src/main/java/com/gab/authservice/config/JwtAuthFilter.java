@@ -1,86 +0,0 @@
-package com.gab.authservice.config;
-
-import com.gab.authservice.service.JwtService;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
-
-import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-import java.io.IOException;
-import java.util.List;
-
-@Component
-@RequiredArgsConstructor
-public class JwtAuthFilter extends OncePerRequestFilter {
-
-    private final JwtService jwtService;
-
-    /**
-     * Filters incoming HTTP requests to handle JWT-based authentication.
-     * <p>
-     * This method intercepts each request and checks for the presence of a JWT token
-     * in the "Authorization" header. If a valid token is found, it extracts the user's email,
-     * validates the token, and sets the authentication in the Spring Security context.
-     * If the token is missing or invalid, the request proceeds without authentication.
-     * </p>
-     *
-     * @param request      the incoming HTTP request
-     * @param response     the HTTP response
-     * @param filterChain  the filter chain to pass the request and response to the next filter
-     * @throws ServletException if an error occurs during filtering
-     * @throws IOException      if an I/O error occurs during filtering
-     */
-    @Override
-    protected void doFilterInternal(@NonNull HttpServletRequest request,
-                                    @NonNull HttpServletResponse response,
-                                    @NonNull FilterChain filterChain)
-            throws ServletException, IOException {
-
-        String path = request.getServletPath();
-        if (path.equals("/auth/signup") || path.equals("/auth/login")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        final String authHeader = request.getHeader("Authorization");
-        final String token;
-        final String email;
-
-        // if no token, or something wrong with it, continue to next filter
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        token = authHeader.substring(7); // strip "Bearer "
-        email = jwtService.extractUsername(token);
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtService.validateToken(token)) {
-                String role = jwtService.extractRole(token);
-
-                // Convert role string to SimpleGrantedAuthority (expected by UsernamePasswordAuthenticationToken's superclass)
-                List<SimpleGrantedAuthority> authorities =
-                        List.of(new SimpleGrantedAuthority("ROLE_" + role)); // Spring requires "ROLE_" prefix
-
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(email, null, authorities); // roles can go here
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
-        }
-
-        filterChain.doFilter(request, response);
-    }
-}
\ No newline at end of file
@@ -1,38 +0,0 @@
-package com.gab.authservice.controller;
-
-import com.gab.authservice.dto.SignupRequest;
-import com.gab.authservice.service.AuthService;
-import com.gab.authservice.service.JwtService;
-import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import com.gab.authservice.dto.LoginRequest;
-
-@RestController
-@RequestMapping("/auth")
-@RequiredArgsConstructor
-public class AuthController {
-
-    private final AuthService authService;
-    private final JwtService jwtService;
-
-    @PostMapping("/signup")
-    public ResponseEntity<String> signup(@RequestBody @Valid SignupRequest request) {
-        authService.signup(request);
-        return ResponseEntity.ok("User registered successfully");
-    }
-
-    @PostMapping("/login")
-    public ResponseEntity<String> postMethodName(@RequestBody LoginRequest request) {
-        String token = authService.login(request);
-        return ResponseEntity.ok(token);
-    }
-
-    @GetMapping("/public-key")
-    public ResponseEntity<String> getPublicKey() {
-        return ResponseEntity.ok(jwtService.getPublicKeyPEM());
-    }
-}
@@ -1,6 +0,0 @@
-package com.gab.authservice.entity;
-
-public enum Role {
-    USER,
-    ADMIN
-}
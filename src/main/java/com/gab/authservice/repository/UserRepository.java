@@ -1,14 +0,0 @@
-package com.gab.authservice.repository;
-
-import com.gab.authservice.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.Optional;
-import java.util.UUID;
-
-public interface UserRepository extends JpaRepository<User, UUID> {
-
-    Optional<User> findByEmail(String email);
-
-    boolean existsByEmail(String email);
-}
\ No newline at end of file
@@ -0,0 +1,25 @@
+#!/bin/bash
+# Builds the fast-start jar for the local profile and measures time to ready and first-request latency of each
+# packaging mode (jar, extracted, cds, aot, aot-cds, and native when target/authservice exists) on H2.
+#
+#   ./startup.sh                         all modes, 5 launches each
+#   ./startup.sh --runs=3 --modes=jar,aot-cds
+#   ./startup.sh --startup.warmup.enabled=false    unknown --name=value go to the service
+#
+# The report is written to auth-service/target/startup-report.json.
+
+set -e
+
+# Paths below are relative to the auth-service module
+cd "$(dirname "$0")/auth-service"
+
+# The module is built on its own below, so the shared core module has to be in the local repository
+../mvnw -q -f ../pom.xml -pl core -am -DskipTests install
+
+echo "Building the fast-start jar..."
+../mvnw -q -Pfast-start -Daot.profiles=local -DskipTests package
+
+echo "Measuring startup..."
+../mvnw -q -Ploadtest test-compile exec:exec \
+    -Dloadtest.main=com.gab.authservice.loadtest.StartupMeasurement \
+    -Dloadtest.args="--report=target/startup-report.json $*"
@@ -0,0 +1,162 @@
+package com.gab.authservice.verifier;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The published verification keys, fetched from the JWKS endpoint and held in memory.
+ * <p>
+ * Refreshes revalidate with {@code If-None-Match}, so an unchanged key set costs a {@code 304} and no parsing. A fetch
+ * that fails keeps the last good keys. A token signed with a {@code kid} that is not in the set triggers one refresh
+ * right away, at most once per {@code minRefreshInterval}, so a new signing key is picked up without waiting for the
+ * next scheduled refresh and made-up {@code kid}s cannot turn into a request per token.
+ * </p>
+ */
+final class JwksCache {
+
+    private static final System.Logger LOG = System.getLogger(JwksCache.class.getName());
+
+    private final HttpClient httpClient;
+    private final URI jwksUri;
+    private final Duration requestTimeout;
+    private final long minRefreshIntervalNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // Null until the first successful fetch
+    private volatile KeySet keys;
+    private volatile long lastFetchNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    record KeySet(Map<String, PublicKey> byId, Map<String, PublicKey> byAlgorithm, String etag) {
+    }
+
+    JwksCache(HttpClient httpClient, URI jwksUri, Duration requestTimeout, Duration minRefreshInterval) {
+        this.httpClient = httpClient;
+        this.jwksUri = jwksUri;
+        this.requestTimeout = requestTimeout;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+    }
+
+    /**
+     * The key for a token header: by {@code kid}, or by algorithm for tokens without one. Null if there is none.
+     */
+    PublicKey key(String keyId, String algorithm) {
+        PublicKey key = lookup(loaded(), keyId, algorithm);
+        if (key == null && keyId != null && refreshDue()) {
+            // Possibly a key that was rotated in since the last refresh
+            refreshLock.lock();
+            try {
+                // Threads that waited here while another one fetched use its result
+                if (refreshDue()) {
+                    refresh();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+            key = lookup(keys, keyId, algorithm);
+        }
+        return key;
+    }
+
+    /**
+     * Fetches the key set if it changed. Returns false, keeping the current keys, if the fetch failed.
+     */
+    boolean refresh() {
+        refreshLock.lock();
+        try {
+            keys = fetch(keys);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOG.log(System.Logger.Level.WARNING, "Refreshing the JWK Set from " + jwksUri + " failed, keeping "
+                    + (keys == null ? "no keys" : "the last good keys"), e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean refreshDue() {
+        return System.nanoTime() - lastFetchNanos >= minRefreshIntervalNanos;
+    }
+
+    private KeySet loaded() {
+        KeySet current = keys;
+        if (current != null) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            if (keys == null) {
+                keys = fetch(null);
+            }
+            return keys;
+        } catch (IOException | RuntimeException e) {
+            throw new JwksUnavailableException("No verification keys: fetching " + jwksUri + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JwksUnavailableException("Interrupted while fetching " + jwksUri, e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private KeySet fetch(KeySet current) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(jwksUri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET();
+        if (current != null && current.etag() != null) {
+            request.header("If-None-Match", current.etag());
+        }
+        lastFetchNanos = System.nanoTime();
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 304 && current != null) {
+            return current;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + jwksUri + " returned " + response.statusCode());
+        }
+        return parse(response.body(), response.headers().firstValue("ETag").orElse(null));
+    }
+
+    static KeySet parse(String json, String etag) {
+        JwkSet set = Jwks.setParser().build().parse(json);
+        Map<String, PublicKey> byId = new HashMap<>();
+        Map<String, PublicKey> byAlgorithm = new HashMap<>();
+        // Keys of types this JDK cannot use are skipped by the parser; private or secret keys are never accepted
+        for (Jwk<?> jwk : set.getKeys()) {
+            if (jwk instanceof PublicJwk<?> publicJwk) {
+                PublicKey key = publicJwk.toKey();
+                if (jwk.getId() != null) {
+                    byId.putIfAbsent(jwk.getId(), key);
+                }
+                if (jwk.getAlgorithm() != null) {
+                    byAlgorithm.putIfAbsent(jwk.getAlgorithm(), key);
+                }
+            }
+        }
+        if (byId.isEmpty() && byAlgorithm.isEmpty()) {
+            throw new IllegalStateException("The JWK Set has no usable public keys");
+        }
+        return new KeySet(Map.copyOf(byId), Map.copyOf(byAlgorithm), etag);
+    }
+
+    private static PublicKey lookup(KeySet keys, String keyId, String algorithm) {
+        // An unknown kid is rejected rather than retried against other keys, as auth-service does
+        return keyId != null ? keys.byId().get(keyId) : algorithm == null ? null : keys.byAlgorithm().get(algorithm);
+    }
+}
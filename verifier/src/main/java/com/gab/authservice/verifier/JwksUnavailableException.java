@@ -0,0 +1,14 @@
+package com.gab.authservice.verifier;
+
+/**
+ * Thrown by {@link TokenVerifier#verify} when no verification keys have been loaded yet and the JWK Set cannot be
+ * fetched. Unlike an invalid token this says nothing about the caller's credentials, so services usually answer it
+ * with {@code 503} rather than {@code 401}. Once keys have been loaded, failed refreshes keep serving the last good
+ * keys and never throw.
+ */
+public class JwksUnavailableException extends RuntimeException {
+
+    public JwksUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
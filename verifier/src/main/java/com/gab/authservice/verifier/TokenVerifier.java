@@ -0,0 +1,187 @@
+package com.gab.authservice.verifier;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies auth-service access tokens locally, so a service can authenticate requests without calling auth-service.
+ * <p>
+ * The keys come from auth-service's {@code /.well-known/jwks.json}. They are loaded on the first {@link #verify} (or
+ * up front with {@link #refreshKeys()}), kept in memory and revalidated in the background every
+ * {@code refreshInterval} with the response's {@code ETag}. Tokens are checked by one {@link JwtParser} that is built
+ * once and shared by all threads; the key is picked by the token's {@code kid}, as auth-service does.
+ * </p>
+ * <p>
+ * Both JWT profiles auth-service issues are read: {@code standard} (role name in {@code role}) and {@code compact}
+ * (role code in {@code r}, user id as subject). Tokens of the binary {@code cwt} profile are not JWTs and are rejected;
+ * that profile is meant for services that verify with auth-service's own {@code JwtService}.
+ * </p>
+ * <p>
+ * Revocation is not visible here: a token revoked at auth-service (logout) stays valid for local verifiers until it
+ * expires, which is why access tokens are short-lived. One instance per JWKS URL is enough; {@link #close()} stops the
+ * background refresh.
+ * </p>
+ * <pre>{@code
+ * TokenVerifier verifier = TokenVerifier.builder(URI.create("https://auth.example.com/.well-known/jwks.json")).build();
+ * Optional<VerifiedToken> token = verifier.verify(bearerToken);
+ * }</pre>
+ */
+public final class TokenVerifier implements AutoCloseable {
+
+    // auth-service's Role.code() of each role; kept here so this library does not depend on auth-service
+    private static final Map<Integer, String> ROLES_BY_CODE = Map.of(1, "USER", 2, "ADMIN", 3, "SERVICE");
+
+    private final JwksCache keys;
+    private final JwtParser parser;
+    private final ScheduledExecutorService refresher;
+
+    private TokenVerifier(Builder builder) {
+        this.keys = new JwksCache(builder.httpClient, builder.jwksUri, builder.requestTimeout,
+                builder.minRefreshInterval);
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keys.key(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .clockSkewSeconds(builder.clockSkew.toSeconds())
+                .build();
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-verifier-jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = builder.refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(keys::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder(URI jwksUri) {
+        return new Builder(jwksUri);
+    }
+
+    /**
+     * Verifies the token's signature and expiry and returns its claims, or empty if the token is invalid, expired or
+     * signed with a key that is not published.
+     *
+     * @throws JwksUnavailableException if no keys have been loaded yet and the JWK Set cannot be fetched
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                // auth-service always sets exp; a token without one would never expire
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(claims.getSubject(), role(claims),
+                    claims.getExpiration().toInstant(), claims.getId()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // The role name of a standard token, or that of the role code of a compact one; null for codes not listed
+    private static String role(Claims claims) {
+        String role = claims.get("role", String.class);
+        if (role != null) {
+            return role;
+        }
+        Number code = claims.get("r", Number.class);
+        return code == null ? null : ROLES_BY_CODE.get(code.intValue());
+    }
+
+    /**
+     * Fetches the JWK Set now instead of waiting for the next scheduled refresh. Returns false, keeping the current
+     * keys, if the fetch failed.
+     */
+    public boolean refreshKeys() {
+        return keys.refresh();
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    public static final class Builder {
+
+        private final URI jwksUri;
+        private HttpClient httpClient;
+        private Duration refreshInterval = Duration.ofMinutes(5);
+        private Duration minRefreshInterval = Duration.ofSeconds(30);
+        private Duration requestTimeout = Duration.ofSeconds(5);
+        private Duration clockSkew = Duration.ZERO;
+
+        private Builder(URI jwksUri) {
+            this.jwksUri = Objects.requireNonNull(jwksUri, "jwksUri");
+        }
+
+        /**
+         * The client used to fetch the JWK Set. Defaults to a new {@link HttpClient} with a 5 second connect timeout.
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * How often the keys are revalidated in the background. Defaults to 5 minutes, auth-service's JWKS max-age.
+         */
+        public Builder refreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        /**
+         * The least time between two fetches triggered by tokens with an unknown {@code kid}. Defaults to 30 seconds.
+         */
+        public Builder minRefreshInterval(Duration minRefreshInterval) {
+            this.minRefreshInterval = minRefreshInterval;
+            return this;
+        }
+
+        /**
+         * Timeout of one JWK Set request. Defaults to 5 seconds.
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Tolerance for clock differences when checking {@code exp}. Defaults to none.
+         */
+        public Builder clockSkew(Duration clockSkew) {
+            this.clockSkew = clockSkew;
+            return this;
+        }
+
+        public TokenVerifier build() {
+            if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+                throw new IllegalArgumentException("refreshInterval must be positive");
+            }
+            if (httpClient == null) {
+                httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            }
+            return new TokenVerifier(this);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gab.authservice.verifier;
+
+import java.time.Instant;
+
+/**
+ * The claims of an access token whose signature and expiry have been verified by {@link TokenVerifier}.
+ * {@code role} is the auth-service role name ({@code USER}, {@code ADMIN}); {@code tokenId} is the {@code jti}, which
+ * tokens issued before it existed do not have.
+ */
+public record VerifiedToken(String subject, String role, Instant expiresAt, String tokenId) {
+
+    public boolean hasRole(String role) {
+        return role.equals(this.role);
+    }
+}
@@ -0,0 +1,231 @@
+package com.gab.authservice.verifier;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link TokenVerifier} against a local HTTP stub that serves a JWK Set the way auth-service does: keys with
+ * thumbprint {@code kid}s, a strong {@code ETag}, and {@code 304} for a matching {@code If-None-Match}.
+ */
+class TokenVerifierTest {
+
+    private HttpServer server;
+    private URI jwksUri;
+    private final List<String> ifNoneMatch = Collections.synchronizedList(new ArrayList<>());
+    private volatile String jwks;
+    private volatile String etag;
+    private volatile int failWith;
+    private TokenVerifier verifier;
+
+    private record SigningKey(KeyPair keyPair, String kid, String jwk) {
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            String requestTag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(String.valueOf(requestTag));
+            if (failWith != 0) {
+                exchange.sendResponseHeaders(failWith, -1);
+            } else if (etag.equals(requestTag)) {
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        jwksUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/.well-known/jwks.json");
+        verifier = TokenVerifier.builder(jwksUri).minRefreshInterval(Duration.ZERO).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.close();
+        server.stop(0);
+    }
+
+    private static SigningKey signingKey() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        PublicJwk<?> jwk = Jwks.builder().key(keyPair.getPublic())
+                .algorithm("RS256")
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+        return new SigningKey(keyPair, jwk.getId(), Jwks.json(jwk));
+    }
+
+    private void publish(SigningKey... keys) {
+        List<String> jwkJson = new ArrayList<>();
+        for (SigningKey key : keys) {
+            jwkJson.add(key.jwk());
+        }
+        jwks = "{\"keys\":[" + String.join(",", jwkJson) + "]}";
+        etag = "\"" + UUID.randomUUID() + "\"";
+    }
+
+    // Same layout as JwtService.generateToken in auth-service
+    private static String token(SigningKey key, String subject, String role, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(subject)
+                .claim("role", role)
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt))
+                .signWith(key.keyPair().getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private static Instant inFifteenMinutes() {
+        return Instant.now().plusSeconds(900);
+    }
+
+    @Test
+    void verify_shouldReturnTypedClaimsForPublishedKey() {
+        SigningKey key = signingKey();
+        publish(key);
+        Instant expiresAt = inFifteenMinutes();
+
+        VerifiedToken token = verifier.verify(token(key, "user@example.com", "ADMIN", expiresAt)).orElseThrow();
+
+        assertEquals("user@example.com", token.subject());
+        assertEquals("ADMIN", token.role());
+        assertTrue(token.hasRole("ADMIN"));
+        assertEquals(expiresAt.getEpochSecond(), token.expiresAt().getEpochSecond());
+        assertNotNull(token.tokenId());
+    }
+
+    @Test
+    void verify_shouldReadRoleCodeOfCompactTokens() {
+        SigningKey key = signingKey();
+        publish(key);
+        String userId = UUID.randomUUID().toString();
+        // Same layout as JwtService.generateToken with jwt.token-profile=compact
+        String compact = Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .id("AAECAwQFBgcICQoLDA0ODw")
+                .subject(userId)
+                .claim("r", 2)
+                .expiration(Date.from(inFifteenMinutes()))
+                .signWith(key.keyPair().getPrivate(), Jwts.SIG.RS256)
+                .compact();
+
+        VerifiedToken token = verifier.verify(compact).orElseThrow();
+
+        assertEquals(userId, token.subject());
+        assertEquals("ADMIN", token.role());
+        assertEquals("AAECAwQFBgcICQoLDA0ODw", token.tokenId());
+    }
+
+    @Test
+    void verify_shouldRejectInvalidTokensWithoutRefetching() {
+        SigningKey key = signingKey();
+        publish(key);
+        String valid = token(key, "user@example.com", "USER", inFifteenMinutes());
+        String tampered = valid.substring(0, valid.length() - 4) + (valid.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        assertTrue(verifier.verify(valid).isPresent());
+        assertTrue(verifier.verify(tampered).isEmpty());
+        assertTrue(verifier.verify(token(key, "user@example.com", "USER", Instant.now().minusSeconds(60))).isEmpty());
+        assertTrue(verifier.verify("not-a-token").isEmpty());
+        assertTrue(verifier.verify(null).isEmpty());
+        assertEquals(1, ifNoneMatch.size());
+    }
+
+    @Test
+    void refreshKeys_shouldRevalidateWithETag() {
+        SigningKey key = signingKey();
+        publish(key);
+        String token = token(key, "user@example.com", "USER", inFifteenMinutes());
+        assertTrue(verifier.verify(token).isPresent());
+
+        assertTrue(verifier.refreshKeys());
+
+        assertEquals(List.of("null", etag), ifNoneMatch);
+        assertTrue(verifier.verify(token).isPresent());
+    }
+
+    @Test
+    void verify_shouldFetchKeysAgainForUnknownKid() {
+        SigningKey oldKey = signingKey();
+        SigningKey newKey = signingKey();
+        publish(oldKey);
+        assertTrue(verifier.verify(token(oldKey, "user@example.com", "USER", inFifteenMinutes())).isPresent());
+
+        // auth-service rotated: tokens signed with the new key show up before the next scheduled refresh
+        publish(newKey, oldKey);
+
+        assertTrue(verifier.verify(token(newKey, "user@example.com", "USER", inFifteenMinutes())).isPresent());
+        assertTrue(verifier.verify(token(oldKey, "user@example.com", "USER", inFifteenMinutes())).isPresent());
+        assertEquals(2, ifNoneMatch.size());
+    }
+
+    @Test
+    void verify_shouldLimitFetchesForUnknownKid() {
+        SigningKey key = signingKey();
+        publish(key);
+        try (TokenVerifier limited = TokenVerifier.builder(jwksUri).minRefreshInterval(Duration.ofHours(1)).build()) {
+            String unknown = token(signingKey(), "user@example.com", "USER", inFifteenMinutes());
+
+            for (int i = 0; i < 10; i++) {
+                assertTrue(limited.verify(unknown).isEmpty());
+            }
+
+            assertEquals(1, ifNoneMatch.size());
+        }
+    }
+
+    @Test
+    void refreshKeys_shouldKeepLastGoodKeysWhenEndpointFails() {
+        SigningKey key = signingKey();
+        publish(key);
+        String token = token(key, "user@example.com", "USER", inFifteenMinutes());
+        assertTrue(verifier.verify(token).isPresent());
+
+        failWith = 503;
+
+        assertFalse(verifier.refreshKeys());
+        assertTrue(verifier.verify(token).isPresent());
+    }
+
+    @Test
+    void verify_shouldThrowWhenNoKeysCanBeLoaded() {
+        SigningKey key = signingKey();
+        publish(key);
+        failWith = 500;
+
+        assertThrows(JwksUnavailableException.class,
+                () -> verifier.verify(token(key, "user@example.com", "USER", inFifteenMinutes())));
+    }
+}